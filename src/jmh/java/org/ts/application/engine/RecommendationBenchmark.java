@@ -0,0 +1,126 @@
+package org.ts.application.engine;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ts.data.entities.Observation;
+
+/**
+ *
+ * Benchmarks of the recommendation path of
+ * <code>PatientServiceImpl.getRecommendedRegimenCategories</code> without the
+ * database: compiling the index, building the facts of a patient from
+ * observation entities and evaluating them, and keeping a working memory
+ * current.
+ * <p>
+ * Run with <code>./gradlew jmh</code>. Single parameters can be overridden on
+ * the JMH command line, for example <code>-p categories=512</code>.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecommendationBenchmark {
+
+	@Param({ "16", "256" })
+	int categories;
+
+	@Param({ "2", "6" })
+	int conditionsPerCategory;
+
+	@Param({ "5", "50" })
+	int observationsPerPatient;
+
+	@Param({ "10000", "100000" })
+	int totalObservations;
+
+	private RecommendationFixtures fixtures;
+	private RecommendationIndex index;
+	private PatientFacts[] facts;
+	private WorkingMemory memory;
+	private LocalDateTime clock;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		fixtures = new RecommendationFixtures(42L, categories, conditionsPerCategory, observationsPerPatient,
+		        totalObservations);
+		index = RecommendationIndex.compile(fixtures.getRegimenCategories());
+		facts = new PatientFacts[fixtures.getPatientCount()];
+		for (int p = 0; p < facts.length; p++) {
+			facts[p] = fixtures.facts(p);
+		}
+		memory = new RecommendationNetwork(index).createMemory(facts[0]);
+		clock = LocalDateTime.now();
+	}
+
+	private int nextPatient() {
+		int patient = next;
+		next = patient + 1 == facts.length ? 0 : patient + 1;
+		return patient;
+	}
+
+	@Benchmark
+	public RecommendationIndex compileIndex() {
+		return RecommendationIndex.compile(fixtures.getRegimenCategories());
+	}
+
+	/**
+	 * Builds the facts of a patient from its observations and evaluates them, as
+	 * done per request after the observation snapshot is loaded.
+	 */
+	@Benchmark
+	public List<Long> evaluatePatient() {
+		return index.evaluate(fixtures.facts(nextPatient()));
+	}
+
+	@Benchmark
+	public List<Long> evaluateFacts() {
+		return index.evaluate(facts[nextPatient()]);
+	}
+
+	@Benchmark
+	public boolean[] evaluateAllConditions() {
+		return index.evaluateConditions(facts[nextPatient()]);
+	}
+
+	/**
+	 * Evaluates every patient once, covering all observations.
+	 */
+	@Benchmark
+	public void evaluatePopulation(Blackhole blackhole) {
+		for (PatientFacts patient : facts) {
+			blackhole.consume(index.evaluateCategories(patient));
+		}
+	}
+
+	/**
+	 * Asserts the observations of another patient into a single working memory.
+	 * Each observation is made more recent than the last, so it replaces the
+	 * previous fact of its concept.
+	 */
+	@Benchmark
+	public void assertObservations(Blackhole blackhole) {
+		for (Observation observation : fixtures.getObservations().get(nextPatient())) {
+			clock = clock.plusSeconds(1);
+			blackhole.consume(memory.assertObservation(new ObservationFact(observation.getId(),
+			        observation.getConcept().getId(),
+			        observation.getConceptValue() == null ? null : observation.getConceptValue().getId(),
+			        observation.getIntValue(), clock)));
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package org.ts.application.engine;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.ts.data.entities.Concept;
+import org.ts.data.entities.Condition;
+import org.ts.data.entities.Observation;
+import org.ts.data.entities.RegimenCategory;
+import org.ts.utils.Lookup;
+
+import lombok.Getter;
+
+/**
+ *
+ * Synthetic, seeded recommendation metadata and observations for benchmarks.
+ * Concepts and conditions follow the shapes loaded by
+ * <code>MetaDataServiceImpl</code>: age ranges, integer thresholds such as
+ * temperature from 38 or up to 40 degrees, and coded presenting conditions.
+ * Conditions are drawn from a shared pool, so categories share conditions as
+ * they do in the default metadata.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+public class RecommendationFixtures {
+
+	private static final int PRESENTING_VALUES = 8;
+
+	private final Concept age;
+	private final Concept presentingCondition;
+	private final List<Concept> presentingValues = new ArrayList<>();
+	private final List<Concept> numericConcepts = new ArrayList<>();
+	private final List<RegimenCategory> regimenCategories = new ArrayList<>();
+	private final List<LocalDate> datesOfBirth = new ArrayList<>();
+	private final List<List<Observation>> observations = new ArrayList<>();
+
+	private final Random random;
+	private long ids;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param seed                   the seed of all random choices
+	 * @param categories             the number of regimen categories
+	 * @param conditionsPerCategory  the number of conditions per category
+	 * @param observationsPerPatient the number of observations per patient
+	 * @param totalObservations      the number of observations of all patients
+	 *
+	 */
+	public RecommendationFixtures(long seed, int categories, int conditionsPerCategory, int observationsPerPatient,
+	        int totalObservations) {
+		this.random = new Random(seed);
+
+		age = concept(Lookup.AGE_CONCEPT);
+		presentingCondition = concept("Presenting condition");
+		for (int i = 0; i < PRESENTING_VALUES; i++) {
+			presentingValues.add(concept("Presenting value " + i));
+		}
+		// One numeric concept per observation, the first one being temperature
+		numericConcepts.add(concept("Temperature"));
+		for (int i = 1; i < observationsPerPatient - 1; i++) {
+			numericConcepts.add(concept("Measurement " + i));
+		}
+
+		List<Condition> pool = new ArrayList<>();
+		int poolSize = Math.max(conditionsPerCategory, categories * conditionsPerCategory / 2);
+		for (int i = 0; i < poolSize; i++) {
+			pool.add(condition());
+		}
+		for (int i = 0; i < categories; i++) {
+			RegimenCategory category = new RegimenCategory();
+			category.setId(++ids);
+			category.setName("Category " + i);
+			while (category.getCondition().size() < conditionsPerCategory) {
+				category.getCondition().add(pool.get(random.nextInt(pool.size())));
+			}
+			regimenCategories.add(category);
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		int patients = Math.max(1, totalObservations / observationsPerPatient);
+		for (int p = 0; p < patients; p++) {
+			datesOfBirth.add(LocalDate.now().minusYears(random.nextInt(90)).minusDays(random.nextInt(365)));
+
+			List<Observation> patientObservations = new ArrayList<>();
+			for (int o = 0; o < observationsPerPatient; o++) {
+				Observation observation = new Observation();
+				observation.setId(++ids);
+				observation.setObservationDate(now.minusMinutes(random.nextInt(600)));
+				if (o == observationsPerPatient - 1) {
+					observation.setConcept(presentingCondition);
+					observation.setConceptValue(presentingValues.get(random.nextInt(PRESENTING_VALUES)));
+				} else {
+					observation.setConcept(numericConcepts.get(o % numericConcepts.size()));
+					observation.setIntValue(35 + random.nextInt(8));
+				}
+				patientObservations.add(observation);
+			}
+			observations.add(patientObservations);
+		}
+	}
+
+	/**
+	 * Returns the number of synthetic patients.
+	 *
+	 * @return the number of patients
+	 */
+	public int getPatientCount() {
+		return observations.size();
+	}
+
+	/**
+	 * Creates the facts of a patient the way the patient service does, from the
+	 * date of birth and the observation entities of the patient.
+	 *
+	 * @param patient the index of the patient
+	 *
+	 * @return the facts of the patient
+	 */
+	public PatientFacts facts(int patient) {
+		PatientFacts facts = new PatientFacts((long) patient,
+		        Period.between(datesOfBirth.get(patient), LocalDate.now()).getYears());
+		for (Observation observation : observations.get(patient)) {
+			facts.addObservation(ObservationFact.of(observation));
+		}
+		return facts;
+	}
+
+	private Concept concept(String name) {
+		Concept concept = new Concept();
+		concept.setId(++ids);
+		concept.setName(name);
+		return concept;
+	}
+
+	private Condition condition() {
+		Condition condition = new Condition();
+		condition.setId(++ids);
+		switch (random.nextInt(3)) {
+		case 0:
+			// Age from or to a number of years
+			condition.setConditionType(Lookup.INTEGER_CONDITION);
+			condition.setConcept(age);
+			condition.setRelator(random.nextBoolean() ? Lookup.GREATER_OR_EQUAL : Lookup.LESS);
+			condition.setIntValue(random.nextInt(80));
+			break;
+		case 1:
+			// Temperature like thresholds
+			condition.setConditionType(Lookup.INTEGER_CONDITION);
+			condition.setConcept(numericConcepts.get(random.nextInt(numericConcepts.size())));
+			condition.setRelator(random.nextBoolean() ? Lookup.GREATER_OR_EQUAL : Lookup.LESS);
+			condition.setIntValue(36 + random.nextInt(6));
+			break;
+		default:
+			// Presenting with a coded condition
+			condition.setConditionType(Lookup.CONCEPT_CONDITION);
+			condition.setConcept(presentingCondition);
+			condition.setConceptValue(presentingValues.get(random.nextInt(PRESENTING_VALUES)));
+			break;
+		}
+		condition.setDescription("Condition " + condition.getId());
+		return condition;
+	}
+}
@@ -1,8 +1,12 @@
 package org.ts;
 
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
@@ -16,6 +20,7 @@ import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
  *
  */
 @SpringBootApplication
+@EnableScheduling
 public class MainApplication {
 
 	@Bean
@@ -28,6 +33,15 @@ public class MainApplication {
 		return new BCryptPasswordEncoder();
 	}
 
+	/**
+	 * Bounded pool used to evaluate recommendations for many patients in
+	 * parallel. Defaults to one worker per available processor.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ForkJoinPool recommendationPool(@Value("${recommendations.batch.parallelism:0}") int parallelism) {
+		return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(MainApplication.class, args);
 	}
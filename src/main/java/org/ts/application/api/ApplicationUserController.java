@@ -9,9 +9,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 import javax.validation.ConstraintViolationException;
 
 import org.ts.application.exceptions.EntryNotActiveException;
@@ -181,16 +184,34 @@ public class ApplicationUserController {
 
 	/**
 	 * 
-	 * Fetches all active application users via GET through URL:
-	 * <code>/users/all</code>.
+	 * Fetches a page of active application users via GET through URL:
+	 * <code>/users</code>. Pages are ordered by ID and the <code>next</code>
+	 * token of a page is passed as <code>after</code> to fetch the following
+	 * page.
+	 * <p>
+	 * 
+	 * Example URL:
 	 * 
-	 * @return a list of all active application users in JSON or XML depending on
-	 *         client preferences
+	 * <code> 
+	 *  /users?limit=50&amp;after=aWQ6MTI
+	 * </code>
+	 * 
+	 * @param after the continuation token of the previous page, if any
+	 * @param limit the maximum number of application users in the page
+	 * 
+	 * @return a page of active application users
 	 * 
 	 */
 	@GetMapping(path = "")
-	public @ResponseBody Iterable<ApplicationUser> getAllUsers() {
-		return userService.getUsers();
+	public @ResponseBody KeysetPage<ApplicationUser> getAllUsers(@RequestParam(required = false) String after,
+	        @RequestParam(required = false) Integer limit) {
+		try {
+			int pageSize = KeysetPage.limitOf(limit);
+			List<ApplicationUser> users = userService.getUsers(KeysetPage.afterIdOf(after), pageSize + 1);
+			return KeysetPage.of(users, pageSize, ApplicationUser::getId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, e.getMessage(), e);
+		}
 	}
 
 }
@@ -0,0 +1,32 @@
+package org.ts.application.api;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * Request payload for evaluating recommendations for many patients at once.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class BatchRecommendationRequest {
+
+	private List<Long> patientIds = new ArrayList<>();
+
+	private LocalDateTime evaluationDate;
+
+	private List<LocalDateTime> asOf = new ArrayList<>();
+
+}
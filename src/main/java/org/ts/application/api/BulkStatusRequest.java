@@ -0,0 +1,29 @@
+package org.ts.application.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * Request payload for deleting or retiring many entries at once.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class BulkStatusRequest {
+
+	private List<Long> ids = new ArrayList<>();
+
+	private String reason;
+
+}
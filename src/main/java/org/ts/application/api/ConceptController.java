@@ -10,10 +10,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.application.services.ConceptService;
-import org.ts.data.entities.Concept;
+import org.ts.application.services.MetaDataService;
+import org.ts.data.MetadataCacheStatistics;
+import org.ts.data.repositories.ConceptSummary;
 
 @Controller 
 @RequestMapping(path = "/concepts") 
@@ -22,6 +26,9 @@ public class ConceptController {
 	@Autowired
 	private ConceptService conceptService;
 
+	@Autowired
+	private MetaDataService metaDataService;
+
 
 	/**
 	 * 
@@ -41,10 +48,10 @@ public class ConceptController {
 	 * @return an active concept if found
 	 */
 	@GetMapping(path = "/active/{conceptId}")
-	public @ResponseBody Concept getConcept(@PathVariable Long conceptId) {
+	public @ResponseBody ConceptSummary getConcept(@PathVariable Long conceptId) {
 		try {
-			Concept concept = conceptService.getActiveConcept(conceptId);
-			return concept;
+			// Concepts are read from the second-level cache and only summarized
+			return ConceptSummary.of(conceptService.getActiveConcept(conceptId));
 		} catch (EntryNotFoundException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
 		} catch (EntryNotActiveException e) {
@@ -69,10 +76,9 @@ public class ConceptController {
 	 * @return an active concept if found
 	 */
 	@GetMapping(path = "/name")
-	public @ResponseBody Concept getByConceptName(@RequestParam String name) {
+	public @ResponseBody ConceptSummary getByConceptName(@RequestParam String name) {
 		try {
-			Concept concept = conceptService.getActiveConcept(name);
-			return concept;
+			return ConceptSummary.of(conceptService.getActiveConcept(name));
 		} catch (EntryNotFoundException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
 		} catch (EntryNotActiveException e) {
@@ -82,14 +88,48 @@ public class ConceptController {
 
 	/**
 	 * 
-	 * Fetches all active concepts via GET through URL: <code>/concepts</code>.
+	 * Fetches a page of active concepts via GET through URL:
+	 * <code>/concepts</code>. Pages are ordered by ID and the <code>next</code>
+	 * token of a page is passed as <code>after</code> to fetch the following
+	 * page.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /concepts?limit=50&amp;after=aWQ6MTI
+	 * </code>
+	 * 
+	 * @param after the continuation token of the previous page, if any
+	 * @param limit the maximum number of concepts in the page
 	 * 
+	 * @return a page of summaries of active concepts
 	 * 
 	 */
 	@GetMapping(path = "")
-	public @ResponseBody Iterable<Concept> getAllConcepts() {
-		// This returns a JSON or XML with the concepts
-		return conceptService.getConcepts();
+	public @ResponseBody KeysetPage<ConceptSummary> getAllConcepts(@RequestParam(required = false) String after,
+	        @RequestParam(required = false) Integer limit) {
+		try {
+			int pageSize = KeysetPage.limitOf(limit);
+			List<ConceptSummary> concepts = conceptService.getConceptSummaries(KeysetPage.afterIdOf(after),
+			        pageSize + 1);
+			return KeysetPage.of(concepts, pageSize, ConceptSummary::getId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 
+	 * Fetches the hit, miss and put counts of the second-level cache holding
+	 * concepts and the rest of the clinical metadata via GET through URL:
+	 * <code>/concepts/cache</code>.
+	 * 
+	 * @return the current metadata cache statistics
+	 */
+	@GetMapping(path = "/cache")
+	public @ResponseBody MetadataCacheStatistics getCacheStatistics() {
+		return metaDataService.getCacheStatistics();
 	}
 
 }
@@ -9,15 +9,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 import javax.validation.ConstraintViolationException;
 
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.application.services.EncounterService;
 import org.ts.data.entities.Encounter;
+import org.ts.data.repositories.EncounterSummary;
 
 @Controller 
 @RequestMapping(path = "/encounters") 
@@ -80,10 +84,10 @@ public class EncounterController {
 	 * 
 	 * @return an active encounter if found
 	 */
-	@GetMapping(path = "/active")
-	public @ResponseBody Encounter getEncounter(@PathVariable Long encounterId) {
+	@GetMapping(path = "/active/{encounterId}")
+	public @ResponseBody EncounterSummary getEncounter(@PathVariable Long encounterId) {
 		try {
-			Encounter encounter = encounterService.getActiveEncounter(encounterId);
+			EncounterSummary encounter = encounterService.getActiveEncounterSummary(encounterId);
 			return encounter;
 		} catch (EntryNotFoundException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
@@ -152,16 +156,35 @@ public class EncounterController {
 
 	/**
 	 * 
-	 * Fetches all active encounters via GET through URL:
-	 * <code>/encounters</code>.
+	 * Fetches a page of active encounters via GET through URL:
+	 * <code>/encounters</code>. Pages are ordered by ID and the <code>next</code>
+	 * token of a page is passed as <code>after</code> to fetch the following
+	 * page.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /encounters?limit=50&amp;after=aWQ6MTI
+	 * </code>
+	 * 
+	 * @param after the continuation token of the previous page, if any
+	 * @param limit the maximum number of encounters in the page
+	 * 
+	 * @return a page of summaries of active encounters
 	 * 
-	 * @return a list of all active encounters
-	 *
 	 */
 	@GetMapping(path = "")
-	public @ResponseBody Iterable<Encounter> getAllEncounters() {
-		// This returns a JSON or XML with the encounters
-		return encounterService.getEncounters();
+	public @ResponseBody KeysetPage<EncounterSummary> getAllEncounters(@RequestParam(required = false) String after,
+	        @RequestParam(required = false) Integer limit) {
+		try {
+			int pageSize = KeysetPage.limitOf(limit);
+			List<EncounterSummary> encounters = encounterService.getEncounterSummaries(KeysetPage.afterIdOf(after),
+			        pageSize + 1);
+			return KeysetPage.of(encounters, pageSize, EncounterSummary::getId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -177,9 +200,112 @@ public class EncounterController {
 	 * 
 	 */
 	@GetMapping(path = "/patient/{patientId}")
-	public @ResponseBody Iterable<Encounter> getEncounters(@PathVariable Long patientId) {
+	public @ResponseBody Iterable<EncounterSummary> getEncounters(@PathVariable Long patientId) {
 		// This returns a JSON or XML with the workExperiences
-		return encounterService.getEncounters(patientId);
+		return encounterService.getEncounterSummaries(patientId);
+	}
+
+	/**
+	 * 
+	 * Deletes many encounters via POST through URL:
+	 * <code>/encounters/bulk/delete</code>. The encounters are updated with a
+	 * single statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the encounters and an optional reason
+	 * 
+	 * @return the number of encounters that were deleted
+	 */
+	@PostMapping(path = "/bulk/delete")
+	public @ResponseBody int deleteEncounters(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no encounter IDs");
+		}
+		return encounterService.deleteEncounters(request.getIds(), request.getReason());
+	}
+
+	/**
+	 * 
+	 * Deletes all encounters of a patient via POST through URL:
+	 * <code>/encounters/patient/{patientId}/delete</code>. The encounters are
+	 * updated with a single statement, without being loaded.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /encounters/patient/1/delete?reason=Entered+in+error
+	 * </code>
+	 * 
+	 * @param patientId the ID of the patient
+	 * @param reason    the reason to be recorded, if any
+	 * 
+	 * @return the number of encounters that were deleted
+	 */
+	@PostMapping(path = "/patient/{patientId}/delete")
+	public @ResponseBody int deleteEncountersOfPatient(@PathVariable Long patientId,
+	        @RequestParam(required = false) String reason) {
+		return encounterService.deleteEncountersOfPatient(patientId, reason);
+	}
+
+	/**
+	 * 
+	 * Retires many encounters via POST through URL:
+	 * <code>/encounters/bulk/retire</code>. The encounters are updated with a
+	 * single statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the encounters and an optional reason
+	 * 
+	 * @return the number of encounters that were retired
+	 */
+	@PostMapping(path = "/bulk/retire")
+	public @ResponseBody int retireEncounters(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no encounter IDs");
+		}
+		return encounterService.retireEncounters(request.getIds(), request.getReason());
 	}
 
+	/**
+	 * 
+	 * Retires all encounters of a patient via POST through URL:
+	 * <code>/encounters/patient/{patientId}/retire</code>. The encounters are
+	 * updated with a single statement, without being loaded.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /encounters/patient/1/retire?reason=Entered+in+error
+	 * </code>
+	 * 
+	 * @param patientId the ID of the patient
+	 * @param reason    the reason to be recorded, if any
+	 * 
+	 * @return the number of encounters that were retired
+	 */
+	@PostMapping(path = "/patient/{patientId}/retire")
+	public @ResponseBody int retireEncountersOfPatient(@PathVariable Long patientId,
+	        @RequestParam(required = false) String reason) {
+		return encounterService.retireEncountersOfPatient(patientId, reason);
+	}
 }
@@ -9,15 +9,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 import javax.validation.ConstraintViolationException;
 
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.application.services.EpisodeService;
 import org.ts.data.entities.Episode;
+import org.ts.data.repositories.EpisodeSummary;
 
 @Controller
 @RequestMapping(path = "/episodes")
@@ -87,9 +91,9 @@ public class EpisodeController {
 	 * @return an active episode if found
 	 */
 	@GetMapping(path = "/active/{episodeId}")
-	public @ResponseBody Episode getEpisode(@PathVariable Long episodeId) {
+	public @ResponseBody EpisodeSummary getEpisode(@PathVariable Long episodeId) {
 		try {
-			Episode episode = episodeService.getActiveEpisode(episodeId);
+			EpisodeSummary episode = episodeService.getActiveEpisodeSummary(episodeId);
 			return episode;
 		} catch (EntryNotFoundException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
@@ -155,17 +159,35 @@ public class EpisodeController {
 
 	/**
 	 * 
-	 * Fetches all active qualification types via GET through URL:
-	 * <code>/episodes</code>.
+	 * Fetches a page of active episodes via GET through URL:
+	 * <code>/episodes</code>. Pages are ordered by ID and the <code>next</code>
+	 * token of a page is passed as <code>after</code> to fetch the following
+	 * page.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /episodes?limit=50&amp;after=aWQ6MTI
+	 * </code>
+	 * 
+	 * @param after the continuation token of the previous page, if any
+	 * @param limit the maximum number of episodes in the page
 	 * 
-	 * @return a list of all active qualification types in JSON or XML depending on
-	 *         client episodes
+	 * @return a page of summaries of active episodes
 	 * 
 	 */
 	@GetMapping(path = "")
-	public @ResponseBody Iterable<Episode> getAllEpisodes() {
-		// This returns a JSON or XML with the episodes
-		return episodeService.getEpisodes();
+	public @ResponseBody KeysetPage<EpisodeSummary> getAllEpisodes(@RequestParam(required = false) String after,
+	        @RequestParam(required = false) Integer limit) {
+		try {
+			int pageSize = KeysetPage.limitOf(limit);
+			List<EpisodeSummary> episodes = episodeService.getEpisodeSummaries(KeysetPage.afterIdOf(after),
+			        pageSize + 1);
+			return KeysetPage.of(episodes, pageSize, EpisodeSummary::getId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -180,9 +202,112 @@ public class EpisodeController {
 	 * 
 	 */
 	@GetMapping(path = "/encounter/{encounterId}")
-	public @ResponseBody Iterable<Episode> getEpisodes(@PathVariable Long encounterId) {
+	public @ResponseBody Iterable<EpisodeSummary> getEpisodes(@PathVariable Long encounterId) {
 		// This returns a JSON or XML with the workExperiences
-		return episodeService.getEpisodes(encounterId);
+		return episodeService.getEpisodeSummaries(encounterId);
+	}
+
+	/**
+	 * 
+	 * Deletes many episodes via POST through URL:
+	 * <code>/episodes/bulk/delete</code>. The episodes are updated with a single
+	 * statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the episodes and an optional reason
+	 * 
+	 * @return the number of episodes that were deleted
+	 */
+	@PostMapping(path = "/bulk/delete")
+	public @ResponseBody int deleteEpisodes(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no episode IDs");
+		}
+		return episodeService.deleteEpisodes(request.getIds(), request.getReason());
 	}
 
+	/**
+	 * 
+	 * Deletes all episodes of an encounter via POST through URL:
+	 * <code>/episodes/encounter/{encounterId}/delete</code>. The episodes are
+	 * updated with a single statement, without being loaded.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /episodes/encounter/1/delete?reason=Entered+in+error
+	 * </code>
+	 * 
+	 * @param encounterId the ID of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of episodes that were deleted
+	 */
+	@PostMapping(path = "/encounter/{encounterId}/delete")
+	public @ResponseBody int deleteEpisodesOfEncounter(@PathVariable Long encounterId,
+	        @RequestParam(required = false) String reason) {
+		return episodeService.deleteEpisodesOfEncounter(encounterId, reason);
+	}
+
+	/**
+	 * 
+	 * Retires many episodes via POST through URL:
+	 * <code>/episodes/bulk/retire</code>. The episodes are updated with a single
+	 * statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the episodes and an optional reason
+	 * 
+	 * @return the number of episodes that were retired
+	 */
+	@PostMapping(path = "/bulk/retire")
+	public @ResponseBody int retireEpisodes(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no episode IDs");
+		}
+		return episodeService.retireEpisodes(request.getIds(), request.getReason());
+	}
+
+	/**
+	 * 
+	 * Retires all episodes of an encounter via POST through URL:
+	 * <code>/episodes/encounter/{encounterId}/retire</code>. The episodes are
+	 * updated with a single statement, without being loaded.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /episodes/encounter/1/retire?reason=Entered+in+error
+	 * </code>
+	 * 
+	 * @param encounterId the ID of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of episodes that were retired
+	 */
+	@PostMapping(path = "/encounter/{encounterId}/retire")
+	public @ResponseBody int retireEpisodesOfEncounter(@PathVariable Long encounterId,
+	        @RequestParam(required = false) String reason) {
+		return episodeService.retireEpisodesOfEncounter(encounterId, reason);
+	}
 }
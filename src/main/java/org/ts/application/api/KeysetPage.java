@@ -0,0 +1,108 @@
+package org.ts.application.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * A page of a list endpoint that is paged on ID. The <code>next</code> token is
+ * opaque to clients and is passed back as the <code>after</code> parameter to
+ * fetch the following page. It is <code>null</code> on the last page.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class KeysetPage<T> {
+
+	public static final int DEFAULT_LIMIT = 100;
+	public static final int MAX_LIMIT = 1000;
+
+	private static final String TOKEN_PREFIX = "id:";
+
+	private final List<T> items;
+	private final String next;
+
+	private KeysetPage(List<T> items, String next) {
+		this.items = items;
+		this.next = next;
+	}
+
+	/**
+	 * Creates a page from the rows fetched for it. Callers fetch one row more
+	 * than the limit so that the existence of a following page is known without
+	 * a count query.
+	 *
+	 * @param fetched the rows fetched for the page, ordered by ID
+	 * @param limit   the maximum number of rows in the page
+	 * @param idOf    the function returning the ID of a row
+	 *
+	 * @return a page holding at most <code>limit</code> rows
+	 */
+	public static <T> KeysetPage<T> of(List<T> fetched, int limit, Function<T, Long> idOf) {
+		if (fetched.size() <= limit) {
+			return new KeysetPage<>(Collections.unmodifiableList(fetched), null);
+		}
+		List<T> items = new ArrayList<>(fetched.subList(0, limit));
+		return new KeysetPage<>(Collections.unmodifiableList(items), encode(idOf.apply(items.get(limit - 1))));
+	}
+
+	/**
+	 * Returns the page size for a requested limit.
+	 *
+	 * @param limit the requested limit, or <code>null</code> for the default
+	 *
+	 * @return the page size to use
+	 *
+	 * @throws IllegalArgumentException if the limit is out of range
+	 */
+	public static int limitOf(Integer limit) {
+		if (limit == null) {
+			return DEFAULT_LIMIT;
+		}
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new IllegalArgumentException("Limit should be between 1 and " + MAX_LIMIT);
+		}
+		return limit;
+	}
+
+	/**
+	 * Returns the ID after which a page starts.
+	 *
+	 * @param after the continuation token of the previous page, or
+	 *              <code>null</code> for the first page
+	 *
+	 * @return the exclusive lower bound of the IDs in the page
+	 *
+	 * @throws IllegalArgumentException if the token is malformed
+	 */
+	public static Long afterIdOf(String after) {
+		if (after == null || after.isEmpty()) {
+			return 0L;
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+			if (!decoded.startsWith(TOKEN_PREFIX)) {
+				throw new IllegalArgumentException("Invalid continuation token");
+			}
+			return Long.valueOf(decoded.substring(TOKEN_PREFIX.length()));
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException is an IllegalArgumentException as well
+			throw new IllegalArgumentException("Invalid continuation token", e);
+		}
+	}
+
+	private static String encode(Long id) {
+		return Base64.getUrlEncoder().withoutPadding()
+		        .encodeToString((TOKEN_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -1,6 +1,8 @@
 package org.ts.application.api;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,23 +11,56 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolationException;
 
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
+import org.ts.application.services.ObservationPartitionService;
+import org.ts.application.services.ObservationResult;
 import org.ts.application.services.ObservationService;
 import org.ts.data.entities.Observation;
+import org.ts.data.repositories.ObservationSummary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Controller
 @RequestMapping(path = "/observations")
 public class ObservationController {
 
+	private static final String NDJSON = "application/x-ndjson";
+
+	private static final String CSV = "text/csv;charset=UTF-8";
+
+	private static final String CSV_HEADER = "id,observationDate,conceptId,conceptValueId,intValue,stringValue,"
+	        + "dateTimeValue,encounterId\r\n";
+
 	@Autowired
 	private ObservationService observationService;
 
+	@Autowired
+	private ObservationPartitionService observationPartitionService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${observations.batch.max-size:1000}")
+	private int maxBatchSize;
+
 	/**
 	 * 
 	 * Adds a new observation to an existing encounter via POST through URL:
@@ -69,6 +104,38 @@ public class ObservationController {
 		}
 	}
 
+	/**
+	 * 
+	 * Adds a batch of observations to existing encounters via POST through URL:
+	 * <code>/observations/batch</code>. Each distinct encounter and concept is
+	 * looked up once and all valid observations are inserted in one transaction.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * [
+	 *   {"observationDate": "2020-08-01T10:15:00", "concept": {"id": 12}, "intValue": 38, "encounter": {"id": 111}},
+	 *   {"observationDate": "2020-08-01T10:16:00", "concept": {"id": 14}, "intValue": 92, "encounter": {"id": 111}}
+	 * ]
+	 * </code>
+	 * 
+	 * @param observations the observations to be added to the system
+	 * 
+	 * @return the outcome of each observation, in the order of the batch
+	 */
+	@PostMapping(path = "/batch")
+	public @ResponseBody List<ObservationResult> addNewObservations(@RequestBody List<Observation> observations) {
+		if (observations == null || observations.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no observations");
+		}
+		if (observations.size() > maxBatchSize) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+			        "Invalid batch :: at most " + maxBatchSize + " observations are allowed");
+		}
+		return observationService.addObservations(observations);
+	}
+
 	/**
 	 * 
 	 * Fetches an active Observation via GET through URL:
@@ -87,9 +154,9 @@ public class ObservationController {
 	 * @return an active observation if found
 	 */
 	@GetMapping(path = "/active/{observationId}")
-	public @ResponseBody Observation getObservation(@PathVariable Long observationId) {
+	public @ResponseBody ObservationSummary getObservation(@PathVariable Long observationId) {
 		try {
-			Observation observation = observationService.getActiveObservation(observationId);
+			ObservationSummary observation = observationService.getActiveObservationSummary(observationId);
 			return observation;
 		} catch (EntryNotFoundException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
@@ -155,17 +222,53 @@ public class ObservationController {
 
 	/**
 	 * 
-	 * Fetches all active qualification types via GET through URL:
-	 * <code>/observations</code>.
+	 * Fetches a page of active observations via GET through URL:
+	 * <code>/observations</code>. Pages are ordered by ID and the <code>next</code>
+	 * token of a page is passed as <code>after</code> to fetch the following
+	 * page, along with the same date range.
+	 * <p>
+	 * The optional date range includes <code>from</code> and excludes
+	 * <code>to</code>. Both bounds are given together, so that only the
+	 * partitions of the range are read. Without them every active observation
+	 * is paged through.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /observations?limit=50&amp;after=aWQ6MTI&amp;from=2020-01-01T00:00:00&amp;to=2021-01-01T00:00:00
+	 * </code>
 	 * 
-	 * @return a list of all active qualification types in JSON or XML depending on
-	 *         client observations
+	 * @param after the continuation token of the previous page, if any
+	 * @param limit the maximum number of observations in the page
+	 * @param from  the inclusive lower bound of the observation date, if any
+	 * @param to    the exclusive upper bound of the observation date, if any
+	 * 
+	 * @return a page of summaries of active observations
 	 * 
 	 */
 	@GetMapping(path = "")
-	public @ResponseBody Iterable<Observation> getAllObservations() {
-		// This returns a JSON or XML with the observations
-		return observationService.getObservations();
+	public @ResponseBody KeysetPage<ObservationSummary> getAllObservations(
+	        @RequestParam(required = false) String after, @RequestParam(required = false) Integer limit,
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		if ((from == null) != (to == null)) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+			        "Invalid range :: from and to should be given together");
+		}
+		if (from != null && !from.isBefore(to)) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid range :: from should be before to");
+		}
+		try {
+			int pageSize = KeysetPage.limitOf(limit);
+			Long afterId = KeysetPage.afterIdOf(after);
+			List<ObservationSummary> observations = from == null
+			        ? observationService.getObservationSummaries(afterId, pageSize + 1)
+			        : observationService.getObservationSummaries(afterId, pageSize + 1, from, to);
+			return KeysetPage.of(observations, pageSize, ObservationSummary::getId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -180,9 +283,212 @@ public class ObservationController {
 	 * 
 	 */
 	@GetMapping(path = "/encounter/{encounterId}")
-	public @ResponseBody Iterable<Observation> getObservations(@PathVariable Long encounterId) {
+	public @ResponseBody Iterable<ObservationSummary> getObservations(@PathVariable Long encounterId) {
 		// This returns a JSON or XML with the workExperiences
-		return observationService.getObservations(encounterId);
+		return observationService.getObservationSummaries(encounterId);
+	}
+
+	/**
+	 * 
+	 * Exports active observations via GET through URL:
+	 * <code>/observations/export</code>.
+	 * <p>
+	 * Observations are streamed straight from a database cursor to the response
+	 * as newline delimited JSON or, with <code>format=csv</code>, as CSV with a
+	 * header line, ordered by ID. The date range includes <code>from</code> and
+	 * excludes <code>to</code>.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /observations/export?format=csv&amp;conceptId=6&amp;from=2020-01-01T00:00:00&amp;to=2021-01-01T00:00:00
+	 * </code>
+	 * 
+	 * @param format    the format of the export, <code>ndjson</code> or
+	 *                  <code>csv</code>
+	 * @param conceptId the observed concept to filter on, if any
+	 * @param patientId the patient to filter on, if any
+	 * @param from      the inclusive lower bound of the observation date, if any
+	 * @param to        the exclusive upper bound of the observation date, if any
+	 * @param response  the response that observations are written to
+	 * 
+	 */
+	@GetMapping(path = "/export")
+	public void exportObservations(@RequestParam(defaultValue = "ndjson") String format,
+	        @RequestParam(required = false) Long conceptId, @RequestParam(required = false) Long patientId,
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+	        HttpServletResponse response) throws IOException {
+		if (from != null && to != null && !from.isBefore(to)) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid range :: from should be before to");
+		}
+
+		if ("csv".equals(format)) {
+			response.setContentType(CSV);
+			Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+			writer.write(CSV_HEADER);
+			observationService.exportObservations(conceptId, patientId, from, to,
+			        observation -> writeCsv(writer, observation));
+			writer.flush();
+		} else if ("ndjson".equals(format)) {
+			response.setContentType(NDJSON);
+			OutputStream out = response.getOutputStream();
+			observationService.exportObservations(conceptId, patientId, from, to,
+			        observation -> writeJson(out, observation));
+			out.flush();
+		} else {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+			        "Invalid format :: expected ndjson or csv");
+		}
+	}
+
+	private void writeJson(OutputStream out, ObservationSummary observation) {
+		try {
+			out.write(objectMapper.writeValueAsBytes(observation));
+			out.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeCsv(Writer writer, ObservationSummary observation) {
+		try {
+			writer.write(observation.getId() + "," + csvOf(observation.getObservationDate()) + ","
+			        + csvOf(observation.getConceptId()) + "," + csvOf(observation.getConceptValueId()) + ","
+			        + csvOf(observation.getIntValue()) + "," + csvOf(observation.getStringValue()) + ","
+			        + csvOf(observation.getDateTimeValue()) + "," + csvOf(observation.getEncounterId()) + "\r\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String csvOf(Object value) {
+		if (value == null) {
+			return "";
+		}
+		String text = value instanceof LocalDateTime
+		        ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value) : value.toString();
+		if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+			return "\"" + text.replace("\"", "\"\"") + "\"";
+		}
+		return text;
 	}
 
+	/**
+	 * 
+	 * Deletes many observations via POST through URL:
+	 * <code>/observations/bulk/delete</code>. The observations are updated with a
+	 * single statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the observations and an optional reason
+	 * 
+	 * @return the number of observations that were deleted
+	 */
+	@PostMapping(path = "/bulk/delete")
+	public @ResponseBody int deleteObservations(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no observation IDs");
+		}
+		return observationService.deleteObservations(request.getIds(), request.getReason());
+	}
+
+	/**
+	 * 
+	 * Deletes all observations of an encounter via POST through URL:
+	 * <code>/observations/encounter/{encounterId}/delete</code>. The observations
+	 * are updated with a single statement, without being loaded.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /observations/encounter/1/delete?reason=Entered+in+error
+	 * </code>
+	 * 
+	 * @param encounterId the ID of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of observations that were deleted
+	 */
+	@PostMapping(path = "/encounter/{encounterId}/delete")
+	public @ResponseBody int deleteObservationsOfEncounter(@PathVariable Long encounterId,
+	        @RequestParam(required = false) String reason) {
+		return observationService.deleteObservationsOfEncounter(encounterId, reason);
+	}
+
+	/**
+	 * 
+	 * Retires many observations via POST through URL:
+	 * <code>/observations/bulk/retire</code>. The observations are updated with a
+	 * single statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the observations and an optional reason
+	 * 
+	 * @return the number of observations that were retired
+	 */
+	@PostMapping(path = "/bulk/retire")
+	public @ResponseBody int retireObservations(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no observation IDs");
+		}
+		return observationService.retireObservations(request.getIds(), request.getReason());
+	}
+
+	/**
+	 * 
+	 * Retires all observations of an encounter via POST through URL:
+	 * <code>/observations/encounter/{encounterId}/retire</code>. The observations
+	 * are updated with a single statement, without being loaded.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /observations/encounter/1/retire?reason=Entered+in+error
+	 * </code>
+	 * 
+	 * @param encounterId the ID of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of observations that were retired
+	 */
+	@PostMapping(path = "/encounter/{encounterId}/retire")
+	public @ResponseBody int retireObservationsOfEncounter(@PathVariable Long encounterId,
+	        @RequestParam(required = false) String reason) {
+		return observationService.retireObservationsOfEncounter(encounterId, reason);
+	}
+
+	/**
+	 * 
+	 * Fetches the names of the partitions of the observations via GET through
+	 * URL: <code>/observations/partitions</code>.
+	 * 
+	 * @return the names of the partitions, ordered by name
+	 * 
+	 */
+	@GetMapping(path = "/partitions")
+	public @ResponseBody List<String> getPartitions() {
+		return observationPartitionService.getPartitions();
+	}
 }
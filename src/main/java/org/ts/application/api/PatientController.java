@@ -1,6 +1,8 @@
 package org.ts.application.api;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,20 +11,34 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
 
 import javax.validation.ConstraintViolationException;
 
+import org.ts.application.engine.ObservationFact;
+import org.ts.application.engine.PatientRecommendation;
+import org.ts.application.engine.TracedRecommendation;
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.application.exceptions.InconsistentDataException;
 import org.ts.application.services.PatientService;
 import org.ts.data.entities.Patient;
 import org.ts.data.entities.RegimenCategory;
+import org.ts.data.repositories.PatientSummary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * 
@@ -36,20 +52,334 @@ import org.ts.data.entities.RegimenCategory;
 @RequestMapping(path = "/patients")
 public class PatientController {
 
+	private static final String NDJSON = "application/x-ndjson";
+
+	private static final String TRACE_HEADER = "X-Recommendation-Trace";
+
 	@Autowired
 	private PatientService patientService;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${recommendations.batch.max-size:5000}")
+	private int maxBatchSize;
+
 	/**
 	 * 
 	 * Fetches all applicable recommendations via POST through URL:
 	 * <code>/patients/{patientId}/recommendations</code>.
+	 * <p>
+	 * With an <code>asOf</code> timestamp the recommendations are evaluated as
+	 * they would have been at that time, from the latest observation per concept
+	 * made at or before it.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /patients/1/recommendations?asOf=2020-08-01T10:15:00
+	 * </code>
 	 * 
+	 * @param patientId the patient to evaluate recommendations for
+	 * @param asOf      an optional point in time to evaluate at
 	 * 
+	 * @return list of regimen categories that are applicable
 	 */
 	@PostMapping(path = "/{patientId}/recommendations")
-	public @ResponseBody Iterable<RegimenCategory> getRecommendedRegimenCategories(@PathVariable Long patientId) {
+	public @ResponseBody Iterable<RegimenCategory> getRecommendedRegimenCategories(@PathVariable Long patientId,
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+		if (asOf != null) {
+			try {
+				return patientService.getRecommendedRegimenCategoriesAsOf(patientId, asOf);
+			} catch (EntryNotFoundException e) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+			} catch (EntryNotActiveException e) {
+				throw new ResponseStatusException(HttpStatus.LOCKED, e.getMessage(), e);
+			}
+		}
 		// This returns a JSON or XML with the recommended regimen categories
 		return patientService.getRecommendedRegimenCategories(patientId, LocalDateTime.now());
 	}
 
+	/**
+	 * 
+	 * Fetches the recommendations that would apply if the given observations
+	 * were recorded, via POST through URL:
+	 * <code>/patients/{patientId}/recommendations/what-if</code>.
+	 * <p>
+	 * The observations are evaluated together with the stored observations of
+	 * the evaluation date and are not persisted. Observations without a date are
+	 * taken to be made at the evaluation date.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "observations": [
+	 *     { "conceptId": 6, "intValue": 39 },
+	 *     { "conceptId": 1, "conceptValueId": 5 }
+	 *   ]
+	 * }
+	 * </code>
+	 * 
+	 * @param patientId the patient to evaluate recommendations for
+	 * @param request   the transient observations and an optional evaluation
+	 *                  date, defaulting to now
+	 * 
+	 * @return list of regimen categories that would be applicable
+	 */
+	@PostMapping(path = "/{patientId}/recommendations/what-if")
+	public @ResponseBody Iterable<RegimenCategory> getHypotheticalRegimenCategories(@PathVariable Long patientId,
+	        @RequestBody WhatIfRecommendationRequest request) {
+		if (request.getObservations() == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid request :: no observations");
+		}
+		LocalDateTime evaluationDate = request.getEvaluationDate() == null ? LocalDateTime.now()
+		        : request.getEvaluationDate();
+
+		List<ObservationFact> observations = new ArrayList<>();
+		for (WhatIfRecommendationRequest.TransientObservation observation : request.getObservations()) {
+			if (observation.getConceptId() == null) {
+				throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+				        "Invalid observation :: a concept ID is required");
+			}
+			observations.add(new ObservationFact(null, observation.getConceptId(), observation.getConceptValueId(),
+			        observation.getIntValue(), observation.getObservationDate() == null ? evaluationDate
+			                : observation.getObservationDate()));
+		}
+
+		try {
+			return patientService.getHypotheticalRegimenCategories(patientId, evaluationDate, observations);
+		} catch (EntryNotFoundException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+		} catch (EntryNotActiveException e) {
+			throw new ResponseStatusException(HttpStatus.LOCKED, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 
+	 * Fetches all applicable recommendations together with a trace of their
+	 * evaluation via POST through URL:
+	 * <code>/patients/{patientId}/recommendations?trace=true</code>.
+	 * <p>
+	 * The trace lists every evaluated condition with the values compared, its
+	 * outcome and the nanoseconds taken, and the outcome of every category.
+	 * 
+	 * @param patientId the patient to evaluate recommendations for
+	 * 
+	 * @return the recommended regimen categories and the evaluation trace
+	 */
+	@PostMapping(path = "/{patientId}/recommendations", params = "trace=true")
+	public @ResponseBody TracedRecommendation traceRecommendedRegimenCategories(@PathVariable Long patientId) {
+		try {
+			return patientService.traceRecommendedRegimenCategories(patientId, LocalDateTime.now());
+		} catch (EntryNotFoundException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+		} catch (EntryNotActiveException e) {
+			throw new ResponseStatusException(HttpStatus.LOCKED, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 
+	 * Same as {@link #traceRecommendedRegimenCategories(Long)}, with tracing
+	 * requested by the <code>X-Recommendation-Trace: true</code> header.
+	 * 
+	 * @param patientId the patient to evaluate recommendations for
+	 * 
+	 * @return the recommended regimen categories and the evaluation trace
+	 */
+	@PostMapping(path = "/{patientId}/recommendations", headers = TRACE_HEADER + "=true")
+	public @ResponseBody TracedRecommendation traceRecommendedRegimenCategoriesByHeader(
+	        @PathVariable Long patientId) {
+		return traceRecommendedRegimenCategories(patientId);
+	}
+
+	/**
+	 * 
+	 * Fetches applicable recommendations for many patients via POST through URL:
+	 * <code>/patients/recommendations</code>.
+	 * <p>
+	 * Results are streamed back as newline delimited JSON, one line per patient,
+	 * in the order in which they are evaluated. When <code>asOf</code> timestamps
+	 * are given, every patient is evaluated as of each of them instead, and each
+	 * line names the timestamp it was evaluated at.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "patientIds": [1, 2, 3],
+	 *   "evaluationDate": "2020-10-13T08:00:00",
+	 *   "asOf": ["2020-09-01T00:00:00", "2020-10-01T00:00:00"]
+	 * }
+	 * </code>
+	 * 
+	 * @param request  the IDs of the patients and an optional evaluation date,
+	 *                 defaulting to now
+	 * @param response the response that results are written to
+	 * 
+	 */
+	@PostMapping(path = "/recommendations")
+	public void getRecommendedRegimenCategories(@RequestBody BatchRecommendationRequest request,
+	        HttpServletResponse response) throws IOException {
+		if (request.getPatientIds() == null || request.getPatientIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no patient IDs");
+		}
+		if (request.getPatientIds().size() > maxBatchSize) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+			        "Invalid batch :: at most " + maxBatchSize + " patient IDs are allowed");
+		}
+		List<LocalDateTime> asOf = request.getAsOf() == null ? new ArrayList<>() : request.getAsOf();
+		if ((long) request.getPatientIds().size() * Math.max(1, asOf.size()) > maxBatchSize) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+			        "Invalid batch :: at most " + maxBatchSize + " evaluations are allowed");
+		}
+		LocalDateTime evaluationDate = request.getEvaluationDate() == null ? LocalDateTime.now()
+		        : request.getEvaluationDate();
+
+		response.setContentType(NDJSON);
+		OutputStream out = response.getOutputStream();
+		if (asOf.isEmpty()) {
+			patientService.getRecommendedRegimenCategories(request.getPatientIds(), evaluationDate,
+			        recommendation -> write(out, recommendation));
+		} else {
+			patientService.getRecommendedRegimenCategoriesAsOf(request.getPatientIds(), asOf,
+			        recommendation -> write(out, recommendation));
+		}
+		out.flush();
+	}
+
+	private void write(OutputStream out, PatientRecommendation recommendation) {
+		try {
+			byte[] line = objectMapper.writeValueAsBytes(recommendation);
+			synchronized (out) {
+				out.write(line);
+				out.write('\n');
+				out.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 
+	 * Deletes many patients via POST through URL:
+	 * <code>/patients/bulk/delete</code>. The patients are updated with a single
+	 * statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the patients and an optional reason
+	 * 
+	 * @return the number of patients that were deleted
+	 */
+	@PostMapping(path = "/bulk/delete")
+	public @ResponseBody int deletePatients(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no patient IDs");
+		}
+		return patientService.deletePatients(request.getIds(), request.getReason());
+	}
+
+	/**
+	 * 
+	 * Retires many patients via POST through URL:
+	 * <code>/patients/bulk/retire</code>. The patients are updated with a single
+	 * statement per chunk of IDs, without being loaded.
+	 * <p>
+	 * 
+	 * Example payload:
+	 * 
+	 * <code> 
+	 * {
+	 *   "ids": [1, 2, 3],
+	 *   "reason": "Duplicate entries"
+	 * }
+	 * </code>
+	 * 
+	 * @param request the IDs of the patients and an optional reason
+	 * 
+	 * @return the number of patients that were retired
+	 */
+	@PostMapping(path = "/bulk/retire")
+	public @ResponseBody int retirePatients(@RequestBody BulkStatusRequest request) {
+		if (request.getIds() == null || request.getIds().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, "Invalid batch :: no patient IDs");
+		}
+		return patientService.retirePatients(request.getIds(), request.getReason());
+	}
+
+	/**
+	 * 
+	 * Fetches an active patient via GET through URL:
+	 * <code>/patients/active/{patientId}</code>.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /patients/active/1
+	 * </code>
+	 * 
+	 * @param patientId the patient ID to be used in the query
+	 * 
+	 * @return the summary of an active patient if found
+	 */
+	@GetMapping(path = "/active/{patientId}")
+	public @ResponseBody PatientSummary getPatient(@PathVariable Long patientId) {
+		try {
+			return patientService.getActivePatientSummary(patientId);
+		} catch (EntryNotFoundException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+		} catch (EntryNotActiveException e) {
+			throw new ResponseStatusException(HttpStatus.LOCKED, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 
+	 * Fetches a page of active patients via GET through URL:
+	 * <code>/patients</code>. Pages are ordered by ID and the <code>next</code>
+	 * token of a page is passed as <code>after</code> to fetch the following
+	 * page.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /patients?limit=50&amp;after=aWQ6MTI
+	 * </code>
+	 * 
+	 * @param after the continuation token of the previous page, if any
+	 * @param limit the maximum number of patients in the page
+	 * 
+	 * @return a page of summaries of active patients
+	 * 
+	 */
+	@GetMapping(path = "")
+	public @ResponseBody KeysetPage<PatientSummary> getAllPatients(@RequestParam(required = false) String after,
+	        @RequestParam(required = false) Integer limit) {
+		try {
+			int pageSize = KeysetPage.limitOf(limit);
+			List<PatientSummary> patients = patientService.getPatientSummaries(KeysetPage.afterIdOf(after),
+			        pageSize + 1);
+			return KeysetPage.of(patients, pageSize, PatientSummary::getId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, e.getMessage(), e);
+		}
+	}
 }
@@ -0,0 +1,139 @@
+package org.ts.application.api;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import org.ts.application.engine.RecommendationCacheStatistics;
+import org.ts.application.exceptions.InconsistentDataException;
+import org.ts.application.services.RecommendationCacheService;
+import org.ts.application.services.RecommendationService;
+import org.ts.data.entities.Recommendation;
+import org.ts.data.entities.RecommendationSweep;
+
+/**
+ *
+ * Serves the materialized recommendations, the statistics of the
+ * recommendation cache and the recommendation sweeps.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Controller
+@RequestMapping(path = "/recommendations")
+public class RecommendationController {
+
+	@Autowired
+	private RecommendationService recommendationService;
+
+	@Autowired
+	private RecommendationCacheService recommendationCacheService;
+
+	/**
+	 * 
+	 * Fetches a page of materialized recommendations for a date via GET through
+	 * URL: <code>/recommendations</code>. Pages are ordered by ID and the
+	 * <code>next</code> token of a page is passed as <code>after</code> to fetch
+	 * the following page, along with the same date.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /recommendations?date=2020-08-01&amp;limit=50&amp;after=aWQ6MTI
+	 * </code>
+	 * 
+	 * @param date  the evaluation date, defaults to the current date
+	 * @param after the continuation token of the previous page, if any
+	 * @param limit the maximum number of recommendations in the page
+	 * 
+	 * @return a page of recommendations
+	 */
+	@GetMapping(path = "")
+	public @ResponseBody KeysetPage<Recommendation> getRecommendations(
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+	        @RequestParam(required = false) String after, @RequestParam(required = false) Integer limit) {
+		try {
+			int pageSize = KeysetPage.limitOf(limit);
+			List<Recommendation> recommendations = recommendationService.getRecommendations(
+			        date == null ? LocalDate.now() : date, KeysetPage.afterIdOf(after), pageSize + 1);
+			return KeysetPage.of(recommendations, pageSize, Recommendation::getId);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 
+	 * Fetches materialized recommendations for a patient via GET through URL:
+	 * <code>/recommendations/patient/{patientId}</code>.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /recommendations/patient/1?date=2020-08-01
+	 * </code>
+	 * 
+	 * @param patientId the patient ID to be used in the query
+	 * @param date      the evaluation date, defaults to the current date
+	 * 
+	 * @return list of recommendations for the patient
+	 */
+	@GetMapping(path = "/patient/{patientId}")
+	public @ResponseBody List<Recommendation> getPatientRecommendations(@PathVariable Long patientId,
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+		return recommendationService.getRecommendations(patientId, date == null ? LocalDate.now() : date);
+	}
+
+	/**
+	 * 
+	 * Fetches the hit, miss and eviction counts of the recommendation result
+	 * cache via GET through URL: <code>/recommendations/cache</code>.
+	 * 
+	 * @return the current cache statistics
+	 */
+	@GetMapping(path = "/cache")
+	public @ResponseBody RecommendationCacheStatistics getCacheStatistics() {
+		return recommendationCacheService.getStatistics();
+	}
+
+	/**
+	 * 
+	 * Runs or resumes a recommendation sweep via POST through URL:
+	 * <code>/recommendations/sweep</code>.
+	 * <p>
+	 * 
+	 * Example URL:
+	 * 
+	 * <code> 
+	 *  /recommendations/sweep?date=2020-08-01
+	 * </code>
+	 * 
+	 * @param date the evaluation date, defaults to the current date
+	 * 
+	 * @return the finished sweep
+	 */
+	@PostMapping(path = "/sweep")
+	public @ResponseBody RecommendationSweep runSweep(
+	        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+		try {
+			return recommendationService.runSweep(date == null ? LocalDate.now() : date);
+		} catch (InconsistentDataException e) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.ts.application.api;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * Request payload for evaluating recommendations for a patient with transient
+ * observations that are not persisted.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class WhatIfRecommendationRequest {
+
+	private List<TransientObservation> observations = new ArrayList<>();
+
+	private LocalDateTime evaluationDate;
+
+	/**
+	 * 
+	 * A single observation value. Coded observations carry a
+	 * <code>conceptValueId</code>, numeric ones an <code>intValue</code>.
+	 * 
+	 */
+	@Getter
+	@Setter
+	@ToString
+	@NoArgsConstructor
+	public static class TransientObservation {
+
+		private Long conceptId;
+
+		private Long conceptValueId;
+
+		private int intValue;
+
+		private LocalDateTime observationDate;
+
+	}
+
+}
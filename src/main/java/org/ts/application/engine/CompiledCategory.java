@@ -0,0 +1,43 @@
+package org.ts.application.engine;
+
+import java.util.Arrays;
+
+import org.ts.data.entities.RegimenCategory;
+
+import lombok.Getter;
+
+/**
+ *
+ * Immutable, pre-compiled form of a {@link RegimenCategory} held by a
+ * {@link RecommendationIndex}. A category is recommended when every one of
+ * its condition slots is satisfied.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public final class CompiledCategory {
+
+	@Getter
+	private final Long categoryId;
+
+	@Getter
+	private final String name;
+
+	private final int[] conditionSlots;
+
+	CompiledCategory(Long categoryId, String name, int[] conditionSlots) {
+		this.categoryId = categoryId;
+		this.name = name;
+		this.conditionSlots = conditionSlots;
+	}
+
+	/**
+	 * Returns the condition slots that need to be satisfied for this category.
+	 *
+	 * @return a copy of the condition slots of this category
+	 */
+	public int[] getConditionSlots() {
+		return Arrays.copyOf(conditionSlots, conditionSlots.length);
+	}
+}
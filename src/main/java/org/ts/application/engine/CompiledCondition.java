@@ -0,0 +1,158 @@
+package org.ts.application.engine;
+
+import java.util.Objects;
+
+import org.ts.data.entities.Condition;
+import org.ts.utils.Lookup;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Immutable, pre-compiled form of a {@link Condition} held by a
+ * {@link RecommendationIndex}. Conditions that compare the same concept in the
+ * same way share a single compiled instance.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class CompiledCondition {
+
+	private final int slot;
+	private final Long conditionId;
+	private final String description;
+	private final Long conceptId;
+	private final int conditionType;
+	private final int relator;
+	private final int intValue;
+	private final int endValue;
+	private final Long conceptValueId;
+	private final boolean age;
+	private final int lowerBound;
+	private final int upperBound;
+
+	CompiledCondition(int slot, Condition condition) {
+		this.slot = slot;
+		this.conditionId = condition.getId();
+		this.description = condition.getDescription();
+		this.conceptId = condition.getConcept().getId();
+		this.conditionType = condition.getConditionType();
+		this.relator = condition.getRelator();
+		this.intValue = condition.getIntValue();
+		this.endValue = condition.getEndValue();
+		this.conceptValueId = condition.getConceptValue() == null ? null : condition.getConceptValue().getId();
+		this.age = Lookup.AGE_CONCEPT.equalsIgnoreCase(condition.getConcept().getName());
+
+		int[] bounds = boundsOf(relator, intValue, endValue);
+		this.lowerBound = bounds[0];
+		this.upperBound = bounds[1];
+	}
+
+	/**
+	 * Returns a key that is equal for conditions that evaluate identically.
+	 *
+	 * @param condition the condition to create a key for
+	 *
+	 * @return the deduplication key of the condition
+	 */
+	static String signatureOf(Condition condition) {
+		Long conceptValueId = condition.getConceptValue() == null ? null : condition.getConceptValue().getId();
+		return condition.getConcept().getId() + ":" + condition.getConditionType() + ":" + condition.getRelator()
+		        + ":" + condition.getIntValue() + ":" + condition.getEndValue() + ":" + conceptValueId + ":"
+		        + condition.getConcept().getName().equalsIgnoreCase(Lookup.AGE_CONCEPT);
+	}
+
+	/**
+	 * Checks whether this condition can be evaluated against observations, as
+	 * opposed to being derived from patient details or not being supported.
+	 *
+	 * @return true if an observation is needed to evaluate this condition
+	 */
+	public boolean isObservationBacked() {
+		return !age && (conditionType == Lookup.CONCEPT_CONDITION || conditionType == Lookup.INTEGER_CONDITION);
+	}
+
+	/**
+	 * Returns the relative cost of evaluating this condition. Conditions on the
+	 * age of the patient, or that are not supported, need no observation
+	 * lookup and are cheaper than conditions backed by an observation.
+	 *
+	 * @return the relative evaluation cost
+	 */
+	public int getCost() {
+		return isObservationBacked() ? 2 : 1;
+	}
+
+	/**
+	 * Evaluates this condition against the facts known about a patient.
+	 *
+	 * @param facts the facts known about the patient
+	 *
+	 * @return true if the condition is satisfied
+	 */
+	public boolean matches(PatientFacts facts) {
+		if (age) {
+			return matches(facts.getAge());
+		}
+		if (!isObservationBacked()) {
+			return true;
+		}
+		return matches(facts.getObservation(conceptId));
+	}
+
+	/**
+	 * Evaluates this condition against an observation of its concept.
+	 *
+	 * @param fact the most recent observation of the condition's concept
+	 *
+	 * @return true if the condition is satisfied
+	 */
+	public boolean matches(ObservationFact fact) {
+		if (fact == null) {
+			return false;
+		}
+		if (conditionType == Lookup.CONCEPT_CONDITION) {
+			return conceptValueId != null && Objects.equals(conceptValueId, fact.getConceptValueId());
+		}
+		return matches(fact.getIntValue());
+	}
+
+	/**
+	 * Evaluates the relator of this condition against a numeric value.
+	 *
+	 * @param value the value to compare with the bounds of this condition
+	 *
+	 * @return true if the condition is satisfied
+	 */
+	public boolean matches(int value) {
+		return value >= lowerBound && value <= upperBound;
+	}
+
+	/**
+	 * Computes the inclusive bounds of the values that satisfy a numeric
+	 * condition. A {@link Lookup#BETWEEN} condition is bounded by its exclusive
+	 * <code>endValue</code>. Relators other than {@link Lookup#GREATER_OR_EQUAL},
+	 * {@link Lookup#LESS} and {@link Lookup#BETWEEN} are compared for equality.
+	 * Bounds that can never be satisfied are returned as an empty interval.
+	 */
+	private static int[] boundsOf(int relator, int intValue, int endValue) {
+		long lower = intValue;
+		long upper = intValue;
+		if (relator == Lookup.GREATER_OR_EQUAL) {
+			upper = Integer.MAX_VALUE;
+		} else if (relator == Lookup.LESS) {
+			lower = Integer.MIN_VALUE;
+			upper = (long) intValue - 1;
+		} else if (relator == Lookup.BETWEEN) {
+			upper = (long) endValue - 1;
+		}
+		if (lower > upper) {
+			return new int[] { Integer.MAX_VALUE, Integer.MIN_VALUE };
+		}
+		return new int[] { (int) lower, (int) upper };
+	}
+}
@@ -0,0 +1,92 @@
+package org.ts.application.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Running selectivity statistics of the conditions of a
+ * {@link RecommendationIndex}, used to order the conditions of every category
+ * so that cheap conditions which are likely to fail are evaluated first.
+ * <p>
+ * Each condition is ranked by its cost divided by its observed failure rate.
+ * The order is refreshed after every {@value #REORDER_INTERVAL} evaluated
+ * patients. Instances are safe for use by multiple threads.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+final class ConditionStatistics {
+
+	static final int REORDER_INTERVAL = 1024;
+
+	private final List<CompiledCondition> conditions;
+	private final List<CompiledCategory> categories;
+	private final LongAdder[] evaluations;
+	private final LongAdder[] failures;
+	private final AtomicLong patients = new AtomicLong();
+
+	private volatile int[][] orders;
+
+	ConditionStatistics(List<CompiledCondition> conditions, List<CompiledCategory> categories) {
+		this.conditions = conditions;
+		this.categories = categories;
+		this.evaluations = new LongAdder[conditions.size()];
+		this.failures = new LongAdder[conditions.size()];
+		for (int slot = 0; slot < conditions.size(); slot++) {
+			evaluations[slot] = new LongAdder();
+			failures[slot] = new LongAdder();
+		}
+		this.orders = computeOrders();
+	}
+
+	/**
+	 * Returns the condition slots of a category in evaluation order.
+	 */
+	int[] orderOf(int category) {
+		return orders[category];
+	}
+
+	void record(int slot, boolean satisfied) {
+		evaluations[slot].increment();
+		if (!satisfied) {
+			failures[slot].increment();
+		}
+	}
+
+	void patientEvaluated() {
+		if (patients.incrementAndGet() % REORDER_INTERVAL == 0) {
+			orders = computeOrders();
+		}
+	}
+
+	/**
+	 * Ranks a condition by its expected cost per failure. Failure rates are
+	 * smoothed so that conditions without statistics start out as even odds.
+	 */
+	double rankOf(int slot) {
+		double failureRate = (failures[slot].sum() + 1.0) / (evaluations[slot].sum() + 2.0);
+		return conditions.get(slot).getCost() / failureRate;
+	}
+
+	private int[][] computeOrders() {
+		double[] ranks = new double[conditions.size()];
+		for (int slot = 0; slot < ranks.length; slot++) {
+			ranks[slot] = rankOf(slot);
+		}
+		int[][] computed = new int[categories.size()][];
+		for (int c = 0; c < categories.size(); c++) {
+			List<Integer> slots = new ArrayList<>();
+			for (int slot : categories.get(c).getConditionSlots()) {
+				slots.add(slot);
+			}
+			slots.sort(Comparator.comparingDouble((Integer slot) -> ranks[slot]).thenComparingInt(slot -> slot));
+			computed[c] = slots.stream().mapToInt(Integer::intValue).toArray();
+		}
+		return computed;
+	}
+}
@@ -0,0 +1,144 @@
+package org.ts.application.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.ts.utils.Lookup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Structured record of a single recommendation evaluation, collected only
+ * when tracing is requested. Holds the outcome of every condition that was
+ * evaluated, in evaluation order, with the values compared and the time taken,
+ * and the outcome of every category.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class EvaluationTrace {
+
+	private final Long patientId;
+	private final long indexVersion;
+	private final int age;
+	private final List<ConditionOutcome> conditions = new ArrayList<>();
+	private final List<CategoryOutcome> categories = new ArrayList<>();
+	private long totalNanos;
+
+	EvaluationTrace(Long patientId, long indexVersion, int age) {
+		this.patientId = patientId;
+		this.indexVersion = indexVersion;
+		this.age = age;
+	}
+
+	/**
+	 * Returns the outcome of every evaluated condition, in evaluation order.
+	 *
+	 * @return an unmodifiable list of condition outcomes
+	 */
+	public List<ConditionOutcome> getConditions() {
+		return Collections.unmodifiableList(conditions);
+	}
+
+	/**
+	 * Returns the outcome of every category, ordered by category ID.
+	 *
+	 * @return an unmodifiable list of category outcomes
+	 */
+	public List<CategoryOutcome> getCategories() {
+		return Collections.unmodifiableList(categories);
+	}
+
+	void addCondition(ConditionOutcome outcome) {
+		conditions.add(outcome);
+	}
+
+	void addCategory(CategoryOutcome outcome) {
+		categories.add(outcome);
+	}
+
+	void setTotalNanos(long totalNanos) {
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 *
+	 * Outcome of a single condition. The observed values are null when the
+	 * concept of the condition was not observed.
+	 *
+	 */
+	@Getter
+	@ToString
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public static final class ConditionOutcome {
+
+		private final Long conditionId;
+		private final String description;
+		private final Long conceptId;
+		private final int relator;
+		private final Integer lowerBound;
+		private final Integer upperBound;
+		private final Long expectedConceptValueId;
+		private final Long observationId;
+		private final Integer observedValue;
+		private final Long observedConceptValueId;
+		private final boolean satisfied;
+		private final long nanos;
+
+		ConditionOutcome(CompiledCondition condition, PatientFacts facts, boolean satisfied, long nanos) {
+			this.conditionId = condition.getConditionId();
+			this.description = condition.getDescription();
+			this.conceptId = condition.getConceptId();
+			this.relator = condition.getRelator();
+			this.satisfied = satisfied;
+			this.nanos = nanos;
+
+			boolean coded = condition.isObservationBacked() && condition.getConditionType() != Lookup.INTEGER_CONDITION;
+			this.lowerBound = coded ? null : condition.getLowerBound();
+			this.upperBound = coded ? null : condition.getUpperBound();
+			this.expectedConceptValueId = coded ? condition.getConceptValueId() : null;
+
+			ObservationFact fact = condition.isObservationBacked() ? facts.getObservation(condition.getConceptId())
+			        : null;
+			this.observationId = fact == null ? null : fact.getObservationId();
+			this.observedConceptValueId = fact == null ? null : fact.getConceptValueId();
+			if (condition.isAge()) {
+				this.observedValue = facts.getAge();
+			} else {
+				this.observedValue = fact == null || coded ? null : fact.getIntValue();
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Outcome of a single category. A category that does not match names the
+	 * first condition that failed.
+	 *
+	 */
+	@Getter
+	@ToString
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public static final class CategoryOutcome {
+
+		private final Long categoryId;
+		private final String name;
+		private final boolean matched;
+		private final Long failedConditionId;
+
+		CategoryOutcome(CompiledCategory category, boolean matched, Long failedConditionId) {
+			this.categoryId = category.getCategoryId();
+			this.name = category.getName();
+			this.matched = matched;
+			this.failedConditionId = failedConditionId;
+		}
+	}
+}
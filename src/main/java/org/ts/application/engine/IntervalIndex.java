@@ -0,0 +1,158 @@
+package org.ts.application.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ *
+ * Immutable centred interval tree over closed integer intervals. A stabbing
+ * query returns the slots of every interval containing a value in
+ * <code>O(log n + k)</code> time, where <code>k</code> is the number of
+ * matching intervals.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public final class IntervalIndex {
+
+	private static final int[] NONE = new int[0];
+
+	private final Node root;
+	private final int size;
+
+	private IntervalIndex(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Builds an index from the given intervals. Empty intervals, where the lower
+	 * bound is greater than the upper bound, are left out.
+	 *
+	 * @param lowerBounds the inclusive lower bound of each interval
+	 * @param upperBounds the inclusive upper bound of each interval
+	 * @param slots       the slot reported for each interval
+	 *
+	 * @return a new immutable interval index
+	 */
+	public static IntervalIndex build(int[] lowerBounds, int[] upperBounds, int[] slots) {
+		List<Interval> intervals = new ArrayList<>();
+		for (int i = 0; i < slots.length; i++) {
+			if (lowerBounds[i] <= upperBounds[i]) {
+				intervals.add(new Interval(lowerBounds[i], upperBounds[i], slots[i]));
+			}
+		}
+		return new IntervalIndex(Node.build(intervals), intervals.size());
+	}
+
+	/**
+	 * Returns the number of intervals held by this index.
+	 *
+	 * @return the number of non-empty intervals
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the slots of all intervals that contain a value.
+	 *
+	 * @param value the value to stab the intervals with
+	 *
+	 * @return the slots of all matching intervals, in no particular order
+	 */
+	public int[] stab(int value) {
+		if (root == null) {
+			return NONE;
+		}
+		int[] buffer = new int[size];
+		int found = 0;
+		Node node = root;
+		while (node != null) {
+			if (value < node.center) {
+				for (int i = 0; i < node.byLower.length && node.byLower[i].lower <= value; i++) {
+					buffer[found++] = node.byLower[i].slot;
+				}
+				node = node.left;
+			} else if (value > node.center) {
+				for (int i = 0; i < node.byUpper.length && node.byUpper[i].upper >= value; i++) {
+					buffer[found++] = node.byUpper[i].slot;
+				}
+				node = node.right;
+			} else {
+				for (Interval interval : node.byLower) {
+					buffer[found++] = interval.slot;
+				}
+				node = null;
+			}
+		}
+		return found == buffer.length ? buffer : Arrays.copyOf(buffer, found);
+	}
+
+	private static final class Interval {
+		private final int lower;
+		private final int upper;
+		private final int slot;
+
+		private Interval(int lower, int upper, int slot) {
+			this.lower = lower;
+			this.upper = upper;
+			this.slot = slot;
+		}
+	}
+
+	private static final class Node {
+		private final int center;
+		private final Interval[] byLower;
+		private final Interval[] byUpper;
+		private final Node left;
+		private final Node right;
+
+		private Node(int center, Interval[] byLower, Interval[] byUpper, Node left, Node right) {
+			this.center = center;
+			this.byLower = byLower;
+			this.byUpper = byUpper;
+			this.left = left;
+			this.right = right;
+		}
+
+		private static Node build(List<Interval> intervals) {
+			if (intervals.isEmpty()) {
+				return null;
+			}
+
+			// Use the median end point as the centre to keep the tree balanced
+			int[] points = new int[intervals.size() * 2];
+			int p = 0;
+			for (Interval interval : intervals) {
+				points[p++] = interval.lower;
+				points[p++] = interval.upper;
+			}
+			Arrays.sort(points);
+			int center = points[points.length / 2];
+
+			List<Interval> left = new ArrayList<>();
+			List<Interval> right = new ArrayList<>();
+			List<Interval> overlapping = new ArrayList<>();
+			for (Interval interval : intervals) {
+				if (interval.upper < center) {
+					left.add(interval);
+				} else if (interval.lower > center) {
+					right.add(interval);
+				} else {
+					overlapping.add(interval);
+				}
+			}
+
+			Interval[] byLower = overlapping.toArray(new Interval[0]);
+			Arrays.sort(byLower, Comparator.comparingInt((Interval i) -> i.lower));
+			Interval[] byUpper = overlapping.toArray(new Interval[0]);
+			Arrays.sort(byUpper, Comparator.comparingInt((Interval i) -> i.upper).reversed());
+
+			return new Node(center, byLower, byUpper, build(left), build(right));
+		}
+	}
+}
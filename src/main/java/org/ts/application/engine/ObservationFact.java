@@ -0,0 +1,83 @@
+package org.ts.application.engine;
+
+import java.time.LocalDateTime;
+
+import org.ts.data.entities.Observation;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Immutable, detached view of a single {@link Observation} value as used by the
+ * recommendation engine.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class ObservationFact {
+
+	private final Long observationId;
+	private final Long conceptId;
+	private final Long conceptValueId;
+	private final int intValue;
+	private final LocalDateTime observationDate;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param observationId   the identifier of the source observation
+	 * @param conceptId       the identifier of the observed concept
+	 * @param conceptValueId  the identifier of the coded value (can be null)
+	 * @param intValue        the numeric value of the observation
+	 * @param observationDate the date and time the observation was made
+	 *
+	 */
+	public ObservationFact(Long observationId, Long conceptId, Long conceptValueId, int intValue,
+	        LocalDateTime observationDate) {
+		this.observationId = observationId;
+		this.conceptId = conceptId;
+		this.conceptValueId = conceptValueId;
+		this.intValue = intValue;
+		this.observationDate = observationDate;
+	}
+
+	/**
+	 * Creates a fact from a loaded {@link Observation} instance.
+	 *
+	 * @param observation the observation to read values from
+	 *
+	 * @return a fact holding the values of the given observation
+	 */
+	public static ObservationFact of(Observation observation) {
+		return new ObservationFact(observation.getId(), observation.getConcept().getId(),
+		        observation.getConceptValue() == null ? null : observation.getConceptValue().getId(),
+		        observation.getIntValue(), observation.getObservationDate());
+	}
+
+	/**
+	 * Checks whether this fact was observed after another fact. Of facts
+	 * observed at the same time the one with the highest observation ID is the
+	 * most recent, as in the snapshot queries, and a fact without an ID is older
+	 * than one with an ID.
+	 *
+	 * @param other the fact to compare with
+	 *
+	 * @return true if this fact is more recent than the other fact
+	 */
+	public boolean isMoreRecentThan(ObservationFact other) {
+		if (other == null || other.observationDate == null) {
+			return true;
+		}
+		if (observationDate == null) {
+			return false;
+		}
+		if (observationDate.isEqual(other.observationDate)) {
+			return observationId != null && (other.observationId == null || observationId > other.observationId);
+		}
+		return observationDate.isAfter(other.observationDate);
+	}
+}
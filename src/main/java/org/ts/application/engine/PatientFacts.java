@@ -0,0 +1,73 @@
+package org.ts.application.engine;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ *
+ * Working set of facts known about a patient at evaluation time: the age of
+ * the patient and the most recent {@link ObservationFact} per concept.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public class PatientFacts {
+
+	@Getter
+	private final Long patientId;
+
+	@Getter
+	private final int age;
+
+	private final Map<Long, ObservationFact> observations = new HashMap<>();
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param patientId the identifier of the patient
+	 * @param age       the age of the patient in years
+	 *
+	 */
+	public PatientFacts(Long patientId, int age) {
+		this.patientId = patientId;
+		this.age = age;
+	}
+
+	/**
+	 * Adds a fact, keeping only the most recent fact for its concept.
+	 *
+	 * @param fact the observation fact to add
+	 *
+	 */
+	public void addObservation(ObservationFact fact) {
+		ObservationFact current = observations.get(fact.getConceptId());
+		if (current == null || fact.isMoreRecentThan(current)) {
+			observations.put(fact.getConceptId(), fact);
+		}
+	}
+
+	/**
+	 * Returns the most recent fact for a concept.
+	 *
+	 * @param conceptId the identifier of the concept
+	 *
+	 * @return the most recent fact or null if the concept was not observed
+	 */
+	public ObservationFact getObservation(Long conceptId) {
+		return observations.get(conceptId);
+	}
+
+	/**
+	 * Returns the most recent fact of every observed concept.
+	 *
+	 * @return an unmodifiable view of all facts
+	 */
+	public Collection<ObservationFact> getObservations() {
+		return Collections.unmodifiableCollection(observations.values());
+	}
+}
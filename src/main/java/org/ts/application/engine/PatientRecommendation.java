@@ -0,0 +1,74 @@
+package org.ts.application.engine;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Outcome of evaluating recommendations for a single patient in a batch. Holds
+ * either the recommended categories or the reason the patient could not be
+ * evaluated.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class PatientRecommendation {
+
+	private final Long patientId;
+	private final LocalDateTime asOf;
+	private final List<RecommendedCategory> regimenCategories;
+	private final String error;
+
+	private PatientRecommendation(Long patientId, LocalDateTime asOf, List<RecommendedCategory> regimenCategories,
+	        String error) {
+		this.patientId = patientId;
+		this.asOf = asOf;
+		this.regimenCategories = regimenCategories;
+		this.error = error;
+	}
+
+	/**
+	 * Creates a successful outcome.
+	 *
+	 * @param patientId         the identifier of the evaluated patient
+	 * @param regimenCategories the categories recommended for the patient
+	 *
+	 * @return a successful patient recommendation
+	 */
+	public static PatientRecommendation of(Long patientId, List<RecommendedCategory> regimenCategories) {
+		return new PatientRecommendation(patientId, null, Collections.unmodifiableList(regimenCategories), null);
+	}
+
+	/**
+	 * Creates a successful outcome of an evaluation as of a point in time.
+	 *
+	 * @param patientId         the identifier of the evaluated patient
+	 * @param asOf              the point in time the patient was evaluated at
+	 * @param regimenCategories the categories recommended for the patient
+	 *
+	 * @return a successful patient recommendation
+	 */
+	public static PatientRecommendation of(Long patientId, LocalDateTime asOf,
+	        List<RecommendedCategory> regimenCategories) {
+		return new PatientRecommendation(patientId, asOf, Collections.unmodifiableList(regimenCategories), null);
+	}
+
+	/**
+	 * Creates a failed outcome.
+	 *
+	 * @param patientId the identifier of the patient that could not be evaluated
+	 * @param error     the reason for the failure
+	 *
+	 * @return a failed patient recommendation
+	 */
+	public static PatientRecommendation failed(Long patientId, String error) {
+		return new PatientRecommendation(patientId, null, Collections.<RecommendedCategory>emptyList(), error);
+	}
+}
@@ -0,0 +1,46 @@
+package org.ts.application.engine;
+
+import java.time.LocalDate;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Key of a cached recommendation result. Besides the patient and evaluation
+ * date it holds the observation version of the patient and the version of the
+ * {@link RecommendationIndex} at the time the key was created, so a result is
+ * never served once either of them has changed.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class RecommendationCacheKey {
+
+	private final Long patientId;
+	private final LocalDate evaluationDate;
+	private final long observationVersion;
+	private final long indexVersion;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param patientId          the identifier of the patient
+	 * @param evaluationDate     the date recommendations are evaluated for
+	 * @param observationVersion the observation version of the patient
+	 * @param indexVersion       the version of the recommendation index
+	 *
+	 */
+	public RecommendationCacheKey(Long patientId, LocalDate evaluationDate, long observationVersion,
+	        long indexVersion) {
+		this.patientId = patientId;
+		this.evaluationDate = evaluationDate;
+		this.observationVersion = observationVersion;
+		this.indexVersion = indexVersion;
+	}
+}
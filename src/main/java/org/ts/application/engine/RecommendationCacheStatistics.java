@@ -0,0 +1,43 @@
+package org.ts.application.engine;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Snapshot of the hit, miss and eviction counts of the recommendation result
+ * cache.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class RecommendationCacheStatistics {
+
+	private final long size;
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final double hitRate;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param size          the approximate number of cached results
+	 * @param hitCount      the number of lookups that returned a result
+	 * @param missCount     the number of lookups that returned no result
+	 * @param evictionCount the number of results evicted by size or age
+	 * @param hitRate       the ratio of hits to lookups
+	 *
+	 */
+	public RecommendationCacheStatistics(long size, long hitCount, long missCount, long evictionCount,
+	        double hitRate) {
+		this.size = size;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.hitRate = hitRate;
+	}
+}
@@ -0,0 +1,347 @@
+package org.ts.application.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ts.data.entities.Condition;
+import org.ts.data.entities.RegimenCategory;
+import org.ts.utils.Lookup;
+
+import lombok.Getter;
+
+/**
+ *
+ * Immutable decision index compiled from all active {@link RegimenCategory}
+ * instances and their {@link Condition}s.
+ * <p>
+ * Conditions shared between categories are compiled once and grouped by the
+ * concept they test, so that evaluating a patient takes a single pass over the
+ * facts of that patient followed by a check of each category's condition
+ * slots. Numeric thresholds of a concept are held in an {@link IntervalIndex}
+ * so that one lookup returns every satisfied threshold, and coded conditions
+ * are looked up by their expected value.
+ * <p>
+ * When only the matching categories are needed, the conditions of each
+ * category are instead checked one at a time, ordered by running selectivity
+ * statistics, and a category is left at its first failing condition.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public final class RecommendationIndex {
+
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
+	private static final int[] NONE = new int[0];
+
+	private static final byte UNKNOWN = 0;
+	private static final byte SATISFIED = 1;
+	private static final byte FAILED = 2;
+
+	@Getter
+	private final long version;
+
+	private final List<CompiledCondition> conditions;
+	private final Map<Long, IntervalIndex> numericConditionsByConcept;
+	private final Map<Long, Map<Long, int[]>> codedConditionsByConcept;
+	private final IntervalIndex ageConditions;
+	private final int[] unsupportedConditions;
+	private final List<CompiledCategory> categories;
+	private final ConditionStatistics statistics;
+
+	private RecommendationIndex(List<CompiledCondition> conditions, List<CompiledCategory> categories) {
+		this.version = VERSIONS.incrementAndGet();
+		this.conditions = Collections.unmodifiableList(conditions);
+		this.categories = Collections.unmodifiableList(categories);
+
+		Map<Long, List<CompiledCondition>> numeric = new HashMap<>();
+		Map<Long, Map<Long, List<Integer>>> coded = new HashMap<>();
+		List<CompiledCondition> age = new ArrayList<>();
+		List<CompiledCondition> unsupported = new ArrayList<>();
+		for (CompiledCondition condition : conditions) {
+			if (condition.isAge()) {
+				age.add(condition);
+			} else if (!condition.isObservationBacked()) {
+				unsupported.add(condition);
+			} else if (condition.getConditionType() == Lookup.CONCEPT_CONDITION) {
+				if (condition.getConceptValueId() != null) {
+					coded.computeIfAbsent(condition.getConceptId(), k -> new HashMap<>())
+					        .computeIfAbsent(condition.getConceptValueId(), k -> new ArrayList<>())
+					        .add(condition.getSlot());
+				}
+			} else {
+				numeric.computeIfAbsent(condition.getConceptId(), k -> new ArrayList<>()).add(condition);
+			}
+		}
+
+		Map<Long, IntervalIndex> numericIndex = new HashMap<>();
+		for (Map.Entry<Long, List<CompiledCondition>> entry : numeric.entrySet()) {
+			numericIndex.put(entry.getKey(), intervalsOf(entry.getValue()));
+		}
+		Map<Long, Map<Long, int[]>> codedIndex = new HashMap<>();
+		for (Map.Entry<Long, Map<Long, List<Integer>>> entry : coded.entrySet()) {
+			Map<Long, int[]> byValue = new HashMap<>();
+			for (Map.Entry<Long, List<Integer>> value : entry.getValue().entrySet()) {
+				byValue.put(value.getKey(), value.getValue().stream().mapToInt(Integer::intValue).toArray());
+			}
+			codedIndex.put(entry.getKey(), Collections.unmodifiableMap(byValue));
+		}
+
+		this.numericConditionsByConcept = Collections.unmodifiableMap(numericIndex);
+		this.codedConditionsByConcept = Collections.unmodifiableMap(codedIndex);
+		this.ageConditions = intervalsOf(age);
+		this.unsupportedConditions = unsupported.stream().mapToInt(CompiledCondition::getSlot).toArray();
+		this.statistics = new ConditionStatistics(this.conditions, this.categories);
+	}
+
+	private static IntervalIndex intervalsOf(List<CompiledCondition> conditions) {
+		int[] lowerBounds = new int[conditions.size()];
+		int[] upperBounds = new int[conditions.size()];
+		int[] slots = new int[conditions.size()];
+		for (int i = 0; i < conditions.size(); i++) {
+			lowerBounds[i] = conditions.get(i).getLowerBound();
+			upperBounds[i] = conditions.get(i).getUpperBound();
+			slots[i] = conditions.get(i).getSlot();
+		}
+		return IntervalIndex.build(lowerBounds, upperBounds, slots);
+	}
+
+	/**
+	 * Compiles an index from regimen categories whose conditions and condition
+	 * concepts have already been loaded.
+	 *
+	 * @param regimenCategories the active regimen categories to compile
+	 *
+	 * @return a new immutable index
+	 */
+	public static RecommendationIndex compile(Collection<RegimenCategory> regimenCategories) {
+		List<RegimenCategory> sorted = new ArrayList<>(regimenCategories);
+		sorted.sort(Comparator.comparing(RegimenCategory::getId));
+
+		Map<String, CompiledCondition> compiled = new LinkedHashMap<>();
+		List<CompiledCategory> categories = new ArrayList<>();
+		for (RegimenCategory category : sorted) {
+			List<Integer> slots = new ArrayList<>();
+			for (Condition condition : category.getCondition()) {
+				String signature = CompiledCondition.signatureOf(condition);
+				CompiledCondition compiledCondition = compiled.get(signature);
+				if (compiledCondition == null) {
+					compiledCondition = new CompiledCondition(compiled.size(), condition);
+					compiled.put(signature, compiledCondition);
+				}
+				if (!slots.contains(compiledCondition.getSlot())) {
+					slots.add(compiledCondition.getSlot());
+				}
+			}
+			categories.add(new CompiledCategory(category.getId(), category.getName(),
+			        slots.stream().mapToInt(Integer::intValue).toArray()));
+		}
+		return new RecommendationIndex(new ArrayList<>(compiled.values()), categories);
+	}
+
+	/**
+	 * Returns all distinct compiled conditions, ordered by slot.
+	 *
+	 * @return an unmodifiable list of compiled conditions
+	 */
+	public List<CompiledCondition> getConditions() {
+		return conditions;
+	}
+
+	/**
+	 * Returns all compiled categories, ordered by category ID.
+	 *
+	 * @return an unmodifiable list of compiled categories
+	 */
+	public List<CompiledCategory> getCategories() {
+		return categories;
+	}
+
+	/**
+	 * Evaluates every condition in the index against the facts of a patient.
+	 *
+	 * @param facts the facts known about the patient
+	 *
+	 * @return the satisfied state of every condition, indexed by slot
+	 */
+	public boolean[] evaluateConditions(PatientFacts facts) {
+		boolean[] satisfied = new boolean[conditions.size()];
+		for (int slot : unsupportedConditions) {
+			satisfied[slot] = true;
+		}
+		for (int slot : ageConditions.stab(facts.getAge())) {
+			satisfied[slot] = true;
+		}
+		for (ObservationFact fact : facts.getObservations()) {
+			for (int slot : slotsSatisfiedBy(fact)) {
+				satisfied[slot] = true;
+			}
+		}
+		return satisfied;
+	}
+
+	/**
+	 * Returns the slots of all conditions satisfied independently of any
+	 * observation, namely unsupported conditions and age conditions.
+	 *
+	 * @param age the age of the patient in years
+	 *
+	 * @return the satisfied slots, in no particular order
+	 */
+	int[] slotsSatisfiedBy(int age) {
+		int[] ageSlots = ageConditions.stab(age);
+		int[] slots = Arrays.copyOf(unsupportedConditions, unsupportedConditions.length + ageSlots.length);
+		System.arraycopy(ageSlots, 0, slots, unsupportedConditions.length, ageSlots.length);
+		return slots;
+	}
+
+	/**
+	 * Returns the slots of all conditions satisfied by an observation, assuming
+	 * it is the most recent observation of its concept.
+	 *
+	 * @param fact the observation fact to test
+	 *
+	 * @return the satisfied slots, in no particular order
+	 */
+	int[] slotsSatisfiedBy(ObservationFact fact) {
+		IntervalIndex numeric = numericConditionsByConcept.get(fact.getConceptId());
+		int[] numericSlots = numeric == null ? NONE : numeric.stab(fact.getIntValue());
+
+		int[] codedSlots = NONE;
+		Map<Long, int[]> coded = codedConditionsByConcept.get(fact.getConceptId());
+		if (coded != null && fact.getConceptValueId() != null) {
+			codedSlots = coded.getOrDefault(fact.getConceptValueId(), NONE);
+		}
+
+		if (codedSlots.length == 0) {
+			return numericSlots;
+		}
+		int[] slots = Arrays.copyOf(numericSlots, numericSlots.length + codedSlots.length);
+		System.arraycopy(codedSlots, 0, slots, numericSlots.length, codedSlots.length);
+		return slots;
+	}
+
+	/**
+	 * Returns the IDs of all categories that apply to a patient.
+	 *
+	 * @param facts the facts known about the patient
+	 *
+	 * @return the IDs of matching categories, ordered by category ID
+	 */
+	public List<Long> evaluate(PatientFacts facts) {
+		byte[] states = new byte[conditions.size()];
+		List<Long> matches = new ArrayList<>();
+		for (int c = 0; c < categories.size(); c++) {
+			if (isSatisfied(c, facts, states)) {
+				matches.add(categories.get(c).getCategoryId());
+			}
+		}
+		statistics.patientEvaluated();
+		return matches;
+	}
+
+	/**
+	 * Returns references to all categories that apply to a patient.
+	 *
+	 * @param facts the facts known about the patient
+	 *
+	 * @return the matching categories, ordered by category ID
+	 */
+	public List<RecommendedCategory> evaluateCategories(PatientFacts facts) {
+		byte[] states = new byte[conditions.size()];
+		List<RecommendedCategory> matches = new ArrayList<>();
+		for (int c = 0; c < categories.size(); c++) {
+			if (isSatisfied(c, facts, states)) {
+				CompiledCategory category = categories.get(c);
+				matches.add(new RecommendedCategory(category.getCategoryId(), category.getName()));
+			}
+		}
+		statistics.patientEvaluated();
+		return matches;
+	}
+
+	/**
+	 * Evaluates all categories for a patient like {@link #evaluate(PatientFacts)},
+	 * recording the outcome and timing of every condition and category.
+	 *
+	 * @param facts the facts known about the patient
+	 *
+	 * @return the trace of the evaluation
+	 */
+	public EvaluationTrace trace(PatientFacts facts) {
+		long started = System.nanoTime();
+		EvaluationTrace trace = new EvaluationTrace(facts.getPatientId(), version, facts.getAge());
+		byte[] states = new byte[conditions.size()];
+		for (int c = 0; c < categories.size(); c++) {
+			isSatisfied(c, facts, states, trace);
+		}
+		statistics.patientEvaluated();
+		trace.setTotalNanos(System.nanoTime() - started);
+		return trace;
+	}
+
+	/**
+	 * Returns the condition slots of a category in the order they are currently
+	 * evaluated in.
+	 *
+	 * @param category the position of the category in {@link #getCategories()}
+	 *
+	 * @return the condition slots of the category in evaluation order
+	 */
+	int[] getEvaluationOrder(int category) {
+		return statistics.orderOf(category).clone();
+	}
+
+	/**
+	 * Checks the conditions of a category in order of their selectivity and
+	 * stops at the first one that fails. Conditions shared with categories
+	 * checked before are evaluated only once per patient.
+	 */
+	private boolean isSatisfied(int category, PatientFacts facts, byte[] states) {
+		for (int slot : statistics.orderOf(category)) {
+			if (states[slot] == UNKNOWN) {
+				boolean satisfied = conditions.get(slot).matches(facts);
+				statistics.record(slot, satisfied);
+				states[slot] = satisfied ? SATISFIED : FAILED;
+			}
+			if (states[slot] == FAILED) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Traced counterpart of {@link #isSatisfied(int, PatientFacts, byte[])},
+	 * kept separate so that untraced evaluations do not pay for tracing.
+	 */
+	private boolean isSatisfied(int category, PatientFacts facts, byte[] states, EvaluationTrace trace) {
+		for (int slot : statistics.orderOf(category)) {
+			if (states[slot] == UNKNOWN) {
+				CompiledCondition condition = conditions.get(slot);
+				long started = System.nanoTime();
+				boolean satisfied = condition.matches(facts);
+				long nanos = System.nanoTime() - started;
+				statistics.record(slot, satisfied);
+				states[slot] = satisfied ? SATISFIED : FAILED;
+				trace.addCondition(new EvaluationTrace.ConditionOutcome(condition, facts, satisfied, nanos));
+			}
+			if (states[slot] == FAILED) {
+				trace.addCategory(new EvaluationTrace.CategoryOutcome(categories.get(category), false,
+				        conditions.get(slot).getConditionId()));
+				return false;
+			}
+		}
+		trace.addCategory(new EvaluationTrace.CategoryOutcome(categories.get(category), true, null));
+		return true;
+	}
+}
@@ -0,0 +1,99 @@
+package org.ts.application.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ *
+ * Incremental matching network compiled from a {@link RecommendationIndex}, in
+ * the style of a Rete network. The conditions of the index act as alpha
+ * nodes, each shared by all categories that use it, and every category is a
+ * join node counting how many of its conditions are still unsatisfied.
+ * <p>
+ * A {@link WorkingMemory} created by this network keeps the matching
+ * categories of a single patient current as observations are asserted, so
+ * reading them does not require the rule set to be evaluated again.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public final class RecommendationNetwork {
+
+	@Getter
+	private final RecommendationIndex index;
+
+	private final List<CompiledCategory> categories;
+	private final int[][] categoriesBySlot;
+	private final int[] conditionCounts;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param index the compiled index to build the network from
+	 *
+	 */
+	public RecommendationNetwork(RecommendationIndex index) {
+		this.index = index;
+		this.categories = index.getCategories();
+
+		List<List<Integer>> joins = new ArrayList<>();
+		for (int slot = 0; slot < index.getConditions().size(); slot++) {
+			joins.add(new ArrayList<>());
+		}
+		this.conditionCounts = new int[categories.size()];
+		for (int c = 0; c < categories.size(); c++) {
+			int[] slots = categories.get(c).getConditionSlots();
+			conditionCounts[c] = slots.length;
+			for (int slot : slots) {
+				joins.get(slot).add(c);
+			}
+		}
+		this.categoriesBySlot = new int[joins.size()][];
+		for (int slot = 0; slot < joins.size(); slot++) {
+			categoriesBySlot[slot] = joins.get(slot).stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	/**
+	 * Returns the version of the index this network was built from.
+	 *
+	 * @return the version of the underlying index
+	 */
+	public long getVersion() {
+		return index.getVersion();
+	}
+
+	/**
+	 * Creates a working memory primed with the facts known about a patient.
+	 *
+	 * @param facts the facts known about the patient
+	 *
+	 * @return a new working memory for the patient
+	 */
+	public WorkingMemory createMemory(PatientFacts facts) {
+		return new WorkingMemory(this, facts);
+	}
+
+	int getConditionCount() {
+		return categoriesBySlot.length;
+	}
+
+	int getCategoryCount() {
+		return categories.size();
+	}
+
+	int[] getConditionCounts() {
+		return conditionCounts.clone();
+	}
+
+	int[] getCategoriesOf(int slot) {
+		return categoriesBySlot[slot];
+	}
+
+	CompiledCategory getCategory(int position) {
+		return categories.get(position);
+	}
+}
@@ -0,0 +1,33 @@
+package org.ts.application.engine;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Lightweight reference to a recommended regimen category, as returned by
+ * batch recommendation operations.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class RecommendedCategory {
+
+	private final Long id;
+	private final String name;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param id   the identifier of the regimen category
+	 * @param name the name of the regimen category
+	 *
+	 */
+	public RecommendedCategory(Long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+}
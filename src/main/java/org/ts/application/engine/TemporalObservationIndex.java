@@ -0,0 +1,170 @@
+package org.ts.application.engine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * Immutable index over the observation history of a group of patients, keyed
+ * by patient, concept and observation date. Answers which value of a concept
+ * was the latest at or before a point in time with a binary search, so that
+ * the facts of a patient can be rebuilt as of any number of timestamps after
+ * the history has been loaded once.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public final class TemporalObservationIndex {
+
+	private final Map<Long, Map<Long, Series>> seriesByPatient;
+
+	private TemporalObservationIndex(Map<Long, Map<Long, Series>> seriesByPatient) {
+		this.seriesByPatient = seriesByPatient;
+	}
+
+	/**
+	 * Creates a builder for an index.
+	 *
+	 * @return a new, empty builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns the latest fact of a concept observed at or before a point in
+	 * time.
+	 *
+	 * @param patientId the identifier of the patient
+	 * @param conceptId the identifier of the concept
+	 * @param asOf      the point in time
+	 *
+	 * @return the latest fact or null if the concept was not observed by then
+	 */
+	public ObservationFact getLatest(Long patientId, Long conceptId, LocalDateTime asOf) {
+		Series series = seriesByPatient.getOrDefault(patientId, Collections.<Long, Series>emptyMap()).get(conceptId);
+		return series == null ? null : series.latestAt(asOf);
+	}
+
+	/**
+	 * Rebuilds the facts known about a patient at a point in time.
+	 *
+	 * @param patientId the identifier of the patient
+	 * @param age       the age of the patient at that point in time
+	 * @param asOf      the point in time
+	 *
+	 * @return the latest fact of every concept observed at or before the point in
+	 *         time
+	 */
+	public PatientFacts getFacts(Long patientId, int age, LocalDateTime asOf) {
+		PatientFacts facts = new PatientFacts(patientId, age);
+		for (Series series : seriesByPatient.getOrDefault(patientId, Collections.<Long, Series>emptyMap())
+		        .values()) {
+			ObservationFact fact = series.latestAt(asOf);
+			if (fact != null) {
+				facts.addObservation(fact);
+			}
+		}
+		return facts;
+	}
+
+	/**
+	 *
+	 * Collects observation facts of many patients before building an index.
+	 *
+	 */
+	public static final class Builder {
+
+		private final Map<Long, Map<Long, List<ObservationFact>>> facts = new HashMap<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Adds an observation fact of a patient. Facts without a date are ignored.
+		 *
+		 * @param patientId the identifier of the patient
+		 * @param fact      the fact to add
+		 *
+		 * @return this builder
+		 */
+		public Builder add(Long patientId, ObservationFact fact) {
+			if (fact.getObservationDate() != null) {
+				facts.computeIfAbsent(patientId, k -> new HashMap<>())
+				        .computeIfAbsent(fact.getConceptId(), k -> new ArrayList<>()).add(fact);
+			}
+			return this;
+		}
+
+		/**
+		 * Builds an immutable index from the facts added so far.
+		 *
+		 * @return a new temporal index
+		 */
+		public TemporalObservationIndex build() {
+			Map<Long, Map<Long, Series>> seriesByPatient = new HashMap<>();
+			for (Map.Entry<Long, Map<Long, List<ObservationFact>>> patient : facts.entrySet()) {
+				Map<Long, Series> byConcept = new HashMap<>();
+				for (Map.Entry<Long, List<ObservationFact>> concept : patient.getValue().entrySet()) {
+					byConcept.put(concept.getKey(), new Series(concept.getValue()));
+				}
+				seriesByPatient.put(patient.getKey(), byConcept);
+			}
+			return new TemporalObservationIndex(seriesByPatient);
+		}
+	}
+
+	/**
+	 * Facts of one concept of one patient, sorted by observation date. Of
+	 * several facts observed at the same time only the most recent one is kept,
+	 * as in {@link PatientFacts}.
+	 */
+	private static final class Series {
+		private final LocalDateTime[] dates;
+		private final ObservationFact[] facts;
+
+		private Series(List<ObservationFact> unsorted) {
+			List<ObservationFact> sorted = new ArrayList<>();
+			unsorted.sort(Comparator.comparing(ObservationFact::getObservationDate));
+			for (ObservationFact fact : unsorted) {
+				int last = sorted.size() - 1;
+				if (last < 0) {
+					sorted.add(fact);
+				} else if (fact.isMoreRecentThan(sorted.get(last))) {
+					if (fact.getObservationDate().isEqual(sorted.get(last).getObservationDate())) {
+						sorted.set(last, fact);
+					} else {
+						sorted.add(fact);
+					}
+				}
+			}
+			this.facts = sorted.toArray(new ObservationFact[0]);
+			this.dates = new LocalDateTime[facts.length];
+			for (int i = 0; i < facts.length; i++) {
+				dates[i] = facts[i].getObservationDate();
+			}
+		}
+
+		private ObservationFact latestAt(LocalDateTime asOf) {
+			int low = 0;
+			int high = dates.length - 1;
+			int found = -1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (dates[middle].isAfter(asOf)) {
+					high = middle - 1;
+				} else {
+					found = middle;
+					low = middle + 1;
+				}
+			}
+			return found < 0 ? null : facts[found];
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package org.ts.application.engine;
+
+import java.util.List;
+
+import org.ts.data.entities.RegimenCategory;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Recommended regimen categories of a patient together with the
+ * {@link EvaluationTrace} of the evaluation that produced them.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class TracedRecommendation {
+
+	private final List<RegimenCategory> regimenCategories;
+	private final EvaluationTrace trace;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param regimenCategories the categories recommended for the patient
+	 * @param trace             the trace of the evaluation
+	 *
+	 */
+	public TracedRecommendation(List<RegimenCategory> regimenCategories, EvaluationTrace trace) {
+		this.regimenCategories = regimenCategories;
+		this.trace = trace;
+	}
+}
@@ -0,0 +1,146 @@
+package org.ts.application.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ *
+ * Per-patient memory of a {@link RecommendationNetwork}. Holds the most recent
+ * fact per concept, the satisfied state of every condition and, per category,
+ * the number of conditions still unsatisfied. Asserting an observation only
+ * revisits the conditions of its concept and the categories joined on them.
+ * <p>
+ * Instances are safe for use by multiple threads.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public final class WorkingMemory {
+
+	private final RecommendationNetwork network;
+	private final PatientFacts facts;
+	private final boolean[] satisfied;
+	private final int[] unsatisfied;
+	private boolean joinsChanged;
+
+	@Getter
+	private volatile List<RecommendedCategory> matches;
+
+	WorkingMemory(RecommendationNetwork network, PatientFacts facts) {
+		this.network = network;
+		this.facts = new PatientFacts(facts.getPatientId(), facts.getAge());
+		this.satisfied = new boolean[network.getConditionCount()];
+		this.unsatisfied = network.getConditionCounts();
+
+		RecommendationIndex index = network.getIndex();
+		activate(index.slotsSatisfiedBy(facts.getAge()));
+		for (ObservationFact fact : facts.getObservations()) {
+			this.facts.addObservation(fact);
+			activate(index.slotsSatisfiedBy(fact));
+		}
+		this.matches = collectMatches();
+		this.joinsChanged = false;
+	}
+
+	/**
+	 * Returns the version of the network this memory belongs to.
+	 *
+	 * @return the version of the underlying index
+	 */
+	public long getVersion() {
+		return network.getVersion();
+	}
+
+	/**
+	 * Returns the patient this memory belongs to.
+	 *
+	 * @return the identifier of the patient
+	 */
+	public Long getPatientId() {
+		return facts.getPatientId();
+	}
+
+	/**
+	 * Returns the IDs of all categories currently matching the patient.
+	 *
+	 * @return the IDs of matching categories, ordered by category ID
+	 */
+	public List<Long> getMatchingCategoryIds() {
+		List<RecommendedCategory> current = matches;
+		List<Long> ids = new ArrayList<>(current.size());
+		for (RecommendedCategory category : current) {
+			ids.add(category.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Asserts an observation. Observations older than the fact already held for
+	 * their concept are ignored.
+	 *
+	 * @param fact the observation fact to assert
+	 *
+	 * @return true if the memory changed
+	 */
+	public synchronized boolean assertObservation(ObservationFact fact) {
+		ObservationFact current = facts.getObservation(fact.getConceptId());
+		if (current != null && !fact.isMoreRecentThan(current)) {
+			return false;
+		}
+		facts.addObservation(fact);
+
+		RecommendationIndex index = network.getIndex();
+		if (current != null) {
+			deactivate(index.slotsSatisfiedBy(current));
+		}
+		activate(index.slotsSatisfiedBy(fact));
+
+		// Only rebuild the matches when a category started or stopped matching
+		if (joinsChanged) {
+			matches = collectMatches();
+			joinsChanged = false;
+		}
+		return true;
+	}
+
+	private void activate(int[] slots) {
+		for (int slot : slots) {
+			if (!satisfied[slot]) {
+				satisfied[slot] = true;
+				for (int category : network.getCategoriesOf(slot)) {
+					if (--unsatisfied[category] == 0) {
+						joinsChanged = true;
+					}
+				}
+			}
+		}
+	}
+
+	private void deactivate(int[] slots) {
+		for (int slot : slots) {
+			if (satisfied[slot]) {
+				satisfied[slot] = false;
+				for (int category : network.getCategoriesOf(slot)) {
+					if (unsatisfied[category]++ == 0) {
+						joinsChanged = true;
+					}
+				}
+			}
+		}
+	}
+
+	private List<RecommendedCategory> collectMatches() {
+		List<RecommendedCategory> current = new ArrayList<>();
+		for (int c = 0; c < network.getCategoryCount(); c++) {
+			if (unsatisfied[c] == 0) {
+				CompiledCategory category = network.getCategory(c);
+				current.add(new RecommendedCategory(category.getCategoryId(), category.getName()));
+			}
+		}
+		return Collections.unmodifiableList(current);
+	}
+}
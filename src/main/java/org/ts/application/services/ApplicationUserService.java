@@ -57,6 +57,18 @@ public interface ApplicationUserService {
 	 */
 	public ApplicationUser getActiveUser(Long id) throws EntryNotFoundException, EntryNotActiveException;
 
+	/**
+	 * Returns a reference to an active {@link ApplicationUser} instance without loading
+	 * it, for use as the parent of a new entry. Only the flags of the application user
+	 * are read to check that it is active.
+	 *
+	 * @param userId ID to be used as a key field during search
+	 *
+	 * @return an uninitialized reference to the application user, unless it is already
+	 *         loaded
+	 */
+	public ApplicationUser getActiveUserReference(Long userId) throws EntryNotFoundException, EntryNotActiveException;
+
 	/**
 	 * Marks a given {@link ApplicationUser} instance as deleted in the database.
 	 *
@@ -82,6 +94,17 @@ public interface ApplicationUserService {
 	 */
 	public List<ApplicationUser> getUsers();
 
+	/**
+	 * Fetches a page of active {@link ApplicationUser} instances from the database,
+	 * ordered by ID.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of users to fetch
+	 *
+	 * @return a list of at most <code>limit</code> active users
+	 */
+	public List<ApplicationUser> getUsers(Long afterId, int limit);
+
 /*	/**
 	 * Fetches all active {@link ApplicationUser} instances for a specific portfolio
 	 * from the database.
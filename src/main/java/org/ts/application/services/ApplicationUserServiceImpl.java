@@ -7,6 +7,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
@@ -17,14 +19,17 @@ import org.ts.application.exceptions.InconsistentDataException;
 import org.ts.data.entities.ApplicationUser;
 // import org.ts.data.entities.Portfolio;
 import org.ts.data.repositories.ApplicationUserRepository;
+import org.ts.data.repositories.EntryStatus;
 import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,7 +46,11 @@ public class ApplicationUserServiceImpl implements ApplicationUserService, UserD
 	@Autowired
 	private PasswordEncoder passwordEncoder;
 
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	@Override
+	@Transactional
 	public ApplicationUser addUser(ApplicationUser user) {
 		ApplicationUser greenUser = new ApplicationUser();
 
@@ -77,12 +86,16 @@ public class ApplicationUserServiceImpl implements ApplicationUserService, UserD
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<ApplicationUser> getUsers() {
-		List<ApplicationUser> users = userRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED)
-		        .collect(Collectors.toList());
-		users.sort(Comparator.comparing(ApplicationUser::getId));
-		return users;
+		return userRepository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ApplicationUser> getUsers(Long afterId, int limit) {
+		return userRepository.findByActiveFlagsAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
 	}
 
 /*	@Override
@@ -132,6 +145,18 @@ public class ApplicationUserServiceImpl implements ApplicationUserService, UserD
 	}
 
 	@Override
+	public ApplicationUser getActiveUserReference(Long userId) throws EntryNotActiveException, EntryNotFoundException {
+		EntryStatus status = userRepository.findStatusById(userId).orElse(null);
+		if (status == null || status.getVoided() == Lookup.VOIDED) {
+			throw new EntryNotFoundException("Invalid operation for [USER]." + userId);
+		} else if (status.getRetired() == Lookup.RETIRED) {
+			throw new EntryNotActiveException("Invalid operation for [USER]." + userId);
+		}
+		return entityManager.getReference(ApplicationUser.class, userId);
+	}
+
+	@Override
+	@Transactional
 	public void deleteUser(Long userId) throws EntryNotFoundException {
 		ApplicationUser user = userRepository.findById(userId).orElse(null);
 		if (user != null && user.getVoided() != Lookup.VOIDED) {
@@ -145,6 +170,7 @@ public class ApplicationUserServiceImpl implements ApplicationUserService, UserD
 	}
 
 	@Override
+	@Transactional
 	public void retireUser(Long userId) throws EntryNotFoundException {
 		ApplicationUser user = userRepository.findById(userId).orElse(null);
 		if (user != null && user.getRetired() != Lookup.RETIRED) {
@@ -159,8 +185,8 @@ public class ApplicationUserServiceImpl implements ApplicationUserService, UserD
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		ApplicationUser user = userRepository.findAllByUsername(username).stream()
-		        .filter(u -> u.getVoided() != Lookup.VOIDED && u.getRetired() != Lookup.RETIRED).findFirst()
+		ApplicationUser user = userRepository
+		        .findByUsernameAndActiveFlags(username, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED).stream().findFirst()
 		        .orElse(null);
 
 		if (user == null) {
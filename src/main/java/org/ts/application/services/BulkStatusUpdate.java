@@ -0,0 +1,60 @@
+package org.ts.application.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ *
+ * Helpers for the set-based void and retire operations of the services. The
+ * IDs of a bulk operation are updated in chunks, keeping the number of bind
+ * parameters of each statement bounded.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+final class BulkStatusUpdate {
+
+	static final int CHUNK_SIZE = 1000;
+
+	static final String VOIDED_REASON = "System operation - voided";
+	static final String RETIRED_REASON = "System operation - retired";
+
+	private BulkStatusUpdate() {
+	}
+
+	/**
+	 * Applies an update to the distinct non-null given IDs, one chunk at a time.
+	 *
+	 * @param ids    the identifiers to be updated
+	 * @param update the update of a chunk of IDs, returning the number of
+	 *               updated rows
+	 *
+	 * @return the total number of updated rows
+	 */
+	static int inChunks(Collection<Long> ids, Function<List<Long>, Integer> update) {
+		List<Long> distinctIds = new ArrayList<>();
+		ids.stream().filter(Objects::nonNull).distinct().forEach(distinctIds::add);
+
+		int updated = 0;
+		for (int from = 0; from < distinctIds.size(); from += CHUNK_SIZE) {
+			updated += update.apply(distinctIds.subList(from, Math.min(from + CHUNK_SIZE, distinctIds.size())));
+		}
+		return updated;
+	}
+
+	/**
+	 * Returns the reason to be recorded for a bulk operation.
+	 *
+	 * @param reason        the reason given by the caller, if any
+	 * @param defaultReason the reason to be used otherwise
+	 *
+	 * @return the reason to be recorded
+	 */
+	static String reasonOr(String reason, String defaultReason) {
+		return reason == null || reason.trim().isEmpty() ? defaultReason : reason;
+	}
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Concept;
+import org.ts.data.repositories.ConceptSummary;
 import org.springframework.stereotype.Service;
 
 /**
@@ -45,4 +46,25 @@ public interface ConceptService {
 	 */
 	public List<Concept> getConcepts();
 
+	/**
+	 * Fetches a page of active {@link Concept} instances from the database,
+	 * ordered by ID.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of concepts to fetch
+	 *
+	 * @return a list of at most <code>limit</code> active concepts
+	 */
+	public List<Concept> getConcepts(Long afterId, int limit);
+
+	/**
+	 * Fetches a page of summaries of active concepts from the database, ordered
+	 * by ID. Only the columns of the summary are selected.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of concepts to fetch
+	 *
+	 * @return a list of at most <code>limit</code> concept summaries
+	 */
+	public List<ConceptSummary> getConceptSummaries(Long afterId, int limit);
 }
@@ -1,16 +1,17 @@
 package org.ts.application.services;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Concept;
 import org.ts.data.repositories.ConceptRepository;
+import org.ts.data.repositories.ConceptSummary;
 import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,13 +24,16 @@ public class ConceptServiceImpl implements ConceptService {
 	private ConceptRepository conceptRepository;
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Concept> getConcepts() {
+		return conceptRepository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
 
-		List<Concept> concepts = conceptRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED)
-		        .collect(Collectors.toList());
-		concepts.sort(Comparator.comparing(Concept::getId));
-		return concepts;
+	@Override
+	@Transactional(readOnly = true)
+	public List<Concept> getConcepts(Long afterId, int limit) {
+		return conceptRepository.findByActiveFlagsAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
 	}
 
 	@Override
@@ -48,11 +52,19 @@ public class ConceptServiceImpl implements ConceptService {
 
 	@Override
 	public Concept getActiveConcept(String name) throws EntryNotActiveException, EntryNotFoundException {
-		Concept concept = conceptRepository.findAllByName(name).stream().filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED && p.getName().equalsIgnoreCase(name)).findFirst().orElse(null);
+		Concept concept = conceptRepository.findByNameAndActiveFlags(name, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED).stream()
+		        .findFirst().orElse(null);
 		if (concept != null) {
 			return concept;
 		} else {
 			throw new EntryNotFoundException("Invalid operation for [CONCEPT]." + name);
 		}
 	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ConceptSummary> getConceptSummaries(Long afterId, int limit) {
+		return conceptRepository.findSummariesAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
+	}
 }
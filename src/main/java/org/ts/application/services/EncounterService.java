@@ -1,10 +1,12 @@
 package org.ts.application.services;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Encounter;
+import org.ts.data.repositories.EncounterSummary;
 import org.springframework.stereotype.Service;
 
 /**
@@ -36,6 +38,18 @@ public interface EncounterService {
 	 */
 	public Encounter getActiveEncounter(Long encounterId) throws EntryNotFoundException, EntryNotActiveException;
 
+	/**
+	 * Returns a reference to an active {@link Encounter} instance without loading
+	 * it, for use as the parent of a new entry. Only the flags of the encounter
+	 * are read to check that it is active.
+	 *
+	 * @param encounterId ID to be used as a key field during search
+	 *
+	 * @return an uninitialized reference to the encounter, unless it is already
+	 *         loaded
+	 */
+	public Encounter getActiveEncounterReference(Long encounterId) throws EntryNotFoundException, EntryNotActiveException;
+
 	/**
 	 * Marks a given {@link Encounter} instance as deleted in the database.
 	 *
@@ -61,6 +75,17 @@ public interface EncounterService {
 	 */
 	public List<Encounter> getEncounters();
 
+	/**
+	 * Fetches a page of active {@link Encounter} instances from the database,
+	 * ordered by ID.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of encounters to fetch
+	 *
+	 * @return a list of at most <code>limit</code> active encounters
+	 */
+	public List<Encounter> getEncounters(Long afterId, int limit);
+
 	/**
 	 * Fetches all active {@link Encounter} instances for a specified patient from
 	 * the database.
@@ -70,4 +95,84 @@ public interface EncounterService {
 	 * @return a list of all active encounters in the database
 	 */
 	public List<Encounter> getEncounters(Long patientId);
+
+	/**
+	 * Marks the given {@link Encounter} instances as deleted in the database with
+	 * a single update per chunk of IDs. Instances that are already voided are left
+	 * unchanged.
+	 *
+	 * @param encounterIds identifiers of the encounters to be deleted
+	 * @param reason       the reason to be recorded, if any
+	 * 
+	 * @return the number of encounters that were deleted
+	 */
+	public int deleteEncounters(Collection<Long> encounterIds, String reason);
+
+	/**
+	 * Marks all {@link Encounter} instances of a given patient as deleted in the
+	 * database with a single update. Instances that are already voided are left
+	 * unchanged.
+	 *
+	 * @param patientId identifier of the patient
+	 * @param reason    the reason to be recorded, if any
+	 * 
+	 * @return the number of encounters that were deleted
+	 */
+	public int deleteEncountersOfPatient(Long patientId, String reason);
+
+	/**
+	 * Marks the given {@link Encounter} instances as retired in the database with
+	 * a single update per chunk of IDs. Instances that are already retired are
+	 * left unchanged.
+	 *
+	 * @param encounterIds identifiers of the encounters to be retired
+	 * @param reason       the reason to be recorded, if any
+	 * 
+	 * @return the number of encounters that were retired
+	 */
+	public int retireEncounters(Collection<Long> encounterIds, String reason);
+
+	/**
+	 * Marks all {@link Encounter} instances of a given patient as retired in the
+	 * database with a single update. Instances that are already retired are left
+	 * unchanged.
+	 *
+	 * @param patientId identifier of the patient
+	 * @param reason    the reason to be recorded, if any
+	 * 
+	 * @return the number of encounters that were retired
+	 */
+	public int retireEncountersOfPatient(Long patientId, String reason);
+
+	/**
+	 * Fetches a page of summaries of active encounters from the database, ordered
+	 * by ID. Only the columns of the summary are selected.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of encounters to fetch
+	 *
+	 * @return a list of at most <code>limit</code> encounter summaries
+	 */
+	public List<EncounterSummary> getEncounterSummaries(Long afterId, int limit);
+
+	/**
+	 * Fetches the summaries of all active encounters of a specified patient from
+	 * the database. Only the columns of the summary are selected.
+	 *
+	 * @param patientId the ID of the patient to filter encounters for
+	 *
+	 * @return a list of summaries of the active encounters of the patient
+	 */
+	public List<EncounterSummary> getEncounterSummaries(Long patientId);
+
+	/**
+	 * Fetches the summary of an active encounter from the database. Only the
+	 * columns of the summary are selected.
+	 *
+	 * @param encounterId ID to be used as a key field during search
+	 *
+	 * @return the summary of an encounter that matches the search criteria
+	 */
+	public EncounterSummary getActiveEncounterSummary(Long encounterId)
+	        throws EntryNotFoundException, EntryNotActiveException;
 }
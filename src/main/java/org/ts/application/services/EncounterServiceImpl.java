@@ -1,10 +1,12 @@
 package org.ts.application.services;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
@@ -14,9 +16,14 @@ import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Patient;
 import org.ts.data.entities.Encounter;
 import org.ts.data.repositories.EncounterRepository;
+import org.ts.data.repositories.EntryStatus;
+import org.ts.data.repositories.EncounterSummary;
 import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,7 +40,14 @@ public class EncounterServiceImpl implements EncounterService {
 	@Autowired
 	private Validator validator;
 
+	@Autowired
+	private AuditorAware<String> auditorProvider;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	@Override
+	@Transactional
 	public Encounter addEncounter(Encounter encounter) {
 
 		Encounter greenEncounter = new Encounter();
@@ -61,47 +75,42 @@ public class EncounterServiceImpl implements EncounterService {
 			throw new EntryNotFoundException("Unable to find existing PATIENT reference");
 		}
 
-		Encounter newEncounter = new Encounter();
-
-		// Get a patient instance for the new encounter
+		// Get a patient reference for the new encounter, only its key is written
 		Patient existingPatient = new Patient();
 		try {
-			existingPatient = patientService.getActivePatient(encounter.getPatient().getId());
+			existingPatient = patientService.getActivePatientReference(encounter.getPatient().getId());
 		} catch (EntryNotFoundException e) {
 			throw new EntryNotFoundException("Unable to find existing [PATIENT] " + encounter.getPatient().getId());
 		} catch (EntryNotActiveException e) {
 			throw new EntryNotActiveException("Unable to find active [PATIENT] " + encounter.getPatient().getId());
 		}
 
-		// Only attempt to save the qualification if we have an existing reference
-		newEncounter = encounterRepository.save(greenEncounter);
-
-		// Add encounters to an existing Patient instance
-		newEncounter.setPatient(existingPatient);
-		newEncounter = encounterRepository.save(newEncounter);
+		// Add encounter to an existing Patient instance and insert it once
+		greenEncounter.setId(null);
+		greenEncounter.setPatient(existingPatient);
+		Encounter newEncounter = encounterRepository.save(greenEncounter);
 
 		return newEncounter;
 
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters() {
+		return encounterRepository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
 
-		List<Encounter> encounters = encounterRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED)
-		        .collect(Collectors.toList());
-		
-		encounters.sort(Comparator.comparing(Encounter::getId));
-		return encounters;
+	@Override
+	@Transactional(readOnly = true)
+	public List<Encounter> getEncounters(Long afterId, int limit) {
+		return encounterRepository.findByActiveFlagsAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters(Long patientId) {
-		List<Encounter> encounters = encounterRepository.findAll().stream().filter(p -> p.getVoided() != Lookup.VOIDED
-		        && p.getRetired() != Lookup.RETIRED && p.getPatient().getId().longValue() == patientId)
-		        .collect(Collectors.toList());
-		encounters.sort(Comparator.comparing(Encounter::getId));
-		return encounters;
+		return encounterRepository.findByPatientAndActiveFlags(patientId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
 	}
 
 	@Override
@@ -119,6 +128,19 @@ public class EncounterServiceImpl implements EncounterService {
 	}
 
 	@Override
+	public Encounter getActiveEncounterReference(Long encounterId)
+	        throws EntryNotActiveException, EntryNotFoundException {
+		EntryStatus status = encounterRepository.findStatusById(encounterId).orElse(null);
+		if (status == null || status.getVoided() == Lookup.VOIDED) {
+			throw new EntryNotFoundException("Invalid operation for [ENCOUNTER]." + encounterId);
+		} else if (status.getRetired() == Lookup.RETIRED) {
+			throw new EntryNotActiveException("Invalid operation for [ENCOUNTER]." + encounterId);
+		}
+		return entityManager.getReference(Encounter.class, encounterId);
+	}
+
+	@Override
+	@Transactional
 	public void deleteEncounter(Long encounterId) throws EntryNotFoundException {
 		Encounter encounter = encounterRepository.findById(encounterId).orElse(null);
 		if (encounter != null && encounter.getVoided() != Lookup.VOIDED) {
@@ -132,6 +154,7 @@ public class EncounterServiceImpl implements EncounterService {
 	}
 
 	@Override
+	@Transactional
 	public void retireEncounter(Long encounterId) throws EntryNotFoundException {
 		Encounter encounter = encounterRepository.findById(encounterId).orElse(null);
 		if (encounter != null && encounter.getRetired() != Lookup.RETIRED) {
@@ -143,4 +166,73 @@ public class EncounterServiceImpl implements EncounterService {
 			throw new EntryNotFoundException("Invalid operation for [ENCOUNTER]." + encounterId);
 		}
 	}
+
+	@Override
+	@Transactional
+	public int deleteEncounters(Collection<Long> encounterIds, String reason) {
+		String voidedReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.VOIDED_REASON);
+		int updated = BulkStatusUpdate.inChunks(encounterIds, ids -> encounterRepository.voidByIds(ids, voidedReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.VOIDED));
+		log.info("Deleted " + updated + " encounters");
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int deleteEncountersOfPatient(Long patientId, String reason) {
+		String voidedReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.VOIDED_REASON);
+		int updated = encounterRepository.voidByPatient(patientId, voidedReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.VOIDED);
+		log.info("Deleted " + updated + " encounters of patient with ID: " + patientId);
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int retireEncounters(Collection<Long> encounterIds, String reason) {
+		String retiredReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.RETIRED_REASON);
+		int updated = BulkStatusUpdate.inChunks(encounterIds, ids -> encounterRepository.retireByIds(ids, retiredReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.RETIRED));
+		log.info("Retired " + updated + " encounters");
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int retireEncountersOfPatient(Long patientId, String reason) {
+		String retiredReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.RETIRED_REASON);
+		int updated = encounterRepository.retireByPatient(patientId, retiredReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.RETIRED);
+		log.info("Retired " + updated + " encounters of patient with ID: " + patientId);
+		return updated;
+	}
+
+	private String currentAuditor() {
+		return auditorProvider.getCurrentAuditor().orElse(null);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<EncounterSummary> getEncounterSummaries(Long afterId, int limit) {
+		return encounterRepository.findSummariesAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<EncounterSummary> getEncounterSummaries(Long patientId) {
+		return encounterRepository.findSummariesByPatient(patientId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
+
+	@Override
+	public EncounterSummary getActiveEncounterSummary(Long encounterId)
+	        throws EntryNotActiveException, EntryNotFoundException {
+		EncounterSummary encounter = encounterRepository.findSummaryById(encounterId).orElse(null);
+		if (encounter == null || encounter.getVoided() == Lookup.VOIDED) {
+			throw new EntryNotFoundException("Invalid operation for [ENCOUNTER]." + encounterId);
+		} else if (encounter.getRetired() == Lookup.RETIRED) {
+			throw new EntryNotActiveException("Invalid operation for [ENCOUNTER]." + encounterId);
+		}
+		return encounter;
+	}
 }
@@ -1,11 +1,13 @@
 package org.ts.application.services;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Episode;
 import org.ts.data.entities.Encounter;
+import org.ts.data.repositories.EpisodeSummary;
 import org.springframework.stereotype.Service;
 
 /**
@@ -67,6 +69,17 @@ public interface EpisodeService {
 	 */
 	public List<Episode> getEpisodes();
 
+	/**
+	 * Fetches a page of active {@link Episode} instances from the database,
+	 * ordered by ID.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of episodes to fetch
+	 *
+	 * @return a list of at most <code>limit</code> active episodes
+	 */
+	public List<Episode> getEpisodes(Long afterId, int limit);
+
 	/**
 	 * Lists all active {@link Episode} instances for a specified encounter
 	 * from the database.
@@ -76,4 +89,84 @@ public interface EpisodeService {
 	 * @return a list of active episode instances
 	 */
 	public List<Episode> getEpisodes(Long encounterId);
+
+	/**
+	 * Marks the given {@link Episode} instances as deleted in the database with a
+	 * single update per chunk of IDs. Instances that are already voided are left
+	 * unchanged.
+	 *
+	 * @param episodeIds identifiers of the episodes to be deleted
+	 * @param reason     the reason to be recorded, if any
+	 * 
+	 * @return the number of episodes that were deleted
+	 */
+	public int deleteEpisodes(Collection<Long> episodeIds, String reason);
+
+	/**
+	 * Marks all {@link Episode} instances of a given encounter as deleted in the
+	 * database with a single update. Instances that are already voided are left
+	 * unchanged.
+	 *
+	 * @param encounterId identifier of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of episodes that were deleted
+	 */
+	public int deleteEpisodesOfEncounter(Long encounterId, String reason);
+
+	/**
+	 * Marks the given {@link Episode} instances as retired in the database with a
+	 * single update per chunk of IDs. Instances that are already retired are left
+	 * unchanged.
+	 *
+	 * @param episodeIds identifiers of the episodes to be retired
+	 * @param reason     the reason to be recorded, if any
+	 * 
+	 * @return the number of episodes that were retired
+	 */
+	public int retireEpisodes(Collection<Long> episodeIds, String reason);
+
+	/**
+	 * Marks all {@link Episode} instances of a given encounter as retired in the
+	 * database with a single update. Instances that are already retired are left
+	 * unchanged.
+	 *
+	 * @param encounterId identifier of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of episodes that were retired
+	 */
+	public int retireEpisodesOfEncounter(Long encounterId, String reason);
+
+	/**
+	 * Fetches a page of summaries of active episodes from the database, ordered
+	 * by ID. Only the columns of the summary are selected.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of episodes to fetch
+	 *
+	 * @return a list of at most <code>limit</code> episode summaries
+	 */
+	public List<EpisodeSummary> getEpisodeSummaries(Long afterId, int limit);
+
+	/**
+	 * Fetches the summaries of all active episodes of a specified encounter from
+	 * the database. Only the columns of the summary are selected.
+	 *
+	 * @param encounterId the ID of the encounter to filter episodes for
+	 *
+	 * @return a list of summaries of the active episodes of the encounter
+	 */
+	public List<EpisodeSummary> getEpisodeSummaries(Long encounterId);
+
+	/**
+	 * Fetches the summary of an active episode from the database. Only the
+	 * columns of the summary are selected.
+	 *
+	 * @param episodeId ID to be used as a key field during search
+	 *
+	 * @return the summary of an episode that matches the search criteria
+	 */
+	public EpisodeSummary getActiveEpisodeSummary(Long episodeId)
+	        throws EntryNotFoundException, EntryNotActiveException;
 }
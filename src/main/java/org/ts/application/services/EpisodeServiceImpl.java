@@ -1,9 +1,9 @@
 package org.ts.application.services;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
@@ -14,9 +14,13 @@ import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Encounter;
 import org.ts.data.entities.Episode;
 import org.ts.data.repositories.EpisodeRepository;
+import org.ts.data.repositories.EpisodeSummary;
 import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,10 +34,17 @@ public class EpisodeServiceImpl implements EpisodeService {
 	@Autowired
 	private EncounterService encounterService;
 
+	@Autowired
+	private ConceptService conceptService;
+
 	@Autowired
 	private Validator validator;
 
+	@Autowired
+	private AuditorAware<String> auditorProvider;
+
 	@Override
+	@Transactional
 	public Episode addEpisode(Episode episode) throws EntryNotFoundException, EntryNotActiveException {
 
 		Episode greenEpisode = new Episode();
@@ -62,44 +73,50 @@ public class EpisodeServiceImpl implements EpisodeService {
 			throw new EntryNotFoundException("Unable to find existing ENCOUNTER references");
 		}
 
-		Episode newEpisode = new Episode();
-
-		// Get reference entities
+		// Get reference entities, only the key of the encounter is written
 		Encounter existingEncounter = new Encounter();
 		try {
-			existingEncounter = encounterService.getActiveEncounter(episode.getEncounter().getId());
+			existingEncounter = encounterService.getActiveEncounterReference(episode.getEncounter().getId());
 		} catch (EntryNotFoundException e) {
 			throw new EntryNotFoundException("Unable to find existing ENCOUNTER reference");
 		} catch (EntryNotActiveException e) {
 			throw new EntryNotActiveException("Unable to find active ENCOUNTER reference");
 		}
+		if (episode.getConcept() != null && episode.getConcept().getId() != null) {
+			try {
+				greenEpisode.setConcept(conceptService.getActiveConcept(episode.getConcept().getId()));
+			} catch (EntryNotFoundException e) {
+				throw new EntryNotFoundException("Unable to find existing CONCEPT reference");
+			} catch (EntryNotActiveException e) {
+				throw new EntryNotActiveException("Unable to find active CONCEPT reference");
+			}
+		}
 
-		// Only attempt to save the episode if we have an existing encounter
-		newEpisode = episodeRepository.save(greenEpisode);
-
-		// Add references to existing Encounter instance
-		newEpisode.setEncounter(existingEncounter);
-		newEpisode = episodeRepository.save(newEpisode);
+		// Add references to existing Encounter instance and insert it once
+		greenEpisode.setId(null);
+		greenEpisode.setEncounter(existingEncounter);
+		Episode newEpisode = episodeRepository.save(greenEpisode);
 
 		return newEpisode;
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Episode> getEpisodes() {
-		List<Episode> episodes = episodeRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED)
-		        .collect(Collectors.toList());
-		episodes.sort(Comparator.comparing(Episode::getId));
-		return episodes;
+		return episodeRepository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Episode> getEpisodes(Long afterId, int limit) {
+		return episodeRepository.findByActiveFlagsAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Episode> getEpisodes(Long encounterId) {
-		List<Episode> episodes = episodeRepository.findAll().stream().filter(p -> p.getVoided() != Lookup.VOIDED
-		        && p.getRetired() != Lookup.RETIRED && p.getEncounter().getId().longValue() == encounterId)
-		        .collect(Collectors.toList());
-		episodes.sort(Comparator.comparing(Episode::getId));
-		return episodes;
+		return episodeRepository.findByEncounterAndActiveFlags(encounterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
 	}
 
 	@Override
@@ -117,6 +134,7 @@ public class EpisodeServiceImpl implements EpisodeService {
 	}
 
 	@Override
+	@Transactional
 	public void deleteEpisode(Long episodeId) throws EntryNotFoundException {
 		Episode episode = episodeRepository.findById(episodeId).orElse(null);
 		if (episode != null && episode.getVoided() != Lookup.VOIDED) {
@@ -130,6 +148,7 @@ public class EpisodeServiceImpl implements EpisodeService {
 	}
 
 	@Override
+	@Transactional
 	public void retireEpisode(Long episodeId) throws EntryNotFoundException {
 		Episode episode = episodeRepository.findById(episodeId).orElse(null);
 		if (episode != null && episode.getRetired() != Lookup.RETIRED) {
@@ -141,4 +160,73 @@ public class EpisodeServiceImpl implements EpisodeService {
 			throw new EntryNotFoundException("Invalid operation for [QUALIFICATION]." + episodeId);
 		}
 	}
+
+	@Override
+	@Transactional
+	public int deleteEpisodes(Collection<Long> episodeIds, String reason) {
+		String voidedReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.VOIDED_REASON);
+		int updated = BulkStatusUpdate.inChunks(episodeIds, ids -> episodeRepository.voidByIds(ids, voidedReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.VOIDED));
+		log.info("Deleted " + updated + " episodes");
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int deleteEpisodesOfEncounter(Long encounterId, String reason) {
+		String voidedReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.VOIDED_REASON);
+		int updated = episodeRepository.voidByEncounter(encounterId, voidedReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.VOIDED);
+		log.info("Deleted " + updated + " episodes of encounter with ID: " + encounterId);
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int retireEpisodes(Collection<Long> episodeIds, String reason) {
+		String retiredReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.RETIRED_REASON);
+		int updated = BulkStatusUpdate.inChunks(episodeIds, ids -> episodeRepository.retireByIds(ids, retiredReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.RETIRED));
+		log.info("Retired " + updated + " episodes");
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int retireEpisodesOfEncounter(Long encounterId, String reason) {
+		String retiredReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.RETIRED_REASON);
+		int updated = episodeRepository.retireByEncounter(encounterId, retiredReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.RETIRED);
+		log.info("Retired " + updated + " episodes of encounter with ID: " + encounterId);
+		return updated;
+	}
+
+	private String currentAuditor() {
+		return auditorProvider.getCurrentAuditor().orElse(null);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<EpisodeSummary> getEpisodeSummaries(Long afterId, int limit) {
+		return episodeRepository.findSummariesAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<EpisodeSummary> getEpisodeSummaries(Long encounterId) {
+		return episodeRepository.findSummariesByEncounter(encounterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
+
+	@Override
+	public EpisodeSummary getActiveEpisodeSummary(Long episodeId)
+	        throws EntryNotActiveException, EntryNotFoundException {
+		EpisodeSummary episode = episodeRepository.findSummaryById(episodeId).orElse(null);
+		if (episode == null || episode.getVoided() == Lookup.VOIDED) {
+			throw new EntryNotFoundException("Invalid operation for [QUALIFICATION]." + episodeId);
+		} else if (episode.getRetired() == Lookup.RETIRED) {
+			throw new EntryNotActiveException("Invalid operation for [QUALIFICATION]." + episodeId);
+		}
+		return episode;
+	}
 }
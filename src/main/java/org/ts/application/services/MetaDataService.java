@@ -1,6 +1,7 @@
 package org.ts.application.services;
 
 import org.springframework.stereotype.Service;
+import org.ts.data.MetadataCacheStatistics;
 
 /**
  * 
@@ -21,4 +22,12 @@ public interface MetaDataService {
 	 */
 	public boolean loadDefaultMetaData();
 
+	/**
+	 * Returns the hit, miss and put counts of the second-level cache region
+	 * holding the clinical metadata.
+	 *
+	 * @return the current metadata cache statistics
+	 */
+	public MetadataCacheStatistics getCacheStatistics();
+
 }
@@ -1,5 +1,11 @@
 package org.ts.application.services;
 
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.ts.data.MetadataCacheStatistics;
 import org.ts.data.entities.Action;
 import org.ts.data.entities.Concept;
 import org.ts.data.entities.Condition;
@@ -16,6 +22,8 @@ import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -43,11 +51,32 @@ public class MetaDataServiceImpl implements MetaDataService {
 	@Autowired
 	private ActionRepository actionRepository;
 
+	@Autowired
+	private RegimenCategoryService regimenCategoryService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager metadataCacheManager;
+
+	@Override
+	public MetadataCacheStatistics getCacheStatistics() {
+		CacheRegionStatistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+		        .getDomainDataRegionStatistics(Lookup.METADATA_CACHE_REGION);
+
+		// JCache regions do not report their size to Hibernate
+		long size = metadataCacheManager.getCache(Lookup.METADATA_CACHE_REGION)
+		        .unwrap(Cache.class).estimatedSize();
+		return new MetadataCacheStatistics(Lookup.METADATA_CACHE_REGION, size, statistics.getHitCount(),
+		        statistics.getMissCount(), statistics.getPutCount());
+	}
+
 	@Override
 	public boolean loadDefaultMetaData() {
 
 		boolean loaded = false;
-		if (conceptRepository.findAll().size() == 0) {
+		if (conceptRepository.count() == 0) {
 			log.info("Loading default metadata");
 
 			loadConcepts();
@@ -56,6 +85,7 @@ public class MetaDataServiceImpl implements MetaDataService {
 			loadActions();
 			loadRegimens();
 			loadRegimenCategories();
+			regimenCategoryService.invalidateRecommendationIndex();
 
 			loaded = true;
 		}
@@ -0,0 +1,76 @@
+package org.ts.application.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+/**
+ *
+ * Provides maintenance operations for the monthly partitions of the
+ * <code>observation</code> table. Detaching and attaching partitions are
+ * operational tasks and are not exposed through the API.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Service
+public interface ObservationPartitionService {
+
+	/**
+	 * Creates the missing partitions from the month of one date up to and
+	 * including the month of another. The rows of those months held by the
+	 * default partition are moved into the new partitions.
+	 *
+	 * @param from  a date of the first month to be partitioned
+	 * @param until a date of the last month to be partitioned
+	 *
+	 * @return the number of partitions created
+	 */
+	public int createPartitions(LocalDate from, LocalDate until);
+
+	/**
+	 * Moves the rows of the oldest months held by the default partition into
+	 * partitions of their own, one month per transaction.
+	 *
+	 * @param months the maximum number of months to be moved
+	 *
+	 * @return the number of partitions created
+	 */
+	public int splitDefaultPartition(int months);
+
+	/**
+	 * Detaches the partitions of the months before the month of a given date.
+	 * The detached tables keep their rows, so that they can be archived and
+	 * dropped, but their observations are no longer read.
+	 *
+	 * @param before a date of the first month to be kept, which should not be
+	 *               later than the current month
+	 *
+	 * @return the names of the detached tables
+	 *
+	 * @throws IllegalArgumentException if the date is later than the current
+	 *                                  month
+	 */
+	public List<String> detachPartitions(LocalDate before);
+
+	/**
+	 * Attaches a detached partition again. Rows of its month that were written
+	 * to the default partition in the meantime are moved into it.
+	 *
+	 * @param partition the name of the detached table
+	 *
+	 * @return the number of rows moved from the default partition
+	 */
+	public long attachPartition(String partition);
+
+	/**
+	 * Fetches the names of the partitions of the <code>observation</code>
+	 * table.
+	 *
+	 * @return the names of the partitions, ordered by name
+	 */
+	public List<String> getPartitions();
+
+}
@@ -0,0 +1,110 @@
+package org.ts.application.services;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ObservationPartitionServiceImpl implements ObservationPartitionService {
+
+	private static final String PARTITIONS = "SELECT c.relname FROM pg_inherits i "
+	        + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'observation'::regclass ORDER BY c.relname";
+
+	private static final String CREATE_PARTITIONS = "SELECT create_observation_partitions(?, ?)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${observations.partitions.months-ahead:3}")
+	private int monthsAhead;
+
+	@Value("${observations.partitions.split-months-per-run:0}")
+	private int splitMonthsPerRun;
+
+	/**
+	 * Keeps the partitions of the coming months in place, at startup and then
+	 * daily, so that new observations never fall into the default partition.
+	 * Old months still held by the default partition are split out a few at a
+	 * time when <code>observations.partitions.split-months-per-run</code> is
+	 * set.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(cron = "${observations.partitions.cron:0 15 0 * * *}")
+	public void scheduledPartitioning() {
+		int created = createPartitions(LocalDate.now(), LocalDate.now().plusMonths(monthsAhead));
+		if (splitMonthsPerRun > 0) {
+			created += splitDefaultPartition(splitMonthsPerRun);
+		}
+		if (created > 0) {
+			log.info("Created " + created + " observation partitions");
+		}
+	}
+
+	@Override
+	@Transactional
+	public int createPartitions(LocalDate from, LocalDate until) {
+		return jdbcTemplate.queryForObject(CREATE_PARTITIONS, Integer.class, from, until);
+	}
+
+	@Override
+	public int splitDefaultPartition(int months) {
+		int created = 0;
+		for (int i = 0; i < months; i++) {
+			// Only rows of past months are left in the default partition
+			LocalDate first = jdbcTemplate.queryForObject(
+			        "SELECT MIN(observation_date)::date FROM observation_default WHERE observation_date < ?",
+			        LocalDate.class, YearMonth.now().atDay(1));
+			if (first == null) {
+				break;
+			}
+			// Each month is moved in a transaction of its own
+			int split = jdbcTemplate.queryForObject(CREATE_PARTITIONS, Integer.class, first, first);
+			if (split == 0) {
+				log.warn("Observations of " + YearMonth.from(first) + " stay in the default partition, "
+				        + "as the partition of that month is detached");
+				break;
+			}
+			created += split;
+		}
+		return created;
+	}
+
+	@Override
+	@Transactional
+	public List<String> detachPartitions(LocalDate before) {
+		// Rows of a detached month that is still written to would end up in the default partition
+		if (YearMonth.from(before).isAfter(YearMonth.now())) {
+			throw new IllegalArgumentException("Only partitions of past months can be detached");
+		}
+		List<String> detached = jdbcTemplate.queryForList("SELECT detach_observation_partitions(?)", String.class,
+		        before);
+		log.info("Detached observation partitions: " + detached);
+		return detached;
+	}
+
+	@Override
+	@Transactional
+	public long attachPartition(String partition) {
+		long moved = jdbcTemplate.queryForObject("SELECT attach_observation_partition(?)", Long.class, partition);
+		log.info("Attached observation partition " + partition + ", moving " + moved + " rows into it");
+		return moved;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<String> getPartitions() {
+		return jdbcTemplate.queryForList(PARTITIONS, String.class);
+	}
+}
@@ -0,0 +1,52 @@
+package org.ts.application.services;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Outcome of adding a single observation in a batch. Holds either the ID of
+ * the added observation or the reason it was not added.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class ObservationResult {
+
+	private final int index;
+	private final Long observationId;
+	private final String error;
+
+	private ObservationResult(int index, Long observationId, String error) {
+		this.index = index;
+		this.observationId = observationId;
+		this.error = error;
+	}
+
+	/**
+	 * Creates a successful outcome.
+	 *
+	 * @param index         the position of the observation in the batch
+	 * @param observationId the identifier of the added observation
+	 *
+	 * @return a successful observation result
+	 */
+	public static ObservationResult of(int index, Long observationId) {
+		return new ObservationResult(index, observationId, null);
+	}
+
+	/**
+	 * Creates a failed outcome.
+	 *
+	 * @param index the position of the observation in the batch
+	 * @param error the reason the observation was not added
+	 *
+	 * @return a failed observation result
+	 */
+	public static ObservationResult failed(int index, String error) {
+		return new ObservationResult(index, null, error);
+	}
+}
@@ -1,11 +1,18 @@
 package org.ts.application.services;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import org.ts.application.engine.TemporalObservationIndex;
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Observation;
 import org.ts.data.entities.Encounter;
+import org.ts.data.repositories.ObservationSummary;
 import org.springframework.stereotype.Service;
 
 /**
@@ -31,6 +38,18 @@ public interface ObservationService {
 	public Observation addObservation(Observation observation)
 	        throws EntryNotFoundException, EntryNotActiveException;
 
+	/**
+	 * Adds a batch of {@link Observation}s to existing {@link Encounter}
+	 * instances in a single transaction. Observations that are invalid or refer
+	 * to missing or inactive entries are reported and left out, without
+	 * affecting the rest of the batch.
+	 *
+	 * @param observations new observations that refer to existing encounters
+	 * 
+	 * @return the outcome of each observation, in the order of the batch
+	 */
+	public List<ObservationResult> addObservations(List<Observation> observations);
+
 	/**
 	 * Gets an active {@link Observation} instance given its identifier.
 	 *
@@ -67,6 +86,17 @@ public interface ObservationService {
 	 */
 	public List<Observation> getObservations();
 
+	/**
+	 * Fetches a page of active {@link Observation} instances from the database,
+	 * ordered by ID.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of observations to fetch
+	 *
+	 * @return a list of at most <code>limit</code> active observations
+	 */
+	public List<Observation> getObservations(Long afterId, int limit);
+
 	/**
 	 * Lists all active {@link Observation} instances for a specified encounter
 	 * from the database.
@@ -76,4 +106,147 @@ public interface ObservationService {
 	 * @return a list of active observation instances
 	 */
 	public List<Observation> getObservations(Long encounterId);
+
+	/**
+	 * Lists the most recent active {@link Observation} per concept for a patient,
+	 * taken from the patient's encounters on a given date.
+	 *
+	 * @param patientId     the patient to take the snapshot for
+	 * @param encounterDate the date of the encounters to consider
+	 * 
+	 * @return a list with at most one observation per concept
+	 */
+	public List<Observation> getObservationSnapshot(Long patientId, LocalDate encounterDate);
+
+	/**
+	 * Lists the most recent active {@link Observation} per concept for each of a
+	 * group of patients, taken from their encounters on a given date.
+	 *
+	 * @param patientIds    the patients to take snapshots for
+	 * @param encounterDate the date of the encounters to consider
+	 * 
+	 * @return observations keyed by patient ID, with at most one observation per
+	 *         concept and patient
+	 */
+	public Map<Long, List<Observation>> getObservationSnapshots(Collection<Long> patientIds, LocalDate encounterDate);
+	/**
+	 * Loads the history of active {@link Observation} instances of a group of
+	 * patients up to a point in time into a temporal index.
+	 *
+	 * @param patientIds the patients to load observations for
+	 * @param until      the inclusive upper bound of the observation date
+	 * 
+	 * @return a temporal index over the observations of the patients
+	 */
+	public TemporalObservationIndex getObservationHistory(Collection<Long> patientIds, LocalDateTime until);
+
+	/**
+	 * Marks the given {@link Observation} instances as deleted in the database
+	 * with a single update per chunk of IDs. Instances that are already voided are
+	 * left unchanged.
+	 *
+	 * @param observationIds identifiers of the observations to be deleted
+	 * @param reason         the reason to be recorded, if any
+	 * 
+	 * @return the number of observations that were deleted
+	 */
+	public int deleteObservations(Collection<Long> observationIds, String reason);
+
+	/**
+	 * Marks all {@link Observation} instances of a given encounter as deleted in
+	 * the database with a single update. Instances that are already voided are
+	 * left unchanged.
+	 *
+	 * @param encounterId identifier of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of observations that were deleted
+	 */
+	public int deleteObservationsOfEncounter(Long encounterId, String reason);
+
+	/**
+	 * Marks the given {@link Observation} instances as retired in the database
+	 * with a single update per chunk of IDs. Instances that are already retired
+	 * are left unchanged.
+	 *
+	 * @param observationIds identifiers of the observations to be retired
+	 * @param reason         the reason to be recorded, if any
+	 * 
+	 * @return the number of observations that were retired
+	 */
+	public int retireObservations(Collection<Long> observationIds, String reason);
+
+	/**
+	 * Marks all {@link Observation} instances of a given encounter as retired in
+	 * the database with a single update. Instances that are already retired are
+	 * left unchanged.
+	 *
+	 * @param encounterId identifier of the encounter
+	 * @param reason      the reason to be recorded, if any
+	 * 
+	 * @return the number of observations that were retired
+	 */
+	public int retireObservationsOfEncounter(Long encounterId, String reason);
+
+	/**
+	 * Fetches a page of summaries of active observations from the database, ordered
+	 * by ID. Only the columns of the summary are selected.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of observations to fetch
+	 *
+	 * @return a list of at most <code>limit</code> observation summaries
+	 */
+	public List<ObservationSummary> getObservationSummaries(Long afterId, int limit);
+
+	/**
+	 * Fetches a page of summaries of active observations made within a period
+	 * from the database, ordered by ID. Only the columns of the summary are
+	 * selected and only the partitions of the period are read.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of observations to fetch
+	 * @param from    the inclusive lower bound of the observation date
+	 * @param to      the exclusive upper bound of the observation date
+	 *
+	 * @return a list of at most <code>limit</code> observation summaries
+	 */
+	public List<ObservationSummary> getObservationSummaries(Long afterId, int limit, LocalDateTime from,
+	        LocalDateTime to);
+
+	/**
+	 * Fetches the summaries of all active observations of a specified encounter from
+	 * the database. Only the columns of the summary are selected.
+	 *
+	 * @param encounterId the ID of the encounter to filter observations for
+	 *
+	 * @return a list of summaries of the active observations of the encounter
+	 */
+	public List<ObservationSummary> getObservationSummaries(Long encounterId);
+
+	/**
+	 * Fetches the summary of an active observation from the database. Only the
+	 * columns of the summary are selected.
+	 *
+	 * @param observationId ID to be used as a key field during search
+	 *
+	 * @return the summary of an observation that matches the search criteria
+	 */
+	public ObservationSummary getActiveObservationSummary(Long observationId)
+	        throws EntryNotFoundException, EntryNotActiveException;
+
+	/**
+	 * Streams the summaries of the active observations that match the given
+	 * filters to a consumer, ordered by ID. Rows are read through a database
+	 * cursor in blocks of a fixed fetch size, so memory use does not depend on
+	 * the number of observations exported.
+	 *
+	 * @param conceptId the observed concept, or <code>null</code> for any
+	 * @param patientId the patient, or <code>null</code> for any
+	 * @param from      the inclusive lower bound of the observation date, if any
+	 * @param to        the exclusive upper bound of the observation date, if any
+	 * @param consumer  the consumer of the summaries, called once per row
+	 */
+	public void exportObservations(Long conceptId, Long patientId, LocalDateTime from, LocalDateTime to,
+	        Consumer<ObservationSummary> consumer);
 }
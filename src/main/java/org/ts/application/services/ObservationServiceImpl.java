@@ -1,22 +1,42 @@
 package org.ts.application.services;
 
-import java.util.Comparator;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
 
+import org.ts.application.engine.ObservationFact;
+import org.ts.application.engine.TemporalObservationIndex;
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
+import org.ts.data.entities.Concept;
 import org.ts.data.entities.Encounter;
 import org.ts.data.entities.Observation;
 import org.ts.data.repositories.ObservationRepository;
+import org.ts.data.repositories.ObservationSummary;
 import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,49 +44,54 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class ObservationServiceImpl implements ObservationService {
 
+	private static final String EXPORT_COLUMNS = "SELECT o.id, o.observation_date, o.concept_id, o.concept_value_id, "
+	        + "o.int_value, o.string_value, o.date_time_value, o.encounter_id FROM observation o";
+
 	@Autowired
 	private ObservationRepository observationRepository;
 
 	@Autowired
 	private EncounterService encounterService;
 
+	@Autowired
+	private ConceptService conceptService;
+
+	@Autowired
+	private RecommendationNetworkService recommendationNetworkService;
+
+	@Autowired
+	private RecommendationCacheService recommendationCacheService;
+
 	@Autowired
 	private Validator validator;
 
-	@Override
-	public Observation addObservation(Observation observation) throws EntryNotFoundException, EntryNotActiveException {
+	@Autowired
+	private AuditorAware<String> auditorProvider;
 
-		Observation greenObservation = new Observation();
+	@Autowired
+	private DataSource dataSource;
 
-		// Extract all fields to safely add to DB
-		greenObservation.setConcept(observation.getConcept());
-		greenObservation.setConceptValue(observation.getConceptValue());
-		greenObservation.setIntValue(observation.getIntValue());
-		greenObservation.setDateTimeValue(observation.getDateTimeValue());
-		greenObservation.setObservationDate(observation.getObservationDate());
+	@PersistenceContext
+	private EntityManager entityManager;
 
-		greenObservation.setVoided(Lookup.NOT_VOIDED);
-		greenObservation.setRetired(Lookup.NOT_RETIRED);
+	@Value("${observations.export.fetch-size:1000}")
+	private int exportFetchSize;
 
-		// Validate using Bean constraints
-		Set<ConstraintViolation<Observation>> violations = validator.validate(greenObservation);
-		if (!violations.isEmpty()) {
-			StringBuilder sb = new StringBuilder();
-			for (ConstraintViolation<Observation> constraintViolation : violations) {
-				sb.append(" -> " + constraintViolation.getMessage());
-			}
+	@Override
+	@Transactional
+	public Observation addObservation(Observation observation) throws EntryNotFoundException, EntryNotActiveException {
 
-			throw new ConstraintViolationException("Validation error: " + sb.toString(), violations);
-		}
+		Observation greenObservation = greenCopyOf(observation);
+
+		// Validate using Bean constraints
+		validate(greenObservation);
 
 		// Only proceed to search for observation and encounter if we have references
 		if (observation.getEncounter() == null || observation.getEncounter().getId() == null) {
 			throw new EntryNotFoundException("Unable to find existing ENCOUNTER references");
 		}
 
-		Observation newObservation = new Observation();
-
-		// Get reference entities
+		// Get reference entities, the encounter date and patient are needed below
 		Encounter existingEncounter = new Encounter();
 		try {
 			existingEncounter = encounterService.getActiveEncounter(observation.getEncounter().getId());
@@ -75,34 +100,138 @@ public class ObservationServiceImpl implements ObservationService {
 		} catch (EntryNotActiveException e) {
 			throw new EntryNotActiveException("Unable to find active ENCOUNTER reference");
 		}
+		// Concepts are taken as given, without checking that they are active
+		if (observation.getConcept() != null && observation.getConcept().getId() != null) {
+			greenObservation.setConcept(entityManager.getReference(Concept.class, observation.getConcept().getId()));
+		}
+		if (observation.getConceptValue() != null && observation.getConceptValue().getId() != null) {
+			greenObservation.setConceptValue(
+			        entityManager.getReference(Concept.class, observation.getConceptValue().getId()));
+		}
 
-		// Only attempt to save the observation if we have an existing encounter
-		newObservation = observationRepository.save(greenObservation);
+		// Add references to existing Encounter instance and insert it once
+		greenObservation.setEncounter(existingEncounter);
+		Observation newObservation = observationRepository.save(greenObservation);
 
-		// Add references to existing Encounter instance
-		newObservation.setEncounter(existingEncounter);
-		newObservation = observationRepository.save(newObservation);
+		// Keep the matching categories of the patient current
+		if (existingEncounter.getPatient() != null) {
+			recommendationCacheService.observationsChanged(existingEncounter.getPatient().getId());
+			recommendationNetworkService.assertObservation(existingEncounter.getPatient().getId(),
+			        existingEncounter.getEncounterDate().toLocalDate(), ObservationFact.of(newObservation));
+		}
 
 		return newObservation;
 	}
 
 	@Override
+	@Transactional
+	public List<ObservationResult> addObservations(List<Observation> observations) {
+		List<ObservationResult> results = new ArrayList<>(Collections.nCopies(observations.size(), null));
+		Map<Long, Object> encounters = new HashMap<>();
+		Map<Long, Object> concepts = new HashMap<>();
+		List<Observation> greenObservations = new ArrayList<>();
+		List<Integer> indexes = new ArrayList<>();
+
+		for (int i = 0; i < observations.size(); i++) {
+			Observation observation = observations.get(i);
+			try {
+				Observation greenObservation = greenCopyOf(observation);
+				validate(greenObservation);
+				if (observation.getEncounter() == null || observation.getEncounter().getId() == null) {
+					throw new EntryNotFoundException("Unable to find existing ENCOUNTER references");
+				}
+
+				// Each distinct reference is only looked up once per batch
+				greenObservation.setEncounter(resolve(encounters, observation.getEncounter().getId(),
+				        encounterService::getActiveEncounter, "ENCOUNTER"));
+				setConcepts(greenObservation, observation, concepts);
+				greenObservations.add(greenObservation);
+				indexes.add(i);
+			} catch (ConstraintViolationException | EntryNotFoundException | EntryNotActiveException e) {
+				results.set(i, ObservationResult.failed(i, e.getMessage()));
+			}
+		}
+
+		// Inserted in JDBC batches, ordered by entity, with the encounter already set
+		List<Observation> newObservations = new ArrayList<>();
+		observationRepository.saveAll(greenObservations).forEach(newObservations::add);
+
+		Map<Long, List<Observation>> byPatient = new HashMap<>();
+		for (int i = 0; i < newObservations.size(); i++) {
+			Observation newObservation = newObservations.get(i);
+			results.set(indexes.get(i), ObservationResult.of(indexes.get(i), newObservation.getId()));
+			if (newObservation.getEncounter().getPatient() != null) {
+				byPatient.computeIfAbsent(newObservation.getEncounter().getPatient().getId(), k -> new ArrayList<>())
+				        .add(newObservation);
+			}
+		}
+
+		// Keep the matching categories of each patient current
+		byPatient.forEach((patientId, added) -> {
+			recommendationCacheService.observationsChanged(patientId);
+			for (Observation newObservation : added) {
+				recommendationNetworkService.assertObservation(patientId,
+				        newObservation.getEncounter().getEncounterDate().toLocalDate(),
+				        ObservationFact.of(newObservation));
+			}
+		});
+
+		return results;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public List<Observation> getObservations() {
-		List<Observation> observations = observationRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED)
-		        .collect(Collectors.toList());
-		observations.sort(Comparator.comparing(Observation::getId));
-		return observations;
+		return observationRepository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public List<Observation> getObservations(Long afterId, int limit) {
+		return observationRepository.findByActiveFlagsAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public List<Observation> getObservations(Long encounterId) {
-		List<Observation> observations = observationRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED
-		                && p.getEncounter().getId().longValue() == encounterId)
-		        .collect(Collectors.toList());
-		observations.sort(Comparator.comparing(Observation::getId));
-		return observations;
+		return observationRepository.findByEncounterAndActiveFlags(encounterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
+
+	// Snapshots feed the working memories and the recommendation cache, which are
+	// kept until the next change, so they are read from the primary instead of a
+	// replica that may not have the latest observations yet
+	@Override
+	@Transactional
+	public List<Observation> getObservationSnapshot(Long patientId, LocalDate encounterDate) {
+		return observationRepository.findLatestPerConceptByPatient(patientId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        encounterDate.atStartOfDay(), encounterDate.plusDays(1).atStartOfDay());
+	}
+
+	@Override
+	@Transactional
+	public Map<Long, List<Observation>> getObservationSnapshots(Collection<Long> patientIds,
+	        LocalDate encounterDate) {
+		if (patientIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		return observationRepository
+		        .findLatestPerConceptByPatients(patientIds, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		                encounterDate.atStartOfDay(), encounterDate.plusDays(1).atStartOfDay())
+		        .stream().collect(Collectors.groupingBy(p -> p.getEncounter().getPatient().getId()));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public TemporalObservationIndex getObservationHistory(Collection<Long> patientIds, LocalDateTime until) {
+		TemporalObservationIndex.Builder history = TemporalObservationIndex.builder();
+		if (!patientIds.isEmpty()) {
+			for (Observation observation : observationRepository.findByPatientsObservedUntil(patientIds,
+			        Lookup.NOT_VOIDED, Lookup.NOT_RETIRED, until)) {
+				history.add(observation.getEncounter().getPatient().getId(), ObservationFact.of(observation));
+			}
+		}
+		return history.build();
 	}
 
 	@Override
@@ -121,12 +250,14 @@ public class ObservationServiceImpl implements ObservationService {
 	}
 
 	@Override
+	@Transactional
 	public void deleteObservation(Long observationId) throws EntryNotFoundException {
 		Observation observation = observationRepository.findById(observationId).orElse(null);
 		if (observation != null && observation.getVoided() != Lookup.VOIDED) {
 			observation.setVoided(Lookup.VOIDED);
 			observation.setVoidedReason("System operation - voided");
 			observationRepository.save(observation);
+			retractPatientOf(observation);
 			log.info("Deleted observation with ID: " + observationId);
 		} else {
 			throw new EntryNotFoundException("Invalid operation for [QUALIFICATION]." + observationId);
@@ -134,15 +265,223 @@ public class ObservationServiceImpl implements ObservationService {
 	}
 
 	@Override
+	@Transactional
 	public void retireObservation(Long observationId) throws EntryNotFoundException {
 		Observation observation = observationRepository.findById(observationId).orElse(null);
 		if (observation != null && observation.getRetired() != Lookup.RETIRED) {
 			observation.setRetired(Lookup.RETIRED);
 			observation.setRetiredReason("System operation - retired");
 			observationRepository.save(observation);
+			retractPatientOf(observation);
 			log.info("Retired observation with ID: " + observationId);
 		} else {
 			throw new EntryNotFoundException("Invalid operation for [QUALIFICATION]." + observationId);
 		}
 	}
+
+	@Override
+	@Transactional
+	public int deleteObservations(Collection<Long> observationIds, String reason) {
+		String voidedReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.VOIDED_REASON);
+		List<Long> patientIds = new ArrayList<>();
+		int updated = BulkStatusUpdate.inChunks(observationIds, ids -> {
+			patientIds.addAll(observationRepository.findPatientIdsByIds(ids));
+			return observationRepository.voidByIds(ids, voidedReason,
+			        LocalDateTime.now(), currentAuditor(), Lookup.VOIDED);
+		});
+		patientIds.stream().distinct().forEach(this::retractPatient);
+		log.info("Deleted " + updated + " observations");
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int deleteObservationsOfEncounter(Long encounterId, String reason) {
+		String voidedReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.VOIDED_REASON);
+		List<Long> patientIds = observationRepository.findPatientIdsByEncounter(encounterId);
+		int updated = observationRepository.voidByEncounter(encounterId, voidedReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.VOIDED);
+		patientIds.forEach(this::retractPatient);
+		log.info("Deleted " + updated + " observations of encounter with ID: " + encounterId);
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int retireObservations(Collection<Long> observationIds, String reason) {
+		String retiredReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.RETIRED_REASON);
+		List<Long> patientIds = new ArrayList<>();
+		int updated = BulkStatusUpdate.inChunks(observationIds, ids -> {
+			patientIds.addAll(observationRepository.findPatientIdsByIds(ids));
+			return observationRepository.retireByIds(ids, retiredReason,
+			        LocalDateTime.now(), currentAuditor(), Lookup.RETIRED);
+		});
+		patientIds.stream().distinct().forEach(this::retractPatient);
+		log.info("Retired " + updated + " observations");
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int retireObservationsOfEncounter(Long encounterId, String reason) {
+		String retiredReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.RETIRED_REASON);
+		List<Long> patientIds = observationRepository.findPatientIdsByEncounter(encounterId);
+		int updated = observationRepository.retireByEncounter(encounterId, retiredReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.RETIRED);
+		patientIds.forEach(this::retractPatient);
+		log.info("Retired " + updated + " observations of encounter with ID: " + encounterId);
+		return updated;
+	}
+
+	private Observation greenCopyOf(Observation observation) {
+		Observation greenObservation = new Observation();
+
+		// Extract all fields to safely add to DB
+		greenObservation.setConcept(observation.getConcept());
+		greenObservation.setConceptValue(observation.getConceptValue());
+		greenObservation.setIntValue(observation.getIntValue());
+		greenObservation.setDateTimeValue(observation.getDateTimeValue());
+		greenObservation.setObservationDate(observation.getObservationDate());
+
+		greenObservation.setVoided(Lookup.NOT_VOIDED);
+		greenObservation.setRetired(Lookup.NOT_RETIRED);
+
+		// A new observation is persisted with a single insert
+		greenObservation.setId(null);
+		return greenObservation;
+	}
+
+	/**
+	 * Replaces the concepts of a batch observation with their managed instances,
+	 * which are read from the second-level cache. Inactive concepts are rejected.
+	 */
+	private void setConcepts(Observation greenObservation, Observation observation, Map<Long, Object> concepts) {
+		if (observation.getConcept() != null && observation.getConcept().getId() != null) {
+			greenObservation.setConcept(
+			        resolve(concepts, observation.getConcept().getId(), conceptService::getActiveConcept, "CONCEPT"));
+		}
+		if (observation.getConceptValue() != null && observation.getConceptValue().getId() != null) {
+			greenObservation.setConceptValue(resolve(concepts, observation.getConceptValue().getId(),
+			        conceptService::getActiveConcept, "CONCEPT"));
+		}
+	}
+
+	private void validate(Observation greenObservation) {
+		Set<ConstraintViolation<Observation>> violations = validator.validate(greenObservation);
+		if (!violations.isEmpty()) {
+			StringBuilder sb = new StringBuilder();
+			for (ConstraintViolation<Observation> constraintViolation : violations) {
+				sb.append(" -> " + constraintViolation.getMessage());
+			}
+
+			throw new ConstraintViolationException("Validation error: " + sb.toString(), violations);
+		}
+	}
+
+	/**
+	 * Looks up a reference once per batch. The failure of a lookup is remembered
+	 * so that every observation referring to the same entry fails the same way.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T resolve(Map<Long, Object> resolved, Long id, Function<Long, T> finder, String entity) {
+		Object reference = resolved.computeIfAbsent(id, k -> {
+			try {
+				return finder.apply(k);
+			} catch (EntryNotFoundException e) {
+				return new EntryNotFoundException("Unable to find existing " + entity + " reference");
+			} catch (EntryNotActiveException e) {
+				return new EntryNotActiveException("Unable to find active " + entity + " reference");
+			}
+		});
+		if (reference instanceof RuntimeException) {
+			throw (RuntimeException) reference;
+		}
+		return (T) reference;
+	}
+
+	private void retractPatientOf(Observation observation) {
+		if (observation.getEncounter() != null && observation.getEncounter().getPatient() != null) {
+			retractPatient(observation.getEncounter().getPatient().getId());
+		}
+	}
+
+	private void retractPatient(Long patientId) {
+		recommendationCacheService.observationsChanged(patientId);
+		recommendationNetworkService.retractPatient(patientId);
+	}
+
+	private String currentAuditor() {
+		return auditorProvider.getCurrentAuditor().orElse(null);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ObservationSummary> getObservationSummaries(Long afterId, int limit) {
+		return observationRepository.findSummariesAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ObservationSummary> getObservationSummaries(Long afterId, int limit, LocalDateTime from,
+	        LocalDateTime to) {
+		return observationRepository.findSummariesAfterObservedBetween(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        from, to, PageRequest.of(0, limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ObservationSummary> getObservationSummaries(Long encounterId) {
+		return observationRepository.findSummariesByEncounter(encounterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
+
+	@Override
+	public ObservationSummary getActiveObservationSummary(Long observationId)
+	        throws EntryNotActiveException, EntryNotFoundException {
+		ObservationSummary observation = observationRepository.findSummaryById(observationId).orElse(null);
+		if (observation == null || observation.getVoided() == Lookup.VOIDED) {
+			throw new EntryNotFoundException("Invalid operation for [QUALIFICATION]." + observationId);
+		} else if (observation.getRetired() == Lookup.RETIRED) {
+			throw new EntryNotActiveException("Invalid operation for [QUALIFICATION]." + observationId);
+		}
+		return observation;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportObservations(Long conceptId, Long patientId, LocalDateTime from, LocalDateTime to,
+	        Consumer<ObservationSummary> consumer) {
+		StringBuilder sql = new StringBuilder(EXPORT_COLUMNS);
+		List<Object> args = new ArrayList<>();
+		if (patientId != null) {
+			sql.append(" JOIN encounter e ON e.id = o.encounter_id AND e.patient_id = ?");
+			args.add(patientId);
+		}
+		sql.append(" WHERE o.voided = ? AND o.retired = ?");
+		args.add(Lookup.NOT_VOIDED);
+		args.add(Lookup.NOT_RETIRED);
+		if (conceptId != null) {
+			sql.append(" AND o.concept_id = ?");
+			args.add(conceptId);
+		}
+		if (from != null) {
+			sql.append(" AND o.observation_date >= ?");
+			args.add(from);
+		}
+		if (to != null) {
+			sql.append(" AND o.observation_date < ?");
+			args.add(to);
+		}
+		sql.append(" ORDER BY o.id");
+
+		// Postgres only honours the fetch size inside a transaction
+		JdbcTemplate cursor = new JdbcTemplate(dataSource);
+		cursor.setFetchSize(exportFetchSize);
+		cursor.query(sql.toString(), rs -> {
+			consumer.accept(new ObservationSummary(rs.getLong(1), rs.getObject(2, LocalDateTime.class),
+			        rs.getObject(3, Long.class), rs.getObject(4, Long.class), rs.getObject(5, Integer.class),
+			        rs.getString(6), rs.getObject(7, LocalDateTime.class), rs.getObject(8, Long.class),
+			        Lookup.NOT_VOIDED, Lookup.NOT_RETIRED));
+		}, args.toArray());
+	}
 }
@@ -1,12 +1,18 @@
 package org.ts.application.services;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.ts.application.engine.ObservationFact;
+import org.ts.application.engine.PatientRecommendation;
+import org.ts.application.engine.TracedRecommendation;
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.Patient;
 import org.ts.data.entities.RegimenCategory;
+import org.ts.data.repositories.PatientSummary;
 import org.springframework.stereotype.Service;
 
 /**
@@ -38,6 +44,18 @@ public interface PatientService {
 	 */
 	public Patient getActivePatient(Long patientId) throws EntryNotFoundException, EntryNotActiveException;
 
+	/**
+	 * Returns a reference to an active {@link Patient} instance without loading
+	 * it, for use as the parent of a new entry. Only the flags of the patient
+	 * are read to check that it is active.
+	 *
+	 * @param patientId ID to be used as a key field during search
+	 *
+	 * @return an uninitialized reference to the patient, unless it is already
+	 *         loaded
+	 */
+	public Patient getActivePatientReference(Long patientId) throws EntryNotFoundException, EntryNotActiveException;
+
 	/**
 	 * Marks a given {@link Patient} instance as deleted in the database.
 	 *
@@ -72,6 +90,136 @@ public interface PatientService {
 	 * @return list of regimen categories that are applicable to this patient
 	 */
 	public List<RegimenCategory> getRecommendedRegimenCategories(Long patientId, LocalDateTime encounterDate);
+
+	/**
+	 * Evaluates applicable {@link RegimenCategory} instances for a group of
+	 * patients against one shared recommendation index, passing each patient's
+	 * result to the given consumer as soon as it is available.
+	 * <p>
+	 * The consumer may be called concurrently from several threads and in any
+	 * patient order. Patients that are missing or inactive are reported with an
+	 * error instead of recommendations.
+	 *
+	 * @param patientIds    the IDs of the patients to evaluate
+	 * @param encounterDate the date of the encounters to be used as the filter criteria
+	 * @param consumer      receives the result of every evaluated patient
+	 * 
+	 */
+	public void getRecommendedRegimenCategories(List<Long> patientIds, LocalDateTime encounterDate,
+	        Consumer<PatientRecommendation> consumer);
+
+	/**
+	 * Fetches all applicable {@link RegimenCategory} instances for this patient
+	 * as of a point in time, using the latest observation per concept made at or
+	 * before it regardless of the encounter date.
+	 *
+	 * @param patientId the ID of the patient to be used as the filter criteria
+	 * @param asOf      the point in time to evaluate recommendations at
+	 * 
+	 * @return list of regimen categories that were applicable at that time
+	 * 
+	 * @throws EntryNotFoundException  if the patient does not exist
+	 * @throws EntryNotActiveException if the patient is not active
+	 */
+	public List<RegimenCategory> getRecommendedRegimenCategoriesAsOf(Long patientId, LocalDateTime asOf)
+	        throws EntryNotActiveException, EntryNotFoundException;
+
+	/**
+	 * Evaluates applicable {@link RegimenCategory} instances for a group of
+	 * patients as of several points in time. The observation history of the
+	 * patients is loaded once per chunk of patients and every point in time is
+	 * answered from it. Results are passed to the consumer as in
+	 * {@link #getRecommendedRegimenCategories(List, LocalDateTime, Consumer)},
+	 * one per patient and point in time.
+	 *
+	 * @param patientIds the IDs of the patients to evaluate
+	 * @param asOf       the points in time to evaluate recommendations at
+	 * @param consumer   receives the result of every evaluation
+	 * 
+	 */
+	public void getRecommendedRegimenCategoriesAsOf(List<Long> patientIds, List<LocalDateTime> asOf,
+	        Consumer<PatientRecommendation> consumer);
+
+	/**
+	 * Fetches all applicable {@link RegimenCategory} instances for this patient
+	 * as if the given observations had been recorded. The observations are
+	 * merged with the stored observations of the encounter date in memory and
+	 * nothing is written to the database. As with stored observations, only the
+	 * most recent observation per concept is considered.
+	 *
+	 * @param patientId     the ID of the patient to be used as the filter criteria
+	 * @param encounterDate the date of the encounter to be used as the filter criteria
+	 * @param observations  the transient observations to evaluate with
+	 * 
+	 * @return list of regimen categories that would be applicable to this patient
+	 * 
+	 * @throws EntryNotFoundException  if the patient does not exist
+	 * @throws EntryNotActiveException if the patient is not active
+	 */
+	public List<RegimenCategory> getHypotheticalRegimenCategories(Long patientId, LocalDateTime encounterDate,
+	        List<ObservationFact> observations) throws EntryNotActiveException, EntryNotFoundException;
+
+	/**
+	 * Evaluates the recommended {@link RegimenCategory} instances for a patient
+	 * with tracing enabled. Unlike
+	 * {@link #getRecommendedRegimenCategories(Long, LocalDateTime)} the result is
+	 * always evaluated from the observations in the database.
+	 *
+	 * @param patientId     the patient to evaluate recommendations for
+	 * @param encounterDate the date of the encounter whose observations are used
+	 * 
+	 * @return the recommended categories and the trace of the evaluation
+	 * 
+	 * @throws EntryNotFoundException  if the patient does not exist
+	 * @throws EntryNotActiveException if the patient is not active
+	 */
+	public TracedRecommendation traceRecommendedRegimenCategories(Long patientId, LocalDateTime encounterDate)
+	        throws EntryNotActiveException, EntryNotFoundException;
 	
 
+	/**
+	 * Marks the given {@link Patient} instances as deleted in the database with a
+	 * single update per chunk of IDs. Instances that are already voided are left
+	 * unchanged.
+	 *
+	 * @param patientIds identifiers of the patients to be deleted
+	 * @param reason     the reason to be recorded, if any
+	 * 
+	 * @return the number of patients that were deleted
+	 */
+	public int deletePatients(Collection<Long> patientIds, String reason);
+
+	/**
+	 * Marks the given {@link Patient} instances as retired in the database with a
+	 * single update per chunk of IDs. Instances that are already retired are left
+	 * unchanged.
+	 *
+	 * @param patientIds identifiers of the patients to be retired
+	 * @param reason     the reason to be recorded, if any
+	 * 
+	 * @return the number of patients that were retired
+	 */
+	public int retirePatients(Collection<Long> patientIds, String reason);
+
+	/**
+	 * Fetches a page of summaries of active patients from the database, ordered
+	 * by ID. Only the columns of the summary are selected.
+	 *
+	 * @param afterId the exclusive lower bound of the IDs to fetch
+	 * @param limit   the maximum number of patients to fetch
+	 *
+	 * @return a list of at most <code>limit</code> patient summaries
+	 */
+	public List<PatientSummary> getPatientSummaries(Long afterId, int limit);
+
+	/**
+	 * Fetches the summary of an active patient from the database. Only the
+	 * columns of the summary are selected.
+	 *
+	 * @param patientId ID to be used as a key field during search
+	 *
+	 * @return the summary of a patient that matches the search criteria
+	 */
+	public PatientSummary getActivePatientSummary(Long patientId)
+	        throws EntryNotFoundException, EntryNotActiveException;
 }
@@ -4,27 +4,47 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validator;
 
+import org.ts.application.engine.EvaluationTrace;
+import org.ts.application.engine.ObservationFact;
+import org.ts.application.engine.PatientFacts;
+import org.ts.application.engine.PatientRecommendation;
+import org.ts.application.engine.RecommendationCacheKey;
+import org.ts.application.engine.RecommendationIndex;
+import org.ts.application.engine.RecommendedCategory;
+import org.ts.application.engine.TemporalObservationIndex;
+import org.ts.application.engine.TracedRecommendation;
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.data.entities.ApplicationUser;
-import org.ts.data.entities.Condition;
 import org.ts.data.entities.Observation;
 import org.ts.data.entities.Patient;
 import org.ts.data.entities.RegimenCategory;
+import org.ts.data.repositories.EntryStatus;
 import org.ts.data.repositories.PatientRepository;
+import org.ts.data.repositories.PatientSummary;
 import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import java.time.temporal.*;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,6 +52,8 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class PatientServiceImpl implements PatientService {
 
+	private static final int BATCH_CHUNK_SIZE = 500;
+
 	@Autowired
 	private PatientRepository patientRepository;
 
@@ -44,10 +66,26 @@ public class PatientServiceImpl implements PatientService {
 	@Autowired
 	private RegimenCategoryService regimenCategoryService;
 
+	@Autowired
+	private RecommendationNetworkService recommendationNetworkService;
+
+	@Autowired
+	private RecommendationCacheService recommendationCacheService;
+
 	@Autowired
 	private Validator validator;
 
+	@Autowired
+	private AuditorAware<String> auditorProvider;
+
+	@Autowired
+	private ForkJoinPool recommendationPool;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	@Override
+	@Transactional
 	public Patient addPatient(Patient patient) {
 		Patient greenPatient = new Patient();
 
@@ -88,170 +126,210 @@ public class PatientServiceImpl implements PatientService {
 			throw new EntryNotFoundException("Unable to find existing USER reference");
 		}
 
-		Patient newPatient = new Patient();
-
-		// Get a user instance for the patient
+		// Get a user reference for the patient, only its key is written
 		ApplicationUser existingUser = new ApplicationUser();
 		try {
-			existingUser = userService.getActiveUser(patient.getApplicationUser().getId());
+			existingUser = userService.getActiveUserReference(patient.getApplicationUser().getId());
 		} catch (EntryNotFoundException e) {
 			throw new EntryNotFoundException("Unable to find existing [USER] " + patient.getApplicationUser().getId());
 		} catch (EntryNotActiveException e) {
 			throw new EntryNotActiveException("Unable to find active [USER] " + patient.getApplicationUser().getId());
 		}
 
-		newPatient = patientRepository.save(greenPatient);
-
-		// Add patient to an existing user instance
-		newPatient.setApplicationUser(existingUser);
-		newPatient = patientRepository.save(newPatient);
+		// Add patient to an existing user instance and insert it once
+		greenPatient.setId(null);
+		greenPatient.setApplicationUser(existingUser);
+		Patient newPatient = patientRepository.save(greenPatient);
 
 		return newPatient;
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Patient> getPatients() {
-		List<Patient> patients = patientRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED)
-		        .collect(Collectors.toList());
-		patients.sort(Comparator.comparing(Patient::getId));
-		return patients;
+		return patientRepository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
 	}
 
-	// Can only handle coded concept and age conditions
+	// Can only handle coded concept, integer and age conditions. Not read-only,
+	// so that the snapshot is read from the primary like the observation it
+	// follows, as the result is kept in the network and the cache
 	@Override
+	@Transactional
 	public List<RegimenCategory> getRecommendedRegimenCategories(Long patientId, LocalDateTime encounterDate) {
 		Patient patient = getActivePatient(patientId);
 
-		List<RegimenCategory> recommendations = new ArrayList<RegimenCategory>();
-		for (RegimenCategory category : regimenCategoryService.getRegimenCategories()) {
-			// Check if it is an applicable recommendation for this patient
-			boolean addRecommendation = true;
-			log.info("New recommendation");
-			for (Condition condition : category.getCondition().stream().collect(Collectors.toList())) {
-				log.info(
-				        "Found condition of type " + condition.getConditionType() + " with ID -> " + condition.getId());
-				if(condition.getConcept().getName().equalsIgnoreCase("temperature")) {
-					log.info("Dealing with temperature");
-				}
-				if (addRecommendation) {
-					if (condition.getConcept().getName().equalsIgnoreCase("Age")) { // Calculate and compare age
-						log.info("Working with age");
-						int age = getAge(patient);
-
-						if (condition.getRelator() == Lookup.EQUALS) {
-							if (!(age == condition.getIntValue())) {
-								addRecommendation = false;
-							}
-						} else if (condition.getRelator() == Lookup.GREATER_OR_EQUAL) {
-							if (!(age >= condition.getIntValue())) {
-								addRecommendation = false;
-							}
-						} else if (condition.getRelator() == Lookup.LESS) {
-							if (!(age < condition.getIntValue())) {
-								addRecommendation = false;
-							}
-						} else {
-							if (!(age == condition.getIntValue())) {
-								addRecommendation = false;
-							}
-						}
-					} else {
-						if (condition.getConditionType() == Lookup.CONCEPT_CONDITION) { // Handle concept conditions
-							log.info("Working with concept condition");
-							List<Observation> observations = observationService.getObservations();
-							observations = observations.stream()
-							        .filter(p -> p.getEncounter().getEncounterDate().toLocalDate()
-							                .isEqual(encounterDate.toLocalDate())
-							                && p.getEncounter().getPatient().getId() == patient.getId()
-							                && p.getConcept().getId() == condition.getConcept().getId())
-							        .collect(Collectors.toList());
-
-							observations.sort(Comparator.comparing(Observation::getObservationDate).reversed());
-
-							Observation recentObservation = observations.stream().findFirst().orElse(new Observation());
-
-							if (recentObservation.getId() > 0) {
-								log.info("Recent obs -> " + recentObservation.getConceptValue().getId());
-								log.info("Concept value -> " + condition.getConceptValue().getId());
-
-								if (condition.getConceptValue().getId() != recentObservation.getConceptValue()
-								        .getId()) {
-									addRecommendation = false;
-								}
-							} else {
-								addRecommendation = false;
-							}
-
-						} else if (condition.getConditionType() == Lookup.INTEGER_CONDITION) { // Handle integer
-							log.info("Working with integer condition");
-							// conditions
-							List<Observation> observations = observationService.getObservations();
-							observations = observations.stream()
-							        .filter(p -> p.getEncounter().getEncounterDate().toLocalDate()
-							                .isEqual(encounterDate.toLocalDate())
-							                && p.getEncounter().getPatient().getId() == patient.getId()
-							                && p.getConcept().getId() == condition.getConcept().getId())
-							        .collect(Collectors.toList());
-
-							observations.sort(Comparator.comparing(Observation::getObservationDate).reversed());
-							for(Observation o: observations) {
-								log.info("Found obs with ID -> " + o.getId());
-							}
-
-							Observation recentObservation = observations.stream().findFirst().orElse(new Observation());
-
-							if(condition.getConcept().getName().equalsIgnoreCase("temperature")) {
-								log.info("Current temperature -> " +recentObservation.getIntValue());
-								for(Observation o: observations) {
-									log.info("Found obs with ID -> " + o.getId());
-									log.info("concept ID:: " + o.getConcept().getId());
-									log.info("obsValue:: " + o.getIntValue());
-								}
-
-							}
-							
-							if (recentObservation.getId() > 0) {
-								if (condition.getRelator() == Lookup.EQUALS) {
-									if (!(recentObservation.getIntValue() == condition.getIntValue())) {
-										addRecommendation = false;
-									}
-								} else if (condition.getRelator() == Lookup.GREATER_OR_EQUAL) {
-									if (!(recentObservation.getIntValue() >= condition.getIntValue())) {
-										addRecommendation = false;
-									}
-								} else if (condition.getRelator() == Lookup.LESS) {
-									if (!(recentObservation.getIntValue() < condition.getIntValue())) {
-										addRecommendation = false;
-									}
-								} else {
-									if (!(recentObservation.getIntValue() == condition.getIntValue())) {
-										addRecommendation = false;
-									}
-								}
-							} else {
-								addRecommendation = false;
-							}
-
-						}
-					}
+		LocalDate date = encounterDate.toLocalDate();
+		RecommendationCacheKey key = recommendationCacheService.createKey(patient.getId(), date,
+		        regimenCategoryService.getRecommendationIndex().getVersion());
+		List<RecommendedCategory> matches = recommendationCacheService.getIfPresent(key);
+		if (matches == null) {
+			// On a cache miss the network matches the patient's working memory. The
+			// observation snapshot is only read when the network holds no current
+			// working memory for the patient and date
+			matches = recommendationNetworkService.getMatchingCategories(patient.getId(), date,
+			        () -> getFacts(patient, observationService.getObservationSnapshot(patient.getId(), date)));
+			recommendationCacheService.put(key, matches);
+		}
+
+		List<Long> categoryIds = matches.stream().map(RecommendedCategory::getId).collect(Collectors.toList());
+		return regimenCategoryService.getRegimenCategories(categoryIds);
+	}
+
+	@Override
+	public void getRecommendedRegimenCategories(List<Long> patientIds, LocalDateTime encounterDate,
+	        Consumer<PatientRecommendation> consumer) {
+		// All patients in the batch are evaluated against the same index
+		RecommendationIndex index = regimenCategoryService.getRecommendationIndex();
+		List<Long> distinctIds = patientIds.stream().distinct().collect(Collectors.toList());
+
+		for (int from = 0; from < distinctIds.size(); from += BATCH_CHUNK_SIZE) {
+			List<Long> chunk = distinctIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinctIds.size()));
+
+			// Fetch patients and their observations for the whole chunk at once
+			Map<Long, Patient> patients = patientRepository
+			        .findByIdsAndActiveFlags(chunk, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED).stream()
+			        .collect(Collectors.toMap(Patient::getId, p -> p));
+
+			// Serve cached results and only load observations for the remaining patients
+			Map<Long, RecommendationCacheKey> keys = new HashMap<>();
+			for (Long patientId : patients.keySet()) {
+				RecommendationCacheKey key = recommendationCacheService.createKey(patientId,
+				        encounterDate.toLocalDate(), index.getVersion());
+				List<RecommendedCategory> cached = recommendationCacheService.getIfPresent(key);
+				if (cached == null) {
+					keys.put(patientId, key);
 				} else {
-					log.info("Skipping rest of recomendation");
+					consumer.accept(PatientRecommendation.of(patientId, cached));
 				}
 			}
-			
-			if (addRecommendation) {
-				recommendations.add(category);
+			Map<Long, List<Observation>> observations = observationService.getObservationSnapshots(keys.keySet(),
+			        encounterDate.toLocalDate());
+
+			List<PatientFacts> facts = new ArrayList<>();
+			for (Long patientId : chunk) {
+				Patient patient = patients.get(patientId);
+				if (patient == null) {
+					consumer.accept(PatientRecommendation.failed(patientId,
+					        new EntryNotFoundException("Invalid operation for [CANDIDATE]." + patientId).getMessage()));
+				} else if (keys.containsKey(patientId)) {
+					facts.add(getFacts(patient,
+					        observations.getOrDefault(patientId, Collections.<Observation>emptyList())));
+				}
+			}
+
+			// Only the CPU bound evaluation runs in the pool
+			runInPool(() -> facts.parallelStream().forEach(f -> {
+				List<RecommendedCategory> matches = index.evaluateCategories(f);
+				recommendationCacheService.put(keys.get(f.getPatientId()), matches);
+				consumer.accept(PatientRecommendation.of(f.getPatientId(), matches));
+			}));
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<RegimenCategory> getRecommendedRegimenCategoriesAsOf(Long patientId, LocalDateTime asOf) {
+		Patient patient = getActivePatient(patientId);
+		TemporalObservationIndex history = observationService
+		        .getObservationHistory(Collections.singletonList(patient.getId()), asOf);
+
+		List<Long> categoryIds = regimenCategoryService.getRecommendationIndex()
+		        .evaluate(history.getFacts(patient.getId(), getAge(patient, asOf.toLocalDate()), asOf));
+		return regimenCategoryService.getRegimenCategories(categoryIds);
+	}
+
+	@Override
+	public void getRecommendedRegimenCategoriesAsOf(List<Long> patientIds, List<LocalDateTime> asOf,
+	        Consumer<PatientRecommendation> consumer) {
+		RecommendationIndex index = regimenCategoryService.getRecommendationIndex();
+		List<Long> distinctIds = patientIds.stream().distinct().collect(Collectors.toList());
+		List<LocalDateTime> timestamps = asOf.stream().distinct().sorted().collect(Collectors.toList());
+		LocalDateTime until = timestamps.get(timestamps.size() - 1);
+
+		for (int from = 0; from < distinctIds.size(); from += BATCH_CHUNK_SIZE) {
+			List<Long> chunk = distinctIds.subList(from, Math.min(from + BATCH_CHUNK_SIZE, distinctIds.size()));
+
+			// Load the history of the whole chunk once and answer every timestamp from it
+			Map<Long, Patient> patients = patientRepository
+			        .findByIdsAndActiveFlags(chunk, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED).stream()
+			        .collect(Collectors.toMap(Patient::getId, p -> p));
+			TemporalObservationIndex history = observationService.getObservationHistory(patients.keySet(), until);
+
+			List<Patient> found = new ArrayList<>();
+			for (Long patientId : chunk) {
+				Patient patient = patients.get(patientId);
+				if (patient == null) {
+					consumer.accept(PatientRecommendation.failed(patientId,
+					        new EntryNotFoundException("Invalid operation for [CANDIDATE]." + patientId).getMessage()));
+				} else {
+					found.add(patient);
+				}
 			}
 
+			runInPool(() -> found.parallelStream().forEach(patient -> {
+				for (LocalDateTime timestamp : timestamps) {
+					PatientFacts facts = history.getFacts(patient.getId(),
+					        getAge(patient, timestamp.toLocalDate()), timestamp);
+					consumer.accept(
+					        PatientRecommendation.of(patient.getId(), timestamp, index.evaluateCategories(facts)));
+				}
+			}));
+		}
+	}
+
+	private void runInPool(Runnable evaluation) {
+		try {
+			recommendationPool.submit(evaluation).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while evaluating recommendations", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Unable to evaluate recommendations", e.getCause());
+		}
+	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<RegimenCategory> getHypotheticalRegimenCategories(Long patientId, LocalDateTime encounterDate,
+	        List<ObservationFact> observations) {
+		Patient patient = getActivePatient(patientId);
+		PatientFacts facts = getFacts(patient,
+		        observationService.getObservationSnapshot(patient.getId(), encounterDate.toLocalDate()));
+		for (ObservationFact observation : observations) {
+			facts.addObservation(observation);
 		}
 
-		return recommendations;
+		List<Long> categoryIds = regimenCategoryService.getRecommendationIndex().evaluate(facts);
+		return regimenCategoryService.getRegimenCategories(categoryIds);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public TracedRecommendation traceRecommendedRegimenCategories(Long patientId, LocalDateTime encounterDate) {
+		Patient patient = getActivePatient(patientId);
+		PatientFacts facts = getFacts(patient,
+		        observationService.getObservationSnapshot(patient.getId(), encounterDate.toLocalDate()));
+
+		EvaluationTrace trace = regimenCategoryService.getRecommendationIndex().trace(facts);
+		List<Long> categoryIds = trace.getCategories().stream().filter(EvaluationTrace.CategoryOutcome::isMatched)
+		        .map(EvaluationTrace.CategoryOutcome::getCategoryId).collect(Collectors.toList());
+		return new TracedRecommendation(regimenCategoryService.getRegimenCategories(categoryIds), trace);
+	}
+
+	PatientFacts getFacts(Patient patient, List<Observation> observations) {
+		PatientFacts facts = new PatientFacts(patient.getId(), getAge(patient));
+		for (Observation observation : observations) {
+			facts.addObservation(ObservationFact.of(observation));
+		}
+		return facts;
 	}
 
 	int getAge(Patient patient) {
-		return Period.between(patient.getDateOfBirth(), LocalDate.now()).getYears();
+		return getAge(patient, LocalDate.now());
+	}
+
+	int getAge(Patient patient, LocalDate date) {
+		return Period.between(patient.getDateOfBirth(), date).getYears();
 	}
 
 	@Override
@@ -269,6 +347,18 @@ public class PatientServiceImpl implements PatientService {
 	}
 
 	@Override
+	public Patient getActivePatientReference(Long patientId) throws EntryNotActiveException, EntryNotFoundException {
+		EntryStatus status = patientRepository.findStatusById(patientId).orElse(null);
+		if (status == null || status.getVoided() == Lookup.VOIDED) {
+			throw new EntryNotFoundException("Invalid operation for [CANDIDATE]." + patientId);
+		} else if (status.getRetired() == Lookup.RETIRED) {
+			throw new EntryNotActiveException("Invalid operation for [CANDIDATE]." + patientId);
+		}
+		return entityManager.getReference(Patient.class, patientId);
+	}
+
+	@Override
+	@Transactional
 	public void deletePatient(Long patientId) throws EntryNotFoundException {
 		Patient patient = patientRepository.findById(patientId).orElse(null);
 		if (patient != null && patient.getVoided() != Lookup.VOIDED) {
@@ -282,6 +372,7 @@ public class PatientServiceImpl implements PatientService {
 	}
 
 	@Override
+	@Transactional
 	public void retirePatient(Long patientId) throws EntryNotFoundException {
 		Patient patient = patientRepository.findById(patientId).orElse(null);
 		if (patient != null && patient.getRetired() != Lookup.RETIRED) {
@@ -293,4 +384,47 @@ public class PatientServiceImpl implements PatientService {
 			throw new EntryNotFoundException("Invalid operation for [CANDIDATE]." + patientId);
 		}
 	}
+
+	@Override
+	@Transactional
+	public int deletePatients(Collection<Long> patientIds, String reason) {
+		String voidedReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.VOIDED_REASON);
+		int updated = BulkStatusUpdate.inChunks(patientIds, ids -> patientRepository.voidByIds(ids, voidedReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.VOIDED));
+		log.info("Deleted " + updated + " patients");
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int retirePatients(Collection<Long> patientIds, String reason) {
+		String retiredReason = BulkStatusUpdate.reasonOr(reason, BulkStatusUpdate.RETIRED_REASON);
+		int updated = BulkStatusUpdate.inChunks(patientIds, ids -> patientRepository.retireByIds(ids, retiredReason,
+		        LocalDateTime.now(), currentAuditor(), Lookup.RETIRED));
+		log.info("Retired " + updated + " patients");
+		return updated;
+	}
+
+	private String currentAuditor() {
+		return auditorProvider.getCurrentAuditor().orElse(null);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<PatientSummary> getPatientSummaries(Long afterId, int limit) {
+		return patientRepository.findSummariesAfter(afterId, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED,
+		        PageRequest.of(0, limit));
+	}
+
+	@Override
+	public PatientSummary getActivePatientSummary(Long patientId)
+	        throws EntryNotActiveException, EntryNotFoundException {
+		PatientSummary patient = patientRepository.findSummaryById(patientId).orElse(null);
+		if (patient == null || patient.getVoided() == Lookup.VOIDED) {
+			throw new EntryNotFoundException("Invalid operation for [CANDIDATE]." + patientId);
+		} else if (patient.getRetired() == Lookup.RETIRED) {
+			throw new EntryNotActiveException("Invalid operation for [CANDIDATE]." + patientId);
+		}
+		return patient;
+	}
 }
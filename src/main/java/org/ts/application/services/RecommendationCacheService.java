@@ -0,0 +1,81 @@
+package org.ts.application.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.ts.application.engine.RecommendationCacheKey;
+import org.ts.application.engine.RecommendationCacheStatistics;
+import org.ts.application.engine.RecommendedCategory;
+import org.springframework.stereotype.Service;
+
+/**
+ * 
+ * Provides a bounded cache of recommendation results keyed by patient,
+ * evaluation date and the observation version of the patient.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Service
+public interface RecommendationCacheService {
+
+	/**
+	 * Creates a key for the current observation version of a patient. Keys
+	 * should be created before the data of the result is loaded, so that a
+	 * result is never stored under a version newer than its data.
+	 *
+	 * @param patientId      the patient to create a key for
+	 * @param evaluationDate the date recommendations are evaluated for
+	 * @param indexVersion   the version of the recommendation index in use
+	 * 
+	 * @return a key for the current state of the patient
+	 */
+	public RecommendationCacheKey createKey(Long patientId, LocalDate evaluationDate, long indexVersion);
+
+	/**
+	 * Returns a cached result.
+	 *
+	 * @param key the key of the result
+	 * 
+	 * @return the cached categories or null if there is no result for the key
+	 */
+	public List<RecommendedCategory> getIfPresent(RecommendationCacheKey key);
+
+	/**
+	 * Stores a result.
+	 *
+	 * @param key               the key created before the result was evaluated
+	 * @param regimenCategories the recommended categories
+	 * 
+	 */
+	public void put(RecommendationCacheKey key, List<RecommendedCategory> regimenCategories);
+
+	/**
+	 * Advances the observation version of a patient so that none of its cached
+	 * results are served any more. Should be called whenever an observation of
+	 * the patient is added, voided or retired.
+	 *
+	 * @param patientId the patient whose observations changed
+	 * 
+	 */
+	public void observationsChanged(Long patientId);
+
+	/**
+	 * Discards all cached results, for example after metadata changes.
+	 *
+	 * @param
+	 * 
+	 */
+	public void invalidateAll();
+
+	/**
+	 * Returns the hit, miss and eviction counts of the cache.
+	 *
+	 * @param
+	 * 
+	 * @return the current cache statistics
+	 */
+	public RecommendationCacheStatistics getStatistics();
+
+}
@@ -0,0 +1,86 @@
+package org.ts.application.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ts.application.engine.RecommendationCacheKey;
+import org.ts.application.engine.RecommendationCacheStatistics;
+import org.ts.application.engine.RecommendedCategory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+@Service
+public class RecommendationCacheServiceImpl implements RecommendationCacheService {
+
+	private final Cache<RecommendationCacheKey, List<RecommendedCategory>> results;
+
+	private final Cache<Long, Long> observationVersions;
+
+	private final AtomicLong versions = new AtomicLong();
+
+	public RecommendationCacheServiceImpl(@Value("${recommendations.cache.max-size:10000}") long maxSize,
+	        @Value("${recommendations.cache.ttl-seconds:600}") long ttlSeconds) {
+		Duration ttl = Duration.ofSeconds(ttlSeconds);
+		this.results = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+
+		// A patient whose version was evicted gets a new, never used version, so
+		// results cached under the old one can not be served
+		this.observationVersions = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(ttl).build();
+	}
+
+	@Override
+	public RecommendationCacheKey createKey(Long patientId, LocalDate evaluationDate, long indexVersion) {
+		long version = observationVersions.get(patientId, k -> versions.incrementAndGet());
+		return new RecommendationCacheKey(patientId, evaluationDate, version, indexVersion);
+	}
+
+	@Override
+	public List<RecommendedCategory> getIfPresent(RecommendationCacheKey key) {
+		return results.getIfPresent(key);
+	}
+
+	@Override
+	public void put(RecommendationCacheKey key, List<RecommendedCategory> regimenCategories) {
+		results.put(key, regimenCategories);
+	}
+
+	@Override
+	public void observationsChanged(Long patientId) {
+		advance(patientId);
+
+		// Results evaluated while the change was visible to this transaction only
+		// must not outlive it
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					advance(patientId);
+				}
+			});
+		}
+	}
+
+	private void advance(Long patientId) {
+		observationVersions.put(patientId, versions.incrementAndGet());
+	}
+
+	@Override
+	public void invalidateAll() {
+		results.invalidateAll();
+	}
+
+	@Override
+	public RecommendationCacheStatistics getStatistics() {
+		CacheStats stats = results.stats();
+		return new RecommendationCacheStatistics(results.estimatedSize(), stats.hitCount(), stats.missCount(),
+		        stats.evictionCount(), stats.hitRate());
+	}
+}
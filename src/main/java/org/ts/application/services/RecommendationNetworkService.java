@@ -0,0 +1,60 @@
+package org.ts.application.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.ts.application.engine.ObservationFact;
+import org.ts.application.engine.PatientFacts;
+import org.ts.application.engine.RecommendedCategory;
+import org.ts.application.engine.WorkingMemory;
+import org.springframework.stereotype.Service;
+
+/**
+ * 
+ * Keeps a {@link WorkingMemory} per patient and encounter date so that the
+ * recommended regimen categories of a patient are maintained incrementally as
+ * observations are added, instead of being evaluated again on every read.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Service
+public interface RecommendationNetworkService {
+
+	/**
+	 * Returns the regimen categories currently matching a patient,
+	 * creating the working memory of the patient first if needed.
+	 *
+	 * @param patientId     the patient to fetch matching categories for
+	 * @param encounterDate the encounter date whose observations are considered
+	 * @param factsLoader   loads the facts of the patient when no current
+	 *                      working memory exists
+	 * 
+	 * @return the matching categories, ordered by category ID
+	 */
+	public List<RecommendedCategory> getMatchingCategories(Long patientId, LocalDate encounterDate,
+	        Supplier<PatientFacts> factsLoader);
+
+	/**
+	 * Feeds a new observation into the working memory of a patient, if one
+	 * exists for the encounter date of the observation.
+	 *
+	 * @param patientId     the patient the observation belongs to
+	 * @param encounterDate the date of the encounter of the observation
+	 * @param fact          the observation fact to assert
+	 * 
+	 */
+	public void assertObservation(Long patientId, LocalDate encounterDate, ObservationFact fact);
+
+	/**
+	 * Discards the working memory of a patient, for example after one of its
+	 * observations was voided or retired.
+	 *
+	 * @param patientId the patient whose working memory should be discarded
+	 * 
+	 */
+	public void retractPatient(Long patientId);
+
+}
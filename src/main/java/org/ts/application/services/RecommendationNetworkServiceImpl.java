@@ -0,0 +1,165 @@
+package org.ts.application.services;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.ts.application.engine.ObservationFact;
+import org.ts.application.engine.PatientFacts;
+import org.ts.application.engine.RecommendedCategory;
+import org.ts.application.engine.RecommendationIndex;
+import org.ts.application.engine.RecommendationNetwork;
+import org.ts.application.engine.WorkingMemory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class RecommendationNetworkServiceImpl implements RecommendationNetworkService {
+
+	private static final int LOCK_STRIPES = 64;
+
+	@Autowired
+	private RegimenCategoryService regimenCategoryService;
+
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final Map<Long, Entry> memories;
+
+	private volatile RecommendationNetwork network;
+
+	public RecommendationNetworkServiceImpl(@Value("${recommendations.network.max-patients:10000}") int maxPatients) {
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+		// Least recently used memories are dropped once the limit is reached
+		this.memories = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+				return size() > maxPatients;
+			}
+		};
+	}
+
+	@Override
+	public List<RecommendedCategory> getMatchingCategories(Long patientId, LocalDate encounterDate,
+	        Supplier<PatientFacts> factsLoader) {
+		RecommendationNetwork current = getNetwork();
+		synchronized (lockOf(patientId)) {
+			Entry entry = getEntry(patientId);
+			if (entry == null || !entry.isCurrent(current, encounterDate)) {
+				// Asserts for this patient wait until the loaded memory is stored
+				entry = new Entry(encounterDate, LocalDate.now(), current.createMemory(factsLoader.get()));
+				putEntry(patientId, entry);
+			}
+			return entry.memory.getMatches();
+		}
+	}
+
+	@Override
+	public void assertObservation(Long patientId, LocalDate encounterDate, ObservationFact fact) {
+		apply(patientId, encounterDate, fact);
+
+		// Re-assert once the observation is visible to memories loaded by other
+		// transactions, and forget it if it never becomes visible
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status == STATUS_COMMITTED) {
+						apply(patientId, encounterDate, fact);
+					} else {
+						retractPatient(patientId);
+					}
+				}
+			});
+		}
+	}
+
+	@Override
+	public void retractPatient(Long patientId) {
+		synchronized (lockOf(patientId)) {
+			synchronized (memories) {
+				memories.remove(patientId);
+			}
+		}
+	}
+
+	private void apply(Long patientId, LocalDate encounterDate, ObservationFact fact) {
+		synchronized (lockOf(patientId)) {
+			Entry entry = getEntry(patientId);
+			if (entry != null && entry.encounterDate.equals(encounterDate)) {
+				entry.memory.assertObservation(fact);
+			}
+		}
+	}
+
+	/**
+	 * Returns the network of the current recommendation index, discarding all
+	 * working memories when the index has been compiled again.
+	 */
+	private RecommendationNetwork getNetwork() {
+		RecommendationIndex index = regimenCategoryService.getRecommendationIndex();
+		RecommendationNetwork current = network;
+		if (current == null || current.getVersion() != index.getVersion()) {
+			synchronized (this) {
+				current = network;
+				if (current == null || current.getVersion() != index.getVersion()) {
+					current = new RecommendationNetwork(index);
+					synchronized (memories) {
+						memories.clear();
+					}
+					network = current;
+					log.info("Built recommendation network for index version " + index.getVersion());
+				}
+			}
+		}
+		return current;
+	}
+
+	private Object lockOf(Long patientId) {
+		return locks[(int) Math.floorMod(patientId, (long) LOCK_STRIPES)];
+	}
+
+	private Entry getEntry(Long patientId) {
+		synchronized (memories) {
+			return memories.get(patientId);
+		}
+	}
+
+	private void putEntry(Long patientId, Entry entry) {
+		synchronized (memories) {
+			memories.put(patientId, entry);
+		}
+	}
+
+	private static final class Entry {
+		private final LocalDate encounterDate;
+		private final LocalDate loadedOn;
+		private final WorkingMemory memory;
+
+		private Entry(LocalDate encounterDate, LocalDate loadedOn, WorkingMemory memory) {
+			this.encounterDate = encounterDate;
+			this.loadedOn = loadedOn;
+			this.memory = memory;
+		}
+
+		/**
+		 * The age of a patient is derived from the current date, so memories
+		 * loaded on a previous day are reloaded.
+		 */
+		private boolean isCurrent(RecommendationNetwork network, LocalDate encounterDate) {
+			return memory.getVersion() == network.getVersion() && this.encounterDate.equals(encounterDate)
+			        && loadedOn.equals(LocalDate.now());
+		}
+	}
+}
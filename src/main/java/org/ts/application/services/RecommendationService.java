@@ -0,0 +1,56 @@
+package org.ts.application.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.ts.data.entities.Recommendation;
+import org.ts.data.entities.RecommendationSweep;
+import org.springframework.stereotype.Service;
+
+/**
+ * 
+ * Provides service operations for materialized {@link Recommendation}
+ * instances and the sweeps that produce them.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Service
+public interface RecommendationService {
+
+	/**
+	 * Evaluates recommendations for every active patient and stores them for the
+	 * given date. A sweep that did not complete for the same date is resumed
+	 * after the last patient it processed.
+	 *
+	 * @param evaluationDate the date to evaluate recommendations for
+	 * 
+	 * @return the sweep with its progress and throughput figures
+	 */
+	public RecommendationSweep runSweep(LocalDate evaluationDate);
+
+	/**
+	 * Fetches a page of materialized {@link Recommendation} instances for a date
+	 * with an ID greater than a given ID.
+	 *
+	 * @param evaluationDate the date to be used in the search criteria
+	 * @param afterId        the exclusive lower bound of the IDs to be returned
+	 * @param limit          the maximum number of recommendations to be returned
+	 * 
+	 * @return list of recommendations ordered by ID
+	 */
+	public List<Recommendation> getRecommendations(LocalDate evaluationDate, Long afterId, int limit);
+
+	/**
+	 * Fetches all materialized {@link Recommendation} instances for a patient on
+	 * a date.
+	 *
+	 * @param patientId      the patient to be used in the search criteria
+	 * @param evaluationDate the date to be used in the search criteria
+	 * 
+	 * @return list of recommendations for the patient
+	 */
+	public List<Recommendation> getRecommendations(Long patientId, LocalDate evaluationDate);
+
+}
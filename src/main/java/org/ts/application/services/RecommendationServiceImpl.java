@@ -0,0 +1,202 @@
+package org.ts.application.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.ts.application.engine.PatientRecommendation;
+import org.ts.application.engine.RecommendedCategory;
+import org.ts.application.exceptions.InconsistentDataException;
+import org.ts.data.entities.Recommendation;
+import org.ts.data.entities.RecommendationSweep;
+import org.ts.data.repositories.RecommendationRepository;
+import org.ts.data.repositories.RecommendationSweepRepository;
+import org.ts.utils.Lookup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+	private static final String ACTIVE_PATIENTS = "SELECT id FROM patient WHERE voided = ? AND retired = ? AND id > ? ORDER BY id";
+
+	@Autowired
+	private RecommendationRepository recommendationRepository;
+
+	@Autowired
+	private RecommendationSweepRepository sweepRepository;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${recommendations.sweep.enabled:true}")
+	private boolean sweepEnabled;
+
+	@Value("${recommendations.sweep.chunk-size:1000}")
+	private int chunkSize;
+
+	@Value("${recommendations.sweep.fetch-size:1000}")
+	private int fetchSize;
+
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+
+	/**
+	 * Runs the nightly sweep for the current date.
+	 */
+	@Scheduled(cron = "${recommendations.sweep.cron:0 30 23 * * *}")
+	public void scheduledSweep() {
+		if (sweepEnabled) {
+			runSweep(LocalDate.now());
+		}
+	}
+
+	@Override
+	public RecommendationSweep runSweep(LocalDate evaluationDate) {
+		if (!sweeping.compareAndSet(false, true)) {
+			throw new InconsistentDataException("A recommendation sweep is already running");
+		}
+		try {
+			RecommendationSweep sweep = sweepRepository.findFirstByEvaluationDateOrderByIdDesc(evaluationDate)
+			        .filter(s -> s.getStatus() != Lookup.SWEEP_COMPLETED).orElse(new RecommendationSweep(evaluationDate));
+			sweep.setStatus(Lookup.SWEEP_RUNNING);
+			sweep = sweepRepository.save(sweep);
+			log.info("Starting recommendation sweep " + sweep.getId() + " for " + evaluationDate + " after patient "
+			        + sweep.getLastPatientId());
+
+			long started = System.nanoTime();
+			long previousDuration = sweep.getDurationMillis();
+			try {
+				sweep = sweep(sweep, started, previousDuration);
+				sweep.setStatus(Lookup.SWEEP_COMPLETED);
+			} catch (RuntimeException e) {
+				sweep.setStatus(Lookup.SWEEP_FAILED);
+				log.error("Recommendation sweep " + sweep.getId() + " failed after patient " + sweep.getLastPatientId(),
+				        e);
+				throw e;
+			} finally {
+				updateThroughput(sweep, started, previousDuration);
+				sweep.setFinishedDate(LocalDateTime.now());
+				sweep = sweepRepository.save(sweep);
+				log.info("Recommendation sweep " + sweep.getId() + " evaluated " + sweep.getPatientsEvaluated()
+				        + " patients in " + sweep.getDurationMillis() + " ms (" + sweep.getPatientsPerSecond()
+				        + " patients/s), " + sweep.getPatientsFailed() + " patients failed");
+			}
+			return sweep;
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+	/**
+	 * Streams active patient IDs through a read only cursor and processes them
+	 * in chunks, each committed in its own transaction with the sweep checkpoint.
+	 */
+	private RecommendationSweep sweep(RecommendationSweep sweep, long started, long previousDuration) {
+		JdbcTemplate cursor = new JdbcTemplate(dataSource);
+		cursor.setFetchSize(fetchSize);
+
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+		chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		RecommendationSweep[] current = { sweep };
+		List<Long> chunk = new ArrayList<>(chunkSize);
+		readOnly.execute(status -> {
+			// Postgres only honours the fetch size inside a transaction
+			cursor.query(ACTIVE_PATIENTS, rs -> {
+				chunk.add(rs.getLong(1));
+				if (chunk.size() == chunkSize) {
+					current[0] = chunkTransaction.execute(s -> processChunk(current[0], chunk, started, previousDuration));
+					chunk.clear();
+				}
+			}, Lookup.NOT_VOIDED, Lookup.NOT_RETIRED, sweep.getLastPatientId());
+			return null;
+		});
+		if (!chunk.isEmpty()) {
+			current[0] = chunkTransaction.execute(s -> processChunk(current[0], chunk, started, previousDuration));
+		}
+		return current[0];
+	}
+
+	private RecommendationSweep processChunk(RecommendationSweep sweep, List<Long> patientIds, long started,
+	        long previousDuration) {
+		LocalDate evaluationDate = sweep.getEvaluationDate();
+		Queue<PatientRecommendation> results = new ConcurrentLinkedQueue<>();
+		patientService.getRecommendedRegimenCategories(patientIds, evaluationDate.atStartOfDay(), results::add);
+
+		// Replace rows left behind by an interrupted run of the same chunk
+		recommendationRepository.deleteByPatientsAndEvaluationDate(patientIds, evaluationDate);
+
+		LocalDateTime now = LocalDateTime.now();
+		List<Recommendation> recommendations = new ArrayList<>();
+		long evaluated = 0;
+		long failed = 0;
+		for (PatientRecommendation result : results) {
+			if (result.getError() != null) {
+				failed++;
+				continue;
+			}
+			evaluated++;
+			for (RecommendedCategory category : result.getRegimenCategories()) {
+				Recommendation recommendation = new Recommendation(result.getPatientId(), evaluationDate,
+				        category.getId(), category.getName());
+				recommendation.setSweepId(sweep.getId());
+				recommendation.setCreatedDate(now);
+				recommendations.add(recommendation);
+			}
+		}
+		recommendationRepository.saveAll(recommendations);
+
+		sweep.setLastPatientId(patientIds.get(patientIds.size() - 1));
+		sweep.setPatientsEvaluated(sweep.getPatientsEvaluated() + evaluated);
+		sweep.setPatientsFailed(sweep.getPatientsFailed() + failed);
+		sweep.setRecommendationsWritten(sweep.getRecommendationsWritten() + recommendations.size());
+		updateThroughput(sweep, started, previousDuration);
+		return sweepRepository.save(sweep);
+	}
+
+	private void updateThroughput(RecommendationSweep sweep, long started, long previousDuration) {
+		sweep.setDurationMillis(previousDuration + Duration.ofNanos(System.nanoTime() - started).toMillis());
+		if (sweep.getDurationMillis() > 0) {
+			sweep.setPatientsPerSecond(sweep.getPatientsEvaluated() * 1000.0 / sweep.getDurationMillis());
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Recommendation> getRecommendations(LocalDate evaluationDate, Long afterId, int limit) {
+		return recommendationRepository.findAfter(evaluationDate, afterId, PageRequest.of(0, limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Recommendation> getRecommendations(Long patientId, LocalDate evaluationDate) {
+		return recommendationRepository.findAllByPatientIdAndEvaluationDateOrderByRegimenCategoryId(patientId,
+		        evaluationDate);
+	}
+}
@@ -1,7 +1,9 @@
 package org.ts.application.services;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.ts.application.engine.RecommendationIndex;
 import org.ts.data.entities.RegimenCategory;
 import org.springframework.stereotype.Service;
 
@@ -25,4 +27,33 @@ public interface RegimenCategoryService {
 	 */
 	public List<RegimenCategory> getRegimenCategories();
 
+	/**
+	 * Fetches the {@link RegimenCategory} instances that match the given IDs.
+	 *
+	 * @param regimenCategoryIds the identifiers to be used in the search criteria
+	 * 
+	 * @return list of regimenCategory instances ordered by ID
+	 */
+	public List<RegimenCategory> getRegimenCategories(Collection<Long> regimenCategoryIds);
+
+	/**
+	 * Returns the {@link RecommendationIndex} compiled from all active
+	 * {@link RegimenCategory} instances, compiling it first if needed.
+	 *
+	 * @param
+	 * 
+	 * @return the current recommendation index
+	 */
+	public RecommendationIndex getRecommendationIndex();
+
+	/**
+	 * Discards the current {@link RecommendationIndex} so that it is compiled
+	 * again from the database on next use. Should be called whenever regimen
+	 * metadata changes.
+	 *
+	 * @param
+	 * 
+	 */
+	public void invalidateRecommendationIndex();
+
 }
@@ -1,14 +1,16 @@
 package org.ts.application.services;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.ts.application.engine.RecommendationIndex;
 import org.ts.data.entities.RegimenCategory;
 import org.ts.data.repositories.RegimenCategoryRepository;
 import org.ts.utils.Lookup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,14 +22,50 @@ public class RegimenCategoryServiceImpl implements RegimenCategoryService {
 	@Autowired
 	private RegimenCategoryRepository regimenCategoryRepository;
 
+	@Autowired
+	private RecommendationCacheService recommendationCacheService;
+
+	private volatile RecommendationIndex recommendationIndex;
+
 	@Override
+	@Transactional(readOnly = true)
 	public List<RegimenCategory> getRegimenCategories() {
 		log.debug("Getting all regimen categories");
-		List<RegimenCategory> regimenCategorys = regimenCategoryRepository.findAll().stream()
-		        .filter(p -> p.getVoided() != Lookup.VOIDED && p.getRetired() != Lookup.RETIRED)
-		        .collect(Collectors.toList());
-		regimenCategorys.sort(Comparator.comparing(RegimenCategory::getId));
-		return regimenCategorys;
+		return regimenCategoryRepository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<RegimenCategory> getRegimenCategories(Collection<Long> regimenCategoryIds) {
+		if (regimenCategoryIds.isEmpty()) {
+			return new ArrayList<RegimenCategory>();
+		}
+		return regimenCategoryRepository.findDistinctByIdInOrderById(regimenCategoryIds);
+	}
+
+	@Override
+	public RecommendationIndex getRecommendationIndex() {
+		RecommendationIndex index = recommendationIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = recommendationIndex;
+				if (index == null) {
+					index = RecommendationIndex.compile(regimenCategoryRepository
+					        .findWithConditionsByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED));
+					log.info("Compiled recommendation index version " + index.getVersion() + " with "
+					        + index.getCategories().size() + " categories and " + index.getConditions().size()
+					        + " distinct conditions");
+					recommendationIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	@Override
+	public synchronized void invalidateRecommendationIndex() {
+		recommendationIndex = null;
+		recommendationCacheService.invalidateAll();
 	}
 
 }
@@ -0,0 +1,65 @@
+package org.ts.data;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.ts.utils.Lookup;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ *
+ * Configures the Hibernate second-level cache for the clinical metadata
+ * entities and their collections. The {@link Lookup#METADATA_CACHE_REGION}
+ * region is held in process by a JCache manager backed by Caffeine, bounded by
+ * <code>metadata.cache.max-size</code> entries that expire
+ * <code>metadata.cache.ttl-seconds</code> after being written.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Configuration
+public class MetadataCacheConfiguration {
+
+	@Bean(destroyMethod = "close")
+	public CacheManager metadataCacheManager(@Value("${metadata.cache.max-size:10000}") long maxSize,
+	        @Value("${metadata.cache.ttl-seconds:3600}") long ttlSeconds) {
+		// Each application context gets its own manager, so that contexts sharing
+		// a JVM in tests do not share or close each other's caches
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+		        .getCacheManager(URI.create("metadata-" + UUID.randomUUID()), getClass().getClassLoader());
+
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(maxSize));
+		configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+		configuration.setStatisticsEnabled(true);
+		cacheManager.createCache(Lookup.METADATA_CACHE_REGION, configuration);
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer metadataCacheCustomizer(CacheManager metadataCacheManager) {
+		return (Map<String, Object> properties) -> {
+			properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			properties.put("hibernate.javax.cache.cache_manager", metadataCacheManager);
+
+			// Statistics back the cache counters; per session metrics are not logged
+			properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+			properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+		};
+	}
+}
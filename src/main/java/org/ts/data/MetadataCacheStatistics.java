@@ -0,0 +1,44 @@
+package org.ts.data;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Snapshot of the hit, miss and put counts of the second-level cache region
+ * holding the clinical metadata entities.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class MetadataCacheStatistics {
+
+	private final String region;
+	private final long size;
+	private final long hitCount;
+	private final long missCount;
+	private final long putCount;
+	private final double hitRate;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param region    the name of the cache region
+	 * @param size      the number of entries held in memory
+	 * @param hitCount  the number of lookups that found an entry
+	 * @param missCount the number of lookups that found no entry
+	 * @param putCount  the number of entries put in the region
+	 *
+	 */
+	public MetadataCacheStatistics(String region, long size, long hitCount, long missCount, long putCount) {
+		this.region = region;
+		this.size = size;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.putCount = putCount;
+		this.hitRate = hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount);
+	}
+}
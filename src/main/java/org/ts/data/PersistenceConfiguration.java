@@ -0,0 +1,55 @@
+package org.ts.data;
+
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.ts.data.entities.PooledSequenceGenerator;
+
+/**
+ *
+ * Configures how Hibernate writes to the database. Inserts and updates are
+ * sent in JDBC batches of <code>persistence.jdbc.batch-size</code> statements,
+ * ordered by entity so that rows of the same table share a batch. Identifiers
+ * are reserved from the entity sequences in blocks of
+ * <code>persistence.id.allocation-size</code>.
+ * <p>
+ * The JDBC driver reports partitioned tables, such as <code>observation</code>,
+ * as a table type of their own. The schema update is told about it so that it
+ * does not try to create those tables again.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Configuration
+public class PersistenceConfiguration {
+
+	@Bean
+	public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+	        @Value("${persistence.jdbc.batch-size:50}") int batchSize) {
+		return (Map<String, Object> properties) -> {
+			properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+			properties.put(AvailableSettings.ORDER_INSERTS, true);
+			properties.put(AvailableSettings.ORDER_UPDATES, true);
+			properties.put(AvailableSettings.BATCH_VERSIONED_DATA, true);
+		};
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer idAllocationCustomizer(
+	        @Value("${persistence.id.allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE
+	                + "}") int allocationSize) {
+		return (Map<String, Object> properties) -> properties.put(PooledSequenceGenerator.ALLOCATION_SIZE,
+		        allocationSize);
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer partitionedTableCustomizer() {
+		return (Map<String, Object> properties) -> properties.put(AvailableSettings.EXTRA_PHYSICAL_TABLE_TYPES,
+		        "PARTITIONED TABLE");
+	}
+}
@@ -0,0 +1,132 @@
+package org.ts.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ *
+ * Checks the read replicas on a fixed delay and keeps the list of those that
+ * may serve reads. A replica is healthy when it answers within the check
+ * timeout and has replayed the changes of the primary to within
+ * <code>maxLagSeconds</code>. A replica that has replayed everything it
+ * received, or is not in recovery at all, has no lag.
+ * <p>
+ * Reads are spread over the healthy replicas in turn. When none is healthy,
+ * {@link #nextHealthy()} returns <code>null</code> and reads fall back to the
+ * primary.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Slf4j
+public class ReplicaHealthMonitor implements Closeable {
+
+	static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+	        + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+	        + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+	private final Map<String, DataSource> replicas;
+	private final double maxLagSeconds;
+	private final int timeoutSeconds;
+
+	private final AtomicInteger next = new AtomicInteger();
+	private volatile List<String> healthy = Collections.emptyList();
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param replicas       the replica data sources, by name
+	 * @param maxLagSeconds  the lag above which a replica stops serving reads
+	 * @param timeoutSeconds the timeout of each health check
+	 *
+	 */
+	public ReplicaHealthMonitor(Map<String, DataSource> replicas, double maxLagSeconds, int timeoutSeconds) {
+		this.replicas = Collections.unmodifiableMap(replicas);
+		this.maxLagSeconds = maxLagSeconds;
+		this.timeoutSeconds = timeoutSeconds;
+	}
+
+	/**
+	 * Checks every replica and replaces the list of healthy replicas.
+	 */
+	@Scheduled(fixedDelayString = "${persistence.replicas.check-interval-ms:5000}")
+	public void check() {
+		List<String> checked = new ArrayList<>();
+		for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+			Double lag = lagOf(replica.getValue());
+			boolean wasHealthy = healthy.contains(replica.getKey());
+			if (lag != null && lag <= maxLagSeconds) {
+				checked.add(replica.getKey());
+				if (!wasHealthy) {
+					log.info("Replica " + replica.getKey() + " is serving reads with a lag of " + lag + "s");
+				}
+			} else if (wasHealthy) {
+				log.warn("Replica " + replica.getKey() + " stopped serving reads, lag: "
+				        + (lag == null ? "unknown" : lag + "s"));
+			}
+		}
+		healthy = Collections.unmodifiableList(checked);
+	}
+
+	/**
+	 * Returns the replication lag of a replica in seconds.
+	 *
+	 * @param replica the replica to be checked
+	 *
+	 * @return the lag, or <code>null</code> if the replica could not be checked
+	 */
+	Double lagOf(DataSource replica) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+		jdbcTemplate.setQueryTimeout(timeoutSeconds);
+		try {
+			return jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+		} catch (DataAccessException e) {
+			log.debug("Unable to check replica", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the name of the healthy replica that is next in turn.
+	 *
+	 * @return a replica name, or <code>null</code> if no replica is healthy
+	 */
+	public String nextHealthy() {
+		List<String> current = healthy;
+		if (current.isEmpty()) {
+			return null;
+		}
+		return current.get(Math.floorMod(next.getAndIncrement(), current.size()));
+	}
+
+	public List<String> getHealthyReplicas() {
+		return healthy;
+	}
+
+	public Map<String, DataSource> getReplicas() {
+		return replicas;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (DataSource replica : replicas.values()) {
+			if (replica instanceof Closeable) {
+				((Closeable) replica).close();
+			}
+		}
+	}
+}
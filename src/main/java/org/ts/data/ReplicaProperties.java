@@ -0,0 +1,53 @@
+package org.ts.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ *
+ * Settings of the read replicas, bound from <code>persistence.replicas</code>.
+ * Replicas without credentials of their own use those of the primary
+ * <code>spring.datasource</code>.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@Setter
+@ToString
+public class ReplicaProperties {
+
+	private boolean enabled;
+
+	private List<Replica> datasources = new ArrayList<>();
+
+	/**
+	 * Replication lag in seconds above which a replica stops serving reads.
+	 */
+	private double maxLagSeconds = 30;
+
+	/**
+	 * Timeout in seconds of each health check and of acquiring a replica
+	 * connection.
+	 */
+	private int checkTimeoutSeconds = 2;
+
+	@Getter
+	@Setter
+	@ToString(exclude = "password")
+	public static class Replica {
+
+		private String name;
+
+		private String url;
+
+		private String username;
+
+		private String password;
+	}
+}
@@ -0,0 +1,91 @@
+package org.ts.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ *
+ * Routes read-only transactions to the read replicas listed under
+ * <code>persistence.replicas.datasources</code>, when
+ * <code>persistence.replicas.enabled</code> is set. Writes, and reads outside
+ * a read-only transaction, stay on the primary <code>spring.datasource</code>.
+ * <p>
+ * Hibernate releases its connection at the end of each transaction, so that a
+ * session kept open for a whole request picks a data source per transaction.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "persistence.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+	@Bean
+	@ConfigurationProperties("persistence.replicas")
+	public ReplicaProperties replicaProperties() {
+		return new ReplicaProperties();
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+		return dataSource;
+	}
+
+	@Bean(destroyMethod = "close")
+	public ReplicaHealthMonitor replicaHealthMonitor(ReplicaProperties replicaProperties,
+	        DataSourceProperties properties) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (ReplicaProperties.Replica replica : replicaProperties.getDatasources()) {
+			HikariDataSource dataSource = new HikariDataSource();
+			dataSource.setPoolName(replica.getName());
+			dataSource.setJdbcUrl(replica.getUrl());
+			dataSource.setUsername(
+			        replica.getUsername() == null ? properties.determineUsername() : replica.getUsername());
+			dataSource.setPassword(
+			        replica.getPassword() == null ? properties.determinePassword() : replica.getPassword());
+			dataSource.setReadOnly(true);
+			// A replica that is down at startup is only left out until it recovers
+			dataSource.setInitializationFailTimeout(-1);
+			dataSource.setConnectionTimeout(replicaProperties.getCheckTimeoutSeconds() * 1000L);
+			replicas.put(replica.getName(), dataSource);
+		}
+
+		ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, replicaProperties.getMaxLagSeconds(),
+		        replicaProperties.getCheckTimeoutSeconds());
+		monitor.check();
+		return monitor;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaHealthMonitor replicaHealthMonitor) {
+		// The target is chosen on the first statement, once the transaction is
+		// known to be read-only
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaHealthMonitor));
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer replicaRoutingCustomizer() {
+		return (Map<String, Object> properties) -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+		        PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+}
@@ -0,0 +1,63 @@
+package org.ts.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ *
+ * Sends the connections of read-only transactions to a healthy read replica
+ * and every other connection to the primary.
+ * <p>
+ * The transaction is only known to be read-only once it has begun, so this
+ * data source is wrapped in a lazy connection proxy that defers choosing the
+ * target until the first statement.
+ * <p>
+ * Replicas may lag behind the primary. Reads whose results are kept beyond the
+ * request, such as the observation snapshots that feed the recommendation
+ * network and cache, run in read-write transactions so that they see the
+ * writes committed before them.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+
+	private final ReplicaHealthMonitor monitor;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param primary the data source that serves writes
+	 * @param monitor the monitor of the replicas that serve reads
+	 *
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, ReplicaHealthMonitor monitor) {
+		this.monitor = monitor;
+
+		Map<Object, Object> targets = new HashMap<>(monitor.getReplicas());
+		targets.put(PRIMARY, primary);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (TransactionSynchronizationManager.isActualTransactionActive()
+		        && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			String replica = monitor.nextHealthy();
+			if (replica != null) {
+				return replica;
+			}
+		}
+		return PRIMARY;
+	}
+}
@@ -0,0 +1,55 @@
+package org.ts.data;
+
+import java.util.Collections;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.ts.data.entities.PooledSequenceGenerator;
+
+/**
+ *
+ * Applies the versioned SQL scripts in <code>db/migration</code> at startup.
+ * <p>
+ * Tables are still created by Hibernate, so the scripts are applied once the
+ * entity manager factory has updated the schema rather than before it, as
+ * Spring Boot would by default. Databases created before the scripts existed
+ * are baselined at version 0 so that every script is applied to them.
+ * <p>
+ * The <code>idAllocationSize</code> placeholder holds the block size of the
+ * entity sequences, which <code>afterMigrate.sql</code> keeps the sequences
+ * incremented by.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Configuration
+public class SchemaMigrationConfiguration {
+
+	@Bean
+	public FlywayConfigurationCustomizer baselineCustomizer(
+	        @Value("${persistence.id.allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE
+	                + "}") int allocationSize) {
+		return configuration -> configuration.baselineOnMigrate(true).baselineVersion("0")
+		        .placeholders(Collections.singletonMap("idAllocationSize", String.valueOf(allocationSize)));
+	}
+
+	@Bean
+	public FlywayMigrationStrategy deferredMigrationStrategy() {
+		return flyway -> {
+			// Applied by schemaMigration once the entity schema is in place
+		};
+	}
+
+	@Bean
+	@DependsOn("entityManagerFactory")
+	public InitializingBean schemaMigration(Flyway flyway) {
+		return flyway::migrate;
+	}
+}
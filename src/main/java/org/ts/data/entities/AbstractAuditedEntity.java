@@ -14,12 +14,16 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import lombok.Getter;
 import lombok.Setter;
 
 /**
  * 
- * Abstract class that defines audit fields for database tables.
+ * Abstract class that defines audit fields for database tables. The handler
+ * fields of Hibernate proxies, which stand in for references that have not
+ * been loaded, are not serialized.
  * 
  * @author Yamiko J. Msosa
  * @version 1.0
@@ -29,9 +33,10 @@ import lombok.Setter;
 @Setter
 @MappedSuperclass
 @EntityListeners(AuditingEntityListener.class)
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public abstract class AbstractAuditedEntity {
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = PooledSequenceGenerator.NAME)
 	private Long id = -1L;
 
 	@CreatedDate
@@ -3,6 +3,7 @@ package org.ts.data.entities;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -10,6 +11,11 @@ import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.validation.constraints.NotBlank;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.ts.utils.Lookup;
+
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -28,6 +34,9 @@ import lombok.ToString;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+@BatchSize(size = 50)
 @Getter
 @Setter
 @ToString
@@ -51,6 +60,8 @@ public class Action extends AbstractRetirableEntity {
 	@ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	private Frequency frequency;
 
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+	@BatchSize(size = 50)
 	@ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE }, mappedBy = "condition")
 	private Set<RegimenCategory> regimenCategory = new HashSet<>();
 	
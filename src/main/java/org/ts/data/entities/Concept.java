@@ -4,12 +4,18 @@ package org.ts.data.entities;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.ManyToMany;
 import javax.validation.constraints.NotBlank;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.ts.utils.Lookup;
+
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -26,6 +32,9 @@ import lombok.EqualsAndHashCode;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+@BatchSize(size = 50)
 @Data
 @EqualsAndHashCode(callSuper=false)
 @NoArgsConstructor
@@ -36,6 +45,8 @@ public class Concept extends AbstractRetirableEntity {
 	private String source;
 	private String cui;
 	
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+	@BatchSize(size = 50)
 	@ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE }, mappedBy = "concept")
 	private Set<VocabularySet> vocabularySet = new HashSet<>();
 
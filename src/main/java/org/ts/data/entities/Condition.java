@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -11,6 +12,11 @@ import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.validation.constraints.NotBlank;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.ts.utils.Lookup;
+
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -29,6 +35,9 @@ import lombok.ToString;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+@BatchSize(size = 50)
 @Getter
 @Setter
 @ToString
@@ -55,6 +64,8 @@ public class Condition extends AbstractRetirableEntity {
 	private String stringValue;
 	private LocalDateTime dateTimeValue;
 	
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+	@BatchSize(size = 50)
 	@ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE }, mappedBy = "condition")
 	private Set<RegimenCategory> regimenCategory = new HashSet<>();
 	
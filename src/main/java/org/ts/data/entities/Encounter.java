@@ -25,6 +25,7 @@ import lombok.ToString;
 /**
  * 
  * Defines structure and relationship(s) for the <code>encounter</code> table.
+ * Indexes are created by the versioned scripts in <code>db/migration</code>.
  * 
  * @author Yamiko J. Msosa
  * @version 1.0
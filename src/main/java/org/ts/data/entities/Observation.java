@@ -22,6 +22,8 @@ import lombok.ToString;
 /**
  * 
  * Defines structure and relationship(s) for the <code>observation</code> table.
+ * Indexes are created by the versioned scripts in <code>db/migration</code>,
+ * which also partition the table by month of the observation date.
  * 
  * @author Yamiko J. Msosa
  * @version 1.0
@@ -0,0 +1,41 @@
+package org.ts.data.entities;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * 
+ * Generates identifiers from one sequence per entity, named after its table
+ * with a <code>_seq</code> suffix. Each call to the sequence reserves a block
+ * of {@link #ALLOCATION_SIZE} identifiers that are handed out in memory, so
+ * the database sequence must be incremented by the same amount.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String NAME = "pooled_sequence";
+	public static final String ALLOCATION_SIZE = "org.ts.id.allocation_size";
+	public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		int allocationSize = serviceRegistry.getService(ConfigurationService.class).getSetting(ALLOCATION_SIZE,
+		        StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+
+		params.setProperty(CONFIG_PREFER_SEQUENCE_PER_ENTITY, "true");
+		params.setProperty(CONFIG_SEQUENCE_PER_ENTITY_SUFFIX, "_seq");
+		params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+		params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+		super.configure(type, params, serviceRegistry);
+	}
+}
@@ -0,0 +1,71 @@
+package org.ts.data.entities;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.validation.constraints.NotNull;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * Defines structure for the <code>recommendation</code> table, which holds
+ * regimen categories recommended for a patient on a given date as
+ * materialized by a recommendation sweep.
+ * <p>
+ * Rows are written by background jobs only, so this table is not audited.
+ * Indexes are created by the versioned scripts in <code>db/migration</code>.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "patient_id", "evaluation_date",
+        "regimen_category_id" }))
+public class Recommendation {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = PooledSequenceGenerator.NAME)
+	private Long id;
+
+	@NotNull
+	@Column(name = "patient_id")
+	private Long patientId;
+
+	@NotNull
+	@Column(name = "evaluation_date")
+	private LocalDate evaluationDate;
+
+	@NotNull
+	@Column(name = "regimen_category_id")
+	private Long regimenCategoryId;
+
+	private String regimenCategoryName;
+
+	private Long sweepId;
+
+	private LocalDateTime createdDate;
+
+	public Recommendation(Long patientId, LocalDate evaluationDate, Long regimenCategoryId,
+	        String regimenCategoryName) {
+		this.patientId = patientId;
+		this.evaluationDate = evaluationDate;
+		this.regimenCategoryId = regimenCategoryId;
+		this.regimenCategoryName = regimenCategoryName;
+	}
+}
@@ -0,0 +1,66 @@
+package org.ts.data.entities;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.validation.constraints.NotNull;
+
+import org.ts.utils.Lookup;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 
+ * Defines structure for the <code>recommendation_sweep</code> table, which
+ * records progress and throughput of population wide recommendation sweeps.
+ * The last processed patient ID allows an interrupted sweep to be resumed.
+ * Patients whose evaluation failed are counted but get no recommendations.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class RecommendationSweep {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = PooledSequenceGenerator.NAME)
+	private Long id;
+
+	@NotNull
+	private LocalDate evaluationDate;
+
+	private int status = Lookup.SWEEP_RUNNING;
+
+	private Long lastPatientId = 0L;
+
+	private long patientsEvaluated;
+
+	private long patientsFailed;
+
+	private long recommendationsWritten;
+
+	private LocalDateTime startedDate;
+
+	private LocalDateTime finishedDate;
+
+	private long durationMillis;
+
+	private double patientsPerSecond;
+
+	public RecommendationSweep(LocalDate evaluationDate) {
+		this.evaluationDate = evaluationDate;
+		this.startedDate = LocalDateTime.now();
+	}
+}
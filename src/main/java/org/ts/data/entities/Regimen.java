@@ -1,9 +1,15 @@
 package org.ts.data.entities;
 
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.validation.constraints.NotBlank;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.ts.utils.Lookup;
+
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -20,6 +26,9 @@ import lombok.EqualsAndHashCode;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+@BatchSize(size = 50)
 @Data
 @EqualsAndHashCode(callSuper=false)
 @NoArgsConstructor
@@ -4,6 +4,7 @@ package org.ts.data.entities;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -11,8 +12,16 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.validation.constraints.NotBlank;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.ts.utils.Lookup;
+
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -23,27 +32,51 @@ import lombok.EqualsAndHashCode;
 /**
  * 
  * Defines structure and relationship(s) for the <code>regimen_category</code> table.
+ * <p>
+ * The <code>RegimenCategory.recommendation</code> entity graph loads a category
+ * with everything a recommendation response serializes: its regimen, its
+ * conditions and their concepts, and its actions with their concepts and
+ * frequencies.
  * 
  * @author Yamiko J. Msosa
  * @version 1.0
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+@NamedEntityGraph(name = RegimenCategory.RECOMMENDATION_GRAPH, attributeNodes = { @NamedAttributeNode("regimen"),
+        @NamedAttributeNode(value = "condition", subgraph = "condition"),
+        @NamedAttributeNode(value = "action", subgraph = "action") }, subgraphs = {
+                @NamedSubgraph(name = "condition", attributeNodes = { @NamedAttributeNode("concept"),
+                        @NamedAttributeNode("conceptValue") }),
+                @NamedSubgraph(name = "action", attributeNodes = { @NamedAttributeNode("concept"),
+                        @NamedAttributeNode("conceptValue"),
+                        @NamedAttributeNode(value = "frequency", subgraph = "frequency") }),
+                @NamedSubgraph(name = "frequency", attributeNodes = @NamedAttributeNode("concept")) })
+@BatchSize(size = 50)
 @Data
 @EqualsAndHashCode(callSuper=false)
 @NoArgsConstructor
 @JsonIdentityInfo(generator = ObjectIdGenerators.UUIDGenerator.class, property = "@id")
 public class RegimenCategory extends AbstractRetirableEntity {
+
+	public static final String RECOMMENDATION_GRAPH = "RegimenCategory.recommendation";
+
 	@NotBlank(message = "Regimen category name should not be blank")
 	private String name;
 	
 	@ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	private Regimen regimen;
 	
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+	@BatchSize(size = 50)
 	@ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	@JoinTable(name = "regimen_category_condition", joinColumns = @JoinColumn(name = "regimen_category_id"), inverseJoinColumns = @JoinColumn(name = "condition_id"))
 	private Set<Condition> condition = new HashSet<>();
 
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lookup.METADATA_CACHE_REGION)
+	@BatchSize(size = 50)
 	@ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
 	@JoinTable(name = "regimen_category_action", joinColumns = @JoinColumn(name = "regimen_category_id"), inverseJoinColumns = @JoinColumn(name = "action_id"))
 	private Set<Action> action = new HashSet<>();
@@ -0,0 +1,13 @@
+/**
+ * 
+ * Entities of the treatment database. Their identifiers are generated by
+ * {@link org.ts.data.entities.PooledSequenceGenerator}.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = "org.ts.data.entities.PooledSequenceGenerator")
+package org.ts.data.entities;
+
+import org.hibernate.annotations.GenericGenerator;
@@ -1,5 +1,6 @@
 package org.ts.data.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -69,14 +70,14 @@ public interface ApplicationUserRepository extends CrudRepository<ApplicationUse
 
 	/**
 	 * Returns all {@link ApplicationUser}s that match a given set of retired and
-	 * voided flags;
+	 * voided flags, ordered by ID;
 	 *
 	 * @param voidedFlag  void value to search for in the database
 	 * @param retiredFlag retired value to search for in the database
 	 * 
 	 * @return a list of application user instances that match the search criteria
 	 */
-	@Query("SELECT a FROM ApplicationUser a WHERE a.voided = :voidedFlag AND a.retired = :retiredFlag")
+	@Query("SELECT a FROM ApplicationUser a WHERE a.voided = :voidedFlag AND a.retired = :retiredFlag ORDER BY a.id")
 	List<ApplicationUser> findByActiveFlags(@Param("voidedFlag") Integer voidedFlag,
 	        @Param("retiredFlag") Integer retiredFlag);
 
@@ -95,4 +96,30 @@ public interface ApplicationUserRepository extends CrudRepository<ApplicationUse
 	List<ApplicationUser> findByUsernameAndActiveFlags(@Param("username") String username,
 	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
 
+	/**
+	 * Returns a page of {@link ApplicationUser} instances with an ID greater than a
+	 * given ID that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of instances to be returned
+	 * 
+	 * @return list of application user instances that match the search criteria
+	 */
+	@Query("SELECT a FROM ApplicationUser a WHERE a.id > :afterId AND a.voided = :voidedFlag AND a.retired = :retiredFlag "
+	        + "ORDER BY a.id")
+	List<ApplicationUser> findByActiveFlagsAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns the voided and retired flags of a {@link ApplicationUser} given its ID.
+	 *
+	 * @param id the identifier to be used in the search criteria
+	 * 
+	 * @return the optional flags of the application user
+	 */
+	@Query("SELECT a.voided AS voided, a.retired AS retired FROM ApplicationUser a WHERE a.id = :id")
+	Optional<EntryStatus> findStatusById(@Param("id") Long id);
+
 }
@@ -1,6 +1,9 @@
 package org.ts.data.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -53,4 +56,62 @@ public interface ConceptRepository extends CrudRepository<Concept, Long> {
 	 */
 	List<Concept> findAll();
 
+	/**
+	 * Returns all {@link Concept} instances that match a given set of retired
+	 * and voided flags, ordered by ID.
+	 *
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of concept instances that match the search criteria
+	 */
+	@Query("SELECT c FROM Concept c WHERE c.voided = :voidedFlag AND c.retired = :retiredFlag ORDER BY c.id")
+	List<Concept> findByActiveFlags(@Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns all {@link Concept} instances with a given name that match a given
+	 * set of retired and voided flags, ordered by ID.
+	 *
+	 * @param name        the name to be used in the search criteria
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of concept instances that match the search criteria
+	 */
+	@Query("SELECT c FROM Concept c WHERE c.name = :name AND c.voided = :voidedFlag AND c.retired = :retiredFlag ORDER BY c.id")
+	List<Concept> findByNameAndActiveFlags(@Param("name") String name, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of {@link Concept} instances with an ID greater than a
+	 * given ID that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of instances to be returned
+	 * 
+	 * @return list of concept instances that match the search criteria
+	 */
+	@Query("SELECT c FROM Concept c WHERE c.id > :afterId AND c.voided = :voidedFlag AND c.retired = :retiredFlag "
+	        + "ORDER BY c.id")
+	List<Concept> findByActiveFlagsAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns a page of concept summaries with an ID greater than a given ID
+	 * that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of summaries to be returned
+	 * 
+	 * @return list of concept summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.ConceptSummary(c.id, c.name, c.source, c.cui, c.voided, c.retired) "
+	        + "FROM Concept c WHERE c.id > :afterId AND c.voided = :voidedFlag AND c.retired = :retiredFlag "
+	        + "ORDER BY c.id")
+	List<ConceptSummary> findSummariesAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
 }
@@ -0,0 +1,67 @@
+package org.ts.data.repositories;
+
+import org.ts.data.entities.Concept;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Read-only view of a concept for list and lookup endpoints, without its
+ * vocabulary sets. The flags are only read to check that the concept is active
+ * and are not serialized.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class ConceptSummary implements EntryStatus {
+
+	private final Long id;
+	private final String name;
+	private final String source;
+	private final String cui;
+
+	@JsonIgnore
+	private final int voided;
+
+	@JsonIgnore
+	private final int retired;
+
+	/**
+	 * Constructor for this class, called by the queries selecting summaries.
+	 *
+	 * @param id      the identifier of the concept
+	 * @param name    the name of the concept
+	 * @param source  the source vocabulary of the concept, if any
+	 * @param cui     the concept unique identifier in the source, if any
+	 * @param voided  the voided flag of the concept
+	 * @param retired the retired flag of the concept
+	 *
+	 */
+	public ConceptSummary(Long id, String name, String source, String cui, int voided, int retired) {
+		this.id = id;
+		this.name = name;
+		this.source = source;
+		this.cui = cui;
+		this.voided = voided;
+		this.retired = retired;
+	}
+
+	/**
+	 * Creates the summary of a loaded concept, such as one held by the
+	 * second-level cache.
+	 *
+	 * @param concept the concept to be summarized
+	 *
+	 * @return the summary of the concept
+	 */
+	public static ConceptSummary of(Concept concept) {
+		return new ConceptSummary(concept.getId(), concept.getName(), concept.getSource(), concept.getCui(),
+		        concept.getVoided(), concept.getRetired());
+	}
+}
@@ -1,7 +1,13 @@
 package org.ts.data.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +50,180 @@ public interface EncounterRepository extends CrudRepository<Encounter, Long> {
 	 */
 	List<Encounter> findAll();
 
+	/**
+	 * Returns all {@link Encounter} instances that match a given set of retired
+	 * and voided flags, ordered by ID.
+	 *
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of encounter instances that match the search criteria
+	 */
+	@Query("SELECT e FROM Encounter e WHERE e.voided = :voidedFlag AND e.retired = :retiredFlag ORDER BY e.id")
+	List<Encounter> findByActiveFlags(@Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns all {@link Encounter} instances of a given patient that match a
+	 * given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param patientId   the patient to be used in the search criteria
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of encounter instances that match the search criteria
+	 */
+	@Query("SELECT e FROM Encounter e WHERE e.patient.id = :patientId AND e.voided = :voidedFlag "
+	        + "AND e.retired = :retiredFlag ORDER BY e.id")
+	List<Encounter> findByPatientAndActiveFlags(@Param("patientId") Long patientId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of {@link Encounter} instances with an ID greater than a
+	 * given ID that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of instances to be returned
+	 * 
+	 * @return list of encounter instances that match the search criteria
+	 */
+	@Query("SELECT e FROM Encounter e WHERE e.id > :afterId AND e.voided = :voidedFlag AND e.retired = :retiredFlag "
+	        + "ORDER BY e.id")
+	List<Encounter> findByActiveFlagsAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns the voided and retired flags of a {@link Encounter} given its ID.
+	 *
+	 * @param id the identifier to be used in the search criteria
+	 * 
+	 * @return the optional flags of the encounter
+	 */
+	@Query("SELECT e.voided AS voided, e.retired AS retired FROM Encounter e WHERE e.id = :id")
+	Optional<EntryStatus> findStatusById(@Param("id") Long id);
+
+	/**
+	 * Voids the {@link Encounter} instances with the given IDs that are not voided
+	 * yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the encounters
+	 * @param reason       the reason for voiding the encounters
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param voidedFlag   void flag to be set
+	 * 
+	 * @return the number of voided encounter instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Encounter e SET e.voided = :voidedFlag, e.voidedReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.id IN :ids AND e.voided <> :voidedFlag")
+	int voidByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("voidedFlag") Integer voidedFlag);
+
+	/**
+	 * Voids the {@link Encounter} instances of a given patient that are not voided
+	 * yet, in a single statement.
+	 *
+	 * @param patientId    the patient whose encounters are to be voided
+	 * @param reason       the reason for voiding the encounters
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param voidedFlag   void flag to be set
+	 * 
+	 * @return the number of voided encounter instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Encounter e SET e.voided = :voidedFlag, e.voidedReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.patient.id = :patientId AND e.voided <> :voidedFlag")
+	int voidByPatient(@Param("patientId") Long patientId, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("voidedFlag") Integer voidedFlag);
+
+	/**
+	 * Retires the {@link Encounter} instances with the given IDs that are not
+	 * retired yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the encounters
+	 * @param reason       the reason for retiring the encounters
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param retiredFlag  retired flag to be set
+	 * 
+	 * @return the number of retired encounter instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Encounter e SET e.retired = :retiredFlag, e.retiredReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.id IN :ids AND e.retired <> :retiredFlag")
+	int retireByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Retires the {@link Encounter} instances of a given patient that are not
+	 * retired yet, in a single statement.
+	 *
+	 * @param patientId    the patient whose encounters are to be retired
+	 * @param reason       the reason for retiring the encounters
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param retiredFlag  retired flag to be set
+	 * 
+	 * @return the number of retired encounter instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Encounter e SET e.retired = :retiredFlag, e.retiredReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.patient.id = :patientId AND e.retired <> :retiredFlag")
+	int retireByPatient(@Param("patientId") Long patientId, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of encounter summaries with an ID greater than a given ID
+	 * that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of summaries to be returned
+	 * 
+	 * @return list of encounter summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.EncounterSummary(e.id, e.encounterType, e.encounterDate, e.patient.id, "
+	        + "e.voided, e.retired) FROM Encounter e WHERE e.id > :afterId AND e.voided = :voidedFlag "
+	        + "AND e.retired = :retiredFlag ORDER BY e.id")
+	List<EncounterSummary> findSummariesAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns the summaries of the encounters of a given patient that match a
+	 * given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param patientId   the identifier of the patient
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of encounter summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.EncounterSummary(e.id, e.encounterType, e.encounterDate, e.patient.id, "
+	        + "e.voided, e.retired) FROM Encounter e WHERE e.patient.id = :patientId AND e.voided = :voidedFlag "
+	        + "AND e.retired = :retiredFlag ORDER BY e.id")
+	List<EncounterSummary> findSummariesByPatient(@Param("patientId") Long patientId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns the summary of an encounter given its ID, whatever its flags.
+	 *
+	 * @param id the identifier to be used in the search criteria
+	 * 
+	 * @return the optional summary of the encounter
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.EncounterSummary(e.id, e.encounterType, e.encounterDate, e.patient.id, "
+	        + "e.voided, e.retired) FROM Encounter e WHERE e.id = :id")
+	Optional<EncounterSummary> findSummaryById(@Param("id") Long id);
 }
@@ -0,0 +1,56 @@
+package org.ts.data.repositories;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Read-only view of an encounter for list and lookup endpoints. Only the
+ * returned columns are selected and the patient is given by its ID, so no
+ * association is loaded. The flags are only read to check that the encounter
+ * is active and are not serialized.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class EncounterSummary implements EntryStatus {
+
+	private final Long id;
+	private final int encounterType;
+	private final LocalDateTime encounterDate;
+	private final Long patientId;
+
+	@JsonIgnore
+	private final int voided;
+
+	@JsonIgnore
+	private final int retired;
+
+	/**
+	 * Constructor for this class, called by the queries selecting summaries.
+	 *
+	 * @param id            the identifier of the encounter
+	 * @param encounterType the type of the encounter
+	 * @param encounterDate the date of the encounter
+	 * @param patientId     the identifier of the patient
+	 * @param voided        the voided flag of the encounter
+	 * @param retired       the retired flag of the encounter
+	 *
+	 */
+	public EncounterSummary(Long id, int encounterType, LocalDateTime encounterDate, Long patientId, int voided,
+	        int retired) {
+		this.id = id;
+		this.encounterType = encounterType;
+		this.encounterDate = encounterDate;
+		this.patientId = patientId;
+		this.voided = voided;
+		this.retired = retired;
+	}
+}
@@ -0,0 +1,27 @@
+package org.ts.data.repositories;
+
+/**
+ *
+ * Projection of the voided and retired flags of an entry, used to check that a
+ * reference is active without loading the entry itself.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public interface EntryStatus {
+
+	/**
+	 * Returns the voided flag of the entry.
+	 *
+	 * @return the voided flag
+	 */
+	int getVoided();
+
+	/**
+	 * Returns the retired flag of the entry.
+	 *
+	 * @return the retired flag
+	 */
+	int getRetired();
+}
@@ -1,7 +1,13 @@
 package org.ts.data.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +50,170 @@ public interface EpisodeRepository extends CrudRepository<Episode, Long> {
 	 */
 	List<Episode> findAll();
 
+	/**
+	 * Returns all {@link Episode} instances that match a given set of retired
+	 * and voided flags, ordered by ID.
+	 *
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of episode instances that match the search criteria
+	 */
+	@Query("SELECT e FROM Episode e WHERE e.voided = :voidedFlag AND e.retired = :retiredFlag ORDER BY e.id")
+	List<Episode> findByActiveFlags(@Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns all {@link Episode} instances of a given encounter that match a
+	 * given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param encounterId the encounter to be used in the search criteria
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of episode instances that match the search criteria
+	 */
+	@Query("SELECT e FROM Episode e WHERE e.encounter.id = :encounterId AND e.voided = :voidedFlag "
+	        + "AND e.retired = :retiredFlag ORDER BY e.id")
+	List<Episode> findByEncounterAndActiveFlags(@Param("encounterId") Long encounterId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of {@link Episode} instances with an ID greater than a
+	 * given ID that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of instances to be returned
+	 * 
+	 * @return list of episode instances that match the search criteria
+	 */
+	@Query("SELECT e FROM Episode e WHERE e.id > :afterId AND e.voided = :voidedFlag AND e.retired = :retiredFlag "
+	        + "ORDER BY e.id")
+	List<Episode> findByActiveFlagsAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Voids the {@link Episode} instances with the given IDs that are not voided
+	 * yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the episodes
+	 * @param reason       the reason for voiding the episodes
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param voidedFlag   void flag to be set
+	 * 
+	 * @return the number of voided episode instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Episode e SET e.voided = :voidedFlag, e.voidedReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.id IN :ids AND e.voided <> :voidedFlag")
+	int voidByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("voidedFlag") Integer voidedFlag);
+
+	/**
+	 * Voids the {@link Episode} instances of a given encounter that are not voided
+	 * yet, in a single statement.
+	 *
+	 * @param encounterId  the encounter whose episodes are to be voided
+	 * @param reason       the reason for voiding the episodes
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param voidedFlag   void flag to be set
+	 * 
+	 * @return the number of voided episode instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Episode e SET e.voided = :voidedFlag, e.voidedReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.encounter.id = :encounterId AND e.voided <> :voidedFlag")
+	int voidByEncounter(@Param("encounterId") Long encounterId, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("voidedFlag") Integer voidedFlag);
+
+	/**
+	 * Retires the {@link Episode} instances with the given IDs that are not
+	 * retired yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the episodes
+	 * @param reason       the reason for retiring the episodes
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param retiredFlag  retired flag to be set
+	 * 
+	 * @return the number of retired episode instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Episode e SET e.retired = :retiredFlag, e.retiredReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.id IN :ids AND e.retired <> :retiredFlag")
+	int retireByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Retires the {@link Episode} instances of a given encounter that are not
+	 * retired yet, in a single statement.
+	 *
+	 * @param encounterId  the encounter whose episodes are to be retired
+	 * @param reason       the reason for retiring the episodes
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param retiredFlag  retired flag to be set
+	 * 
+	 * @return the number of retired episode instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Episode e SET e.retired = :retiredFlag, e.retiredReason = :reason, "
+	        + "e.modifiedDate = :modifiedDate, e.lastModifiedBy = :modifiedBy "
+	        + "WHERE e.encounter.id = :encounterId AND e.retired <> :retiredFlag")
+	int retireByEncounter(@Param("encounterId") Long encounterId, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of episode summaries with an ID greater than a given ID
+	 * that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of summaries to be returned
+	 * 
+	 * @return list of episode summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.EpisodeSummary(e.id, e.startDate, e.endDate, e.status, e.concept.id, "
+	        + "e.encounter.id, e.voided, e.retired) FROM Episode e WHERE e.id > :afterId AND e.voided = :voidedFlag "
+	        + "AND e.retired = :retiredFlag ORDER BY e.id")
+	List<EpisodeSummary> findSummariesAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns the summaries of the episodes of a given encounter that match a
+	 * given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param encounterId the identifier of the encounter
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of episode summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.EpisodeSummary(e.id, e.startDate, e.endDate, e.status, e.concept.id, "
+	        + "e.encounter.id, e.voided, e.retired) FROM Episode e WHERE e.encounter.id = :encounterId "
+	        + "AND e.voided = :voidedFlag AND e.retired = :retiredFlag ORDER BY e.id")
+	List<EpisodeSummary> findSummariesByEncounter(@Param("encounterId") Long encounterId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns the summary of an episode given its ID, whatever its flags.
+	 *
+	 * @param id the identifier to be used in the search criteria
+	 * 
+	 * @return the optional summary of the episode
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.EpisodeSummary(e.id, e.startDate, e.endDate, e.status, e.concept.id, "
+	        + "e.encounter.id, e.voided, e.retired) FROM Episode e WHERE e.id = :id")
+	Optional<EpisodeSummary> findSummaryById(@Param("id") Long id);
 }
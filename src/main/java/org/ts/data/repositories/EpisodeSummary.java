@@ -0,0 +1,62 @@
+package org.ts.data.repositories;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Read-only view of an episode for list and lookup endpoints. Only the
+ * returned columns are selected and the encounter and concept are given by
+ * their IDs, so no association is loaded. The flags are only read to check
+ * that the episode is active and are not serialized.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class EpisodeSummary implements EntryStatus {
+
+	private final Long id;
+	private final LocalDateTime startDate;
+	private final LocalDateTime endDate;
+	private final int status;
+	private final Long conceptId;
+	private final Long encounterId;
+
+	@JsonIgnore
+	private final int voided;
+
+	@JsonIgnore
+	private final int retired;
+
+	/**
+	 * Constructor for this class, called by the queries selecting summaries.
+	 *
+	 * @param id          the identifier of the episode
+	 * @param startDate   the start date of the episode
+	 * @param endDate     the end date of the episode, if any
+	 * @param status      the status of the episode
+	 * @param conceptId   the identifier of the concept
+	 * @param encounterId the identifier of the encounter
+	 * @param voided      the voided flag of the episode
+	 * @param retired     the retired flag of the episode
+	 *
+	 */
+	public EpisodeSummary(Long id, LocalDateTime startDate, LocalDateTime endDate, int status, Long conceptId,
+	        Long encounterId, int voided, int retired) {
+		this.id = id;
+		this.startDate = startDate;
+		this.endDate = endDate;
+		this.status = status;
+		this.conceptId = conceptId;
+		this.encounterId = encounterId;
+		this.voided = voided;
+		this.retired = retired;
+	}
+}
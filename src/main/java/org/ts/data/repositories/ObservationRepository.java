@@ -1,7 +1,13 @@
 package org.ts.data.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +50,291 @@ public interface ObservationRepository extends CrudRepository<Observation, Long>
 	 */
 	List<Observation> findAll();
 
+	/**
+	 * Returns the most recent active {@link Observation} per concept for a
+	 * patient, considering only observations of encounters within a given
+	 * period. Of observations made at the same date the one with the highest ID
+	 * is returned. The observations are found through the encounters of the
+	 * patient, so the observation date does not prune partitions.
+	 *
+	 * @param patientId     the patient to fetch observations for
+	 * @param voidedFlag    void flag for the search criteria
+	 * @param retiredFlag   retired flag for the search criteria
+	 * @param from          the inclusive start of the encounter period
+	 * @param to            the exclusive end of the encounter period
+	 * 
+	 * @return a list of the most recent observation instances per concept
+	 */
+	@Query("SELECT o FROM Observation o JOIN o.encounter e WHERE e.patient.id = :patientId "
+	        + "AND e.encounterDate >= :from AND e.encounterDate < :to "
+	        + "AND o.voided = :voidedFlag AND o.retired = :retiredFlag "
+	        + "AND NOT EXISTS (SELECT l FROM Observation l JOIN l.encounter le "
+	        + "WHERE le.patient.id = :patientId AND le.encounterDate >= :from AND le.encounterDate < :to "
+	        + "AND l.voided = :voidedFlag AND l.retired = :retiredFlag AND l.concept = o.concept "
+	        + "AND (l.observationDate > o.observationDate "
+	        + "OR (l.observationDate = o.observationDate AND l.id > o.id)))")
+	List<Observation> findLatestPerConceptByPatient(@Param("patientId") Long patientId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag,
+	        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Returns the most recent active {@link Observation} per concept and patient
+	 * for a group of patients, considering only observations of encounters
+	 * within a given period, the one with the highest ID among observations made
+	 * at the same date. The encounter of each observation is fetched in the
+	 * same query. The observations are found through the encounters of the
+	 * patients, so the observation date does not prune partitions.
+	 *
+	 * @param patientIds    the patients to fetch observations for
+	 * @param voidedFlag    void flag for the search criteria
+	 * @param retiredFlag   retired flag for the search criteria
+	 * @param from          the inclusive start of the encounter period
+	 * @param to            the exclusive end of the encounter period
+	 * 
+	 * @return a list of the most recent observation instances per concept and
+	 *         patient
+	 */
+	@Query("SELECT o FROM Observation o JOIN FETCH o.encounter e WHERE e.patient.id IN :patientIds "
+	        + "AND e.encounterDate >= :from AND e.encounterDate < :to "
+	        + "AND o.voided = :voidedFlag AND o.retired = :retiredFlag "
+	        + "AND NOT EXISTS (SELECT l FROM Observation l JOIN l.encounter le "
+	        + "WHERE le.patient = e.patient AND le.encounterDate >= :from AND le.encounterDate < :to "
+	        + "AND l.voided = :voidedFlag AND l.retired = :retiredFlag AND l.concept = o.concept "
+	        + "AND (l.observationDate > o.observationDate "
+	        + "OR (l.observationDate = o.observationDate AND l.id > o.id)))")
+	List<Observation> findLatestPerConceptByPatients(@Param("patientIds") Collection<Long> patientIds,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag,
+	        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Returns all active {@link Observation} instances of a group of patients
+	 * made at or before a point in time. The encounter of each observation is
+	 * fetched in the same query.
+	 *
+	 * @param patientIds  the patients to fetch observations for
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param until       the inclusive upper bound of the observation date
+	 * 
+	 * @return a list of observation instances
+	 */
+	@Query("SELECT o FROM Observation o JOIN FETCH o.encounter e WHERE e.patient.id IN :patientIds "
+	        + "AND o.observationDate <= :until AND o.voided = :voidedFlag AND o.retired = :retiredFlag")
+	List<Observation> findByPatientsObservedUntil(@Param("patientIds") Collection<Long> patientIds,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag,
+	        @Param("until") LocalDateTime until);
+
+	/**
+	 * Returns all {@link Observation} instances that match a given set of retired
+	 * and voided flags, ordered by ID.
+	 *
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of observation instances that match the search criteria
+	 */
+	@Query("SELECT o FROM Observation o WHERE o.voided = :voidedFlag AND o.retired = :retiredFlag ORDER BY o.id")
+	List<Observation> findByActiveFlags(@Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns all {@link Observation} instances of a given encounter that match a
+	 * given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param encounterId the encounter to be used in the search criteria
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of observation instances that match the search criteria
+	 */
+	@Query("SELECT o FROM Observation o WHERE o.encounter.id = :encounterId AND o.voided = :voidedFlag "
+	        + "AND o.retired = :retiredFlag ORDER BY o.id")
+	List<Observation> findByEncounterAndActiveFlags(@Param("encounterId") Long encounterId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of {@link Observation} instances with an ID greater than a
+	 * given ID that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of instances to be returned
+	 * 
+	 * @return list of observation instances that match the search criteria
+	 */
+	@Query("SELECT o FROM Observation o WHERE o.id > :afterId AND o.voided = :voidedFlag AND o.retired = :retiredFlag "
+	        + "ORDER BY o.id")
+	List<Observation> findByActiveFlagsAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns the IDs of the patients of the given {@link Observation} instances.
+	 *
+	 * @param ids the identifiers of the observations
+	 * 
+	 * @return the distinct IDs of the patients of the observations
+	 */
+	@Query("SELECT DISTINCT e.patient.id FROM Observation o JOIN o.encounter e WHERE o.id IN :ids")
+	List<Long> findPatientIdsByIds(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Returns the IDs of the patients of the {@link Observation} instances of a
+	 * given encounter.
+	 *
+	 * @param encounterId the encounter to be used in the search criteria
+	 * 
+	 * @return the distinct IDs of the patients of the observations
+	 */
+	@Query("SELECT DISTINCT e.patient.id FROM Observation o JOIN o.encounter e WHERE e.id = :encounterId")
+	List<Long> findPatientIdsByEncounter(@Param("encounterId") Long encounterId);
+
+	/**
+	 * Voids the {@link Observation} instances with the given IDs that are not
+	 * voided yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the observations
+	 * @param reason       the reason for voiding the observations
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param voidedFlag   void flag to be set
+	 * 
+	 * @return the number of voided observation instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Observation o SET o.voided = :voidedFlag, o.voidedReason = :reason, "
+	        + "o.modifiedDate = :modifiedDate, o.lastModifiedBy = :modifiedBy "
+	        + "WHERE o.id IN :ids AND o.voided <> :voidedFlag")
+	int voidByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("voidedFlag") Integer voidedFlag);
+
+	/**
+	 * Voids the {@link Observation} instances of a given encounter that are not
+	 * voided yet, in a single statement.
+	 *
+	 * @param encounterId  the encounter whose observations are to be voided
+	 * @param reason       the reason for voiding the observations
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param voidedFlag   void flag to be set
+	 * 
+	 * @return the number of voided observation instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Observation o SET o.voided = :voidedFlag, o.voidedReason = :reason, "
+	        + "o.modifiedDate = :modifiedDate, o.lastModifiedBy = :modifiedBy "
+	        + "WHERE o.encounter.id = :encounterId AND o.voided <> :voidedFlag")
+	int voidByEncounter(@Param("encounterId") Long encounterId, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("voidedFlag") Integer voidedFlag);
+
+	/**
+	 * Retires the {@link Observation} instances with the given IDs that are not
+	 * retired yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the observations
+	 * @param reason       the reason for retiring the observations
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param retiredFlag  retired flag to be set
+	 * 
+	 * @return the number of retired observation instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Observation o SET o.retired = :retiredFlag, o.retiredReason = :reason, "
+	        + "o.modifiedDate = :modifiedDate, o.lastModifiedBy = :modifiedBy "
+	        + "WHERE o.id IN :ids AND o.retired <> :retiredFlag")
+	int retireByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Retires the {@link Observation} instances of a given encounter that are not
+	 * retired yet, in a single statement.
+	 *
+	 * @param encounterId  the encounter whose observations are to be retired
+	 * @param reason       the reason for retiring the observations
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param retiredFlag  retired flag to be set
+	 * 
+	 * @return the number of retired observation instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Observation o SET o.retired = :retiredFlag, o.retiredReason = :reason, "
+	        + "o.modifiedDate = :modifiedDate, o.lastModifiedBy = :modifiedBy "
+	        + "WHERE o.encounter.id = :encounterId AND o.retired <> :retiredFlag")
+	int retireByEncounter(@Param("encounterId") Long encounterId, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of observation summaries with an ID greater than a given ID
+	 * that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of summaries to be returned
+	 * 
+	 * @return list of observation summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.ObservationSummary(o.id, o.observationDate, o.concept.id, "
+	        + "o.conceptValue.id, o.intValue, o.stringValue, o.dateTimeValue, o.encounter.id, o.voided, o.retired) "
+	        + "FROM Observation o WHERE o.id > :afterId AND o.voided = :voidedFlag AND o.retired = :retiredFlag "
+	        + "ORDER BY o.id")
+	List<ObservationSummary> findSummariesAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns a page of observation summaries with an ID greater than a given ID
+	 * that were made within a given period and match a given set of retired and
+	 * voided flags, ordered by ID. Only the partitions of the period are
+	 * scanned.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param from        the inclusive lower bound of the observation date
+	 * @param to          the exclusive upper bound of the observation date
+	 * @param pageable    the maximum number of summaries to be returned
+	 * 
+	 * @return list of observation summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.ObservationSummary(o.id, o.observationDate, o.concept.id, "
+	        + "o.conceptValue.id, o.intValue, o.stringValue, o.dateTimeValue, o.encounter.id, o.voided, o.retired) "
+	        + "FROM Observation o WHERE o.id > :afterId AND o.voided = :voidedFlag AND o.retired = :retiredFlag "
+	        + "AND o.observationDate >= :from AND o.observationDate < :to ORDER BY o.id")
+	List<ObservationSummary> findSummariesAfterObservedBetween(@Param("afterId") Long afterId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag,
+	        @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+	/**
+	 * Returns the summaries of the observations of a given encounter that match a
+	 * given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param encounterId the identifier of the encounter
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of observation summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.ObservationSummary(o.id, o.observationDate, o.concept.id, "
+	        + "o.conceptValue.id, o.intValue, o.stringValue, o.dateTimeValue, o.encounter.id, o.voided, o.retired) "
+	        + "FROM Observation o WHERE o.encounter.id = :encounterId AND o.voided = :voidedFlag "
+	        + "AND o.retired = :retiredFlag ORDER BY o.id")
+	List<ObservationSummary> findSummariesByEncounter(@Param("encounterId") Long encounterId,
+	        @Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns the summary of an observation given its ID, whatever its flags.
+	 *
+	 * @param id the identifier to be used in the search criteria
+	 * 
+	 * @return the optional summary of the observation
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.ObservationSummary(o.id, o.observationDate, o.concept.id, "
+	        + "o.conceptValue.id, o.intValue, o.stringValue, o.dateTimeValue, o.encounter.id, o.voided, o.retired) "
+	        + "FROM Observation o WHERE o.id = :id")
+	Optional<ObservationSummary> findSummaryById(@Param("id") Long id);
 }
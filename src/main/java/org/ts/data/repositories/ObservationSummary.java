@@ -0,0 +1,68 @@
+package org.ts.data.repositories;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Read-only view of an observation for list and lookup endpoints. Only the
+ * returned columns are selected and the encounter and concepts are given by
+ * their IDs, so no association is loaded. The flags are only read to check
+ * that the observation is active and are not serialized.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class ObservationSummary implements EntryStatus {
+
+	private final Long id;
+	private final LocalDateTime observationDate;
+	private final Long conceptId;
+	private final Long conceptValueId;
+	private final Integer intValue;
+	private final String stringValue;
+	private final LocalDateTime dateTimeValue;
+	private final Long encounterId;
+
+	@JsonIgnore
+	private final int voided;
+
+	@JsonIgnore
+	private final int retired;
+
+	/**
+	 * Constructor for this class, called by the queries selecting summaries.
+	 *
+	 * @param id              the identifier of the observation
+	 * @param observationDate the date of the observation
+	 * @param conceptId       the identifier of the observed concept
+	 * @param conceptValueId  the identifier of the coded value, if any
+	 * @param intValue        the numeric value, if any
+	 * @param stringValue     the text value, if any
+	 * @param dateTimeValue   the date value, if any
+	 * @param encounterId     the identifier of the encounter
+	 * @param voided          the voided flag of the observation
+	 * @param retired         the retired flag of the observation
+	 *
+	 */
+	public ObservationSummary(Long id, LocalDateTime observationDate, Long conceptId, Long conceptValueId,
+	        Integer intValue, String stringValue, LocalDateTime dateTimeValue, Long encounterId, int voided, int retired) {
+		this.id = id;
+		this.observationDate = observationDate;
+		this.conceptId = conceptId;
+		this.conceptValueId = conceptValueId;
+		this.intValue = intValue;
+		this.stringValue = stringValue;
+		this.dateTimeValue = dateTimeValue;
+		this.encounterId = encounterId;
+		this.voided = voided;
+		this.retired = retired;
+	}
+}
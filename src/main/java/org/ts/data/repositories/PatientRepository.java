@@ -1,7 +1,13 @@
 package org.ts.data.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,4 +59,107 @@ public interface PatientRepository extends CrudRepository<Patient, Long> {
 	 */
 	List<Patient> findAll();
 
+	/**
+	 * Returns all {@link Patient}s with the given IDs that match a given set of
+	 * retired and voided flags.
+	 *
+	 * @param ids         the identifiers to be used in the search criteria
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of patient instances that match the search criteria
+	 */
+	@Query("SELECT p FROM Patient p WHERE p.id IN :ids AND p.voided = :voidedFlag AND p.retired = :retiredFlag")
+	List<Patient> findByIdsAndActiveFlags(@Param("ids") Collection<Long> ids, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns all {@link Patient} instances that match a given set of retired
+	 * and voided flags, ordered by ID.
+	 *
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of patient instances that match the search criteria
+	 */
+	@Query("SELECT p FROM Patient p WHERE p.voided = :voidedFlag AND p.retired = :retiredFlag ORDER BY p.id")
+	List<Patient> findByActiveFlags(@Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns the voided and retired flags of a {@link Patient} given its ID.
+	 *
+	 * @param id the identifier to be used in the search criteria
+	 * 
+	 * @return the optional flags of the patient
+	 */
+	@Query("SELECT p.voided AS voided, p.retired AS retired FROM Patient p WHERE p.id = :id")
+	Optional<EntryStatus> findStatusById(@Param("id") Long id);
+
+	/**
+	 * Voids the {@link Patient} instances with the given IDs that are not voided
+	 * yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the patients
+	 * @param reason       the reason for voiding the patients
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param voidedFlag   void flag to be set
+	 * 
+	 * @return the number of voided patient instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Patient p SET p.voided = :voidedFlag, p.voidedReason = :reason, "
+	        + "p.modifiedDate = :modifiedDate, p.lastModifiedBy = :modifiedBy "
+	        + "WHERE p.id IN :ids AND p.voided <> :voidedFlag")
+	int voidByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("voidedFlag") Integer voidedFlag);
+
+	/**
+	 * Retires the {@link Patient} instances with the given IDs that are not
+	 * retired yet, in a single statement.
+	 *
+	 * @param ids          the identifiers of the patients
+	 * @param reason       the reason for retiring the patients
+	 * @param modifiedDate the modification date to be recorded
+	 * @param modifiedBy   the user to be recorded as the last modifier
+	 * @param retiredFlag  retired flag to be set
+	 * 
+	 * @return the number of retired patient instances
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Patient p SET p.retired = :retiredFlag, p.retiredReason = :reason, "
+	        + "p.modifiedDate = :modifiedDate, p.lastModifiedBy = :modifiedBy "
+	        + "WHERE p.id IN :ids AND p.retired <> :retiredFlag")
+	int retireByIds(@Param("ids") Collection<Long> ids, @Param("reason") String reason,
+	        @Param("modifiedDate") LocalDateTime modifiedDate, @Param("modifiedBy") String modifiedBy,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns a page of patient summaries with an ID greater than a given ID
+	 * that match a given set of retired and voided flags, ordered by ID.
+	 *
+	 * @param afterId     the exclusive lower bound of the IDs to be returned
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * @param pageable    the maximum number of summaries to be returned
+	 * 
+	 * @return list of patient summaries that match the search criteria
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.PatientSummary(p.id, p.title, p.firstName, p.middleName, p.lastName, "
+	        + "p.gender, p.dateOfBirth, p.voided, p.retired) FROM Patient p WHERE p.id > :afterId "
+	        + "AND p.voided = :voidedFlag AND p.retired = :retiredFlag ORDER BY p.id")
+	List<PatientSummary> findSummariesAfter(@Param("afterId") Long afterId, @Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag, Pageable pageable);
+
+	/**
+	 * Returns the summary of a patient given its ID, whatever its flags.
+	 *
+	 * @param id the identifier to be used in the search criteria
+	 * 
+	 * @return the optional summary of the patient
+	 */
+	@Query("SELECT NEW org.ts.data.repositories.PatientSummary(p.id, p.title, p.firstName, p.middleName, p.lastName, "
+	        + "p.gender, p.dateOfBirth, p.voided, p.retired) FROM Patient p WHERE p.id = :id")
+	Optional<PatientSummary> findSummaryById(@Param("id") Long id);
 }
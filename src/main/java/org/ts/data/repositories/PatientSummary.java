@@ -0,0 +1,65 @@
+package org.ts.data.repositories;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ *
+ * Read-only view of a patient for list and lookup endpoints, holding the
+ * names, gender and date of birth. Only the returned columns are selected and
+ * the owning user is not loaded. The flags are only read to check that the
+ * patient is active and are not serialized.
+ *
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+@Getter
+@ToString
+public final class PatientSummary implements EntryStatus {
+
+	private final Long id;
+	private final String title;
+	private final String firstName;
+	private final String middleName;
+	private final String lastName;
+	private final String gender;
+	private final LocalDate dateOfBirth;
+
+	@JsonIgnore
+	private final int voided;
+
+	@JsonIgnore
+	private final int retired;
+
+	/**
+	 * Constructor for this class, called by the queries selecting summaries.
+	 *
+	 * @param id          the identifier of the patient
+	 * @param title       the title of the patient, if any
+	 * @param firstName   the first name of the patient
+	 * @param middleName  the middle name of the patient, if any
+	 * @param lastName    the last name of the patient
+	 * @param gender      the gender of the patient
+	 * @param dateOfBirth the date of birth of the patient
+	 * @param voided      the voided flag of the patient
+	 * @param retired     the retired flag of the patient
+	 *
+	 */
+	public PatientSummary(Long id, String title, String firstName, String middleName, String lastName, String gender,
+	        LocalDate dateOfBirth, int voided, int retired) {
+		this.id = id;
+		this.title = title;
+		this.firstName = firstName;
+		this.middleName = middleName;
+		this.lastName = lastName;
+		this.gender = gender;
+		this.dateOfBirth = dateOfBirth;
+		this.voided = voided;
+		this.retired = retired;
+	}
+}
@@ -0,0 +1,74 @@
+package org.ts.data.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.ts.data.entities.Recommendation;
+
+/**
+ * 
+ * Provides CRUD operations for {@link Recommendation}.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public interface RecommendationRepository extends CrudRepository<Recommendation, Long> {
+
+	/**
+	 * Persists the given {@link Recommendation} instances.
+	 *
+	 * @param recommendations the recommendation instances to be persisted
+	 * 
+	 * @return the persisted recommendation instances
+	 */
+	<S extends Recommendation> Iterable<S> saveAll(Iterable<S> recommendations);
+
+	/**
+	 * Returns a page of {@link Recommendation} instances for a given date with an
+	 * ID greater than a given ID, ordered by ID.
+	 *
+	 * @param evaluationDate the date to be used in the search criteria
+	 * @param afterId        the exclusive lower bound of the IDs to be returned
+	 * @param pageable       the maximum number of recommendations to be returned
+	 * 
+	 * @return a list of recommendation instances ordered by ID
+	 */
+	@Query("SELECT r FROM Recommendation r WHERE r.evaluationDate = :evaluationDate AND r.id > :afterId "
+	        + "ORDER BY r.id")
+	List<Recommendation> findAfter(@Param("evaluationDate") LocalDate evaluationDate, @Param("afterId") Long afterId,
+	        Pageable pageable);
+
+	/**
+	 * Returns all {@link Recommendation} instances for a patient on a given date.
+	 *
+	 * @param patientId      the patient to be used in the search criteria
+	 * @param evaluationDate the date to be used in the search criteria
+	 * 
+	 * @return a list of recommendation instances ordered by regimen category
+	 */
+	List<Recommendation> findAllByPatientIdAndEvaluationDateOrderByRegimenCategoryId(Long patientId,
+	        LocalDate evaluationDate);
+
+	/**
+	 * Deletes all {@link Recommendation} instances of the given patients on a
+	 * given date.
+	 *
+	 * @param patientIds     the patients whose recommendations are to be deleted
+	 * @param evaluationDate the date of the recommendations to be deleted
+	 * 
+	 * @return the number of deleted recommendation instances
+	 */
+	@Modifying
+	@Query("DELETE FROM Recommendation r WHERE r.evaluationDate = :evaluationDate AND r.patientId IN :patientIds")
+	int deleteByPatientsAndEvaluationDate(@Param("patientIds") Collection<Long> patientIds,
+	        @Param("evaluationDate") LocalDate evaluationDate);
+
+}
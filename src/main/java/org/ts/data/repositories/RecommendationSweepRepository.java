@@ -0,0 +1,38 @@
+package org.ts.data.repositories;
+
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.ts.data.entities.RecommendationSweep;
+
+/**
+ * 
+ * Provides CRUD operations for {@link RecommendationSweep}.
+ * 
+ * @author Yamiko J. Msosa
+ * @version 1.0
+ *
+ */
+public interface RecommendationSweepRepository extends CrudRepository<RecommendationSweep, Long> {
+
+	/**
+	 * Persists the given {@link RecommendationSweep} instance.
+	 *
+	 * @param sweep the sweep instance to be persisted in the database
+	 * 
+	 * @return the persisted sweep instance
+	 */
+	<S extends RecommendationSweep> S save(S sweep);
+
+	/**
+	 * Returns the most recent {@link RecommendationSweep} for a given date.
+	 *
+	 * @param evaluationDate the date to be used in the search criteria
+	 * 
+	 * @return an optional sweep instance that matches the search criteria
+	 */
+	Optional<RecommendationSweep> findFirstByEvaluationDateOrderByIdDesc(LocalDate evaluationDate);
+
+}
@@ -1,7 +1,11 @@
 package org.ts.data.repositories;
 
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,4 +60,44 @@ public interface RegimenCategoryRepository extends CrudRepository<RegimenCategor
 	 * @return list of qualification type instances from the database
 	 */
 	List<RegimenCategory> findAll();
+
+	/**
+	 * Returns all {@link RegimenCategory} instances that match a given list of
+	 * IDs, with everything a recommendation response serializes loaded in the
+	 * same query.
+	 *
+	 * @param ids the identifiers to be used in the search criteria
+	 * 
+	 * @return list of regimen category instances ordered by ID
+	 */
+	@EntityGraph(RegimenCategory.RECOMMENDATION_GRAPH)
+	List<RegimenCategory> findDistinctByIdInOrderById(Collection<Long> ids);
+
+	/**
+	 * Returns all {@link RegimenCategory} instances that match a given set of
+	 * retired and voided flags, with their conditions and condition concepts
+	 * loaded in the same query.
+	 *
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of regimen category instances ordered by ID
+	 */
+	@Query("SELECT DISTINCT r FROM RegimenCategory r LEFT JOIN FETCH r.condition c LEFT JOIN FETCH c.concept "
+	        + "LEFT JOIN FETCH c.conceptValue WHERE r.voided = :voidedFlag AND r.retired = :retiredFlag ORDER BY r.id")
+	List<RegimenCategory> findWithConditionsByActiveFlags(@Param("voidedFlag") Integer voidedFlag,
+	        @Param("retiredFlag") Integer retiredFlag);
+
+	/**
+	 * Returns all {@link RegimenCategory} instances that match a given set of retired
+	 * and voided flags, ordered by ID.
+	 *
+	 * @param voidedFlag  void flag for the search criteria
+	 * @param retiredFlag retired flag for the search criteria
+	 * 
+	 * @return list of regimen category instances that match the search criteria
+	 */
+	@Query("SELECT r FROM RegimenCategory r WHERE r.voided = :voidedFlag AND r.retired = :retiredFlag ORDER BY r.id")
+	List<RegimenCategory> findByActiveFlags(@Param("voidedFlag") Integer voidedFlag, @Param("retiredFlag") Integer retiredFlag);
+
 }
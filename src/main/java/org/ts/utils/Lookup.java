@@ -17,6 +17,11 @@ public class Lookup {
 	public static final int NOT_RETIRED = 0;
 	public static final int VOIDED = 1;
 	public static final int NOT_VOIDED = 0;
+
+	/*
+	 * Second-level cache region of the clinical metadata entities
+	 */
+	public static final String METADATA_CACHE_REGION = "metadata";
 	
 	/*
 	 * Treatment frequency atomic abbreviations
@@ -48,6 +53,12 @@ public class Lookup {
 	public static final int GREATER_OR_EQUAL = 1;
 	public static final int LESS = 2;
 	public static final int NOT_EQUAL = 3;
+	public static final int BETWEEN = 4;
+
+	/*
+	 * Concepts derived from patient details rather than observations
+	 */
+	public static final String AGE_CONCEPT = "Age";
 	
 	/*
 	 * Episode stages
@@ -56,6 +67,13 @@ public class Lookup {
 	public static final int INACTIVE = 0;
 	public static final int ENDED = 0;
 
+	/*
+	 * Recommendation sweep states
+	 */
+	public static final int SWEEP_RUNNING = 0;
+	public static final int SWEEP_COMPLETED = 1;
+	public static final int SWEEP_FAILED = 2;
+
 	/*
 	 * Treatment units
 	 */
@@ -0,0 +1,47 @@
+-- Indexes matching the access patterns of the services. Most queries only read
+-- active rows (voided = 0 AND retired = 0), so the indexes are partial and
+-- leave out voided and retired rows.
+
+-- Replace the full indexes previously declared on the entities with partial ones
+DO $$
+DECLARE
+    stale record;
+BEGIN
+    FOR stale IN SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()
+            AND ((tablename = 'observation' AND indexdef LIKE '%(encounter_id, concept_id, observation_date)')
+                OR (tablename = 'encounter' AND indexdef LIKE '%(patient_id, encounter_date)'))
+    LOOP
+        EXECUTE 'DROP INDEX ' || quote_ident(stale.indexname);
+    END LOOP;
+END $$;
+
+-- Latest observation per concept of the encounters of a patient (recommendations)
+CREATE INDEX IF NOT EXISTS observation_active_encounter_concept_date_idx
+    ON observation (encounter_id, concept_id, observation_date) WHERE voided = 0 AND retired = 0;
+
+CREATE INDEX IF NOT EXISTS encounter_active_patient_date_idx
+    ON encounter (patient_id, encounter_date) WHERE voided = 0 AND retired = 0;
+
+-- Episodes of an encounter, ordered by ID
+CREATE INDEX IF NOT EXISTS episode_active_encounter_idx
+    ON episode (encounter_id, id) WHERE voided = 0 AND retired = 0;
+
+-- Lookups by name
+CREATE INDEX IF NOT EXISTS application_user_active_username_idx
+    ON application_user (username) WHERE voided = 0 AND retired = 0;
+
+CREATE INDEX IF NOT EXISTS concept_active_name_idx
+    ON concept (name) WHERE voided = 0 AND retired = 0;
+
+-- Pages of active rows ordered by ID
+CREATE INDEX IF NOT EXISTS observation_active_id_idx ON observation (id) WHERE voided = 0 AND retired = 0;
+
+CREATE INDEX IF NOT EXISTS encounter_active_id_idx ON encounter (id) WHERE voided = 0 AND retired = 0;
+
+CREATE INDEX IF NOT EXISTS episode_active_id_idx ON episode (id) WHERE voided = 0 AND retired = 0;
+
+CREATE INDEX IF NOT EXISTS concept_active_id_idx ON concept (id) WHERE voided = 0 AND retired = 0;
+
+CREATE INDEX IF NOT EXISTS application_user_active_id_idx ON application_user (id) WHERE voided = 0 AND retired = 0;
+
+CREATE INDEX IF NOT EXISTS patient_active_id_idx ON patient (id) WHERE voided = 0 AND retired = 0;
@@ -0,0 +1,25 @@
+-- Moves every entity from the shared hibernate_sequence to a sequence of its
+-- own. Identifiers are reserved in blocks of ${idAllocationSize}, so each
+-- sequence starts past both the existing rows and the shared sequence.
+DO $$
+DECLARE
+    entity_table text;
+    shared_id bigint := 0;
+    max_id bigint;
+BEGIN
+    IF to_regclass('hibernate_sequence') IS NOT NULL THEN
+        SELECT last_value INTO shared_id FROM hibernate_sequence;
+    END IF;
+
+    FOREACH entity_table IN ARRAY ARRAY['application_user', 'patient', 'encounter', 'observation', 'episode',
+            'concept', 'vocabulary_set', 'condition', 'action', 'frequency', 'regimen', 'regimen_category',
+            'recommendation', 'recommendation_sweep']
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY ${idAllocationSize}', entity_table || '_seq');
+        max_id := 0;
+        IF to_regclass(entity_table) IS NOT NULL THEN
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', entity_table) INTO max_id;
+        END IF;
+        PERFORM setval(quote_ident(entity_table || '_seq'), GREATEST(max_id, shared_id) + 1, false);
+    END LOOP;
+END $$;
@@ -0,0 +1,160 @@
+-- Stores observations in monthly range partitions on observation_date, so that
+-- queries bounded by observation date only scan the months they cover. The
+-- partition of a month is named observation_pYYYY_MM. Rows outside of every
+-- month partition are kept in observation_default.
+--
+-- The primary key of a partitioned table has to include the partition key, so
+-- it becomes (id, observation_date). Identifiers are still unique as they are
+-- drawn from observation_seq. Lookups by ID alone, such as findById and the
+-- bulk updates by ID, cannot be pruned and probe the key index of every
+-- partition, which is one index probe per partition.
+--
+-- The existing table is not copied. It is attached as observation_default, so
+-- the migration only scans it to check observation_date and to build the new
+-- primary key index. Only rows of the current and the coming months are moved
+-- to month partitions here. Older months are split out of observation_default
+-- afterwards, one month per transaction while the application is running,
+-- either by the partition job (observations.partitions.split-months-per-run)
+-- or by hand with:
+--
+--     SELECT create_observation_partitions('2019-01-01', '2019-01-01');
+--
+-- Each month moved scans observation_default twice, once to move its rows and
+-- once when the partition is attached, during which writes of rows outside
+-- every month partition wait.
+--
+-- Partitions of old months are archived with detach_observation_partitions
+-- and can be attached again with attach_observation_partition.
+
+-- Names the indexes of a partition after the partition and the index of
+-- observation they belong to, which keeps them readable in query plans.
+CREATE OR REPLACE FUNCTION name_observation_partition_indexes(partition_name text) RETURNS void AS $$
+DECLARE
+    child record;
+BEGIN
+    FOR child IN SELECT c.relname AS index_name, partition_name || substring(p.relname FROM 12) AS new_name
+            FROM pg_index x
+            JOIN pg_class c ON c.oid = x.indexrelid
+            JOIN pg_inherits i ON i.inhrelid = x.indexrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE x.indrelid = partition_name::regclass
+    LOOP
+        IF child.index_name <> child.new_name THEN
+            EXECUTE format('ALTER INDEX %I RENAME TO %I', child.index_name, child.new_name);
+        END IF;
+    END LOOP;
+END $$ LANGUAGE plpgsql;
+
+-- Attaches a table as the partition of the month its name stands for. Rows of
+-- that month which were written to observation_default in the meantime are
+-- moved into the table first, as the month could not be attached otherwise.
+-- Returns the number of rows moved.
+CREATE OR REPLACE FUNCTION attach_observation_partition(partition_name text) RETURNS bigint AS $$
+DECLARE
+    month_start date;
+    month_end date;
+    moved bigint;
+BEGIN
+    IF partition_name !~ '^observation_p[0-9]{4}_[0-9]{2}$' THEN
+        RAISE EXCEPTION 'Not an observation partition name: %', partition_name;
+    END IF;
+    month_start := to_date(substring(partition_name FROM 14), 'YYYY_MM');
+    month_end := (month_start + interval '1 month')::date;
+
+    EXECUTE format('WITH moved AS (DELETE FROM observation_default WHERE observation_date >= %L '
+            'AND observation_date < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+            month_start, month_end, partition_name);
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    EXECUTE format('ALTER TABLE observation ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, month_start, month_end);
+    PERFORM name_observation_partition_indexes(partition_name);
+    RETURN moved;
+END $$ LANGUAGE plpgsql;
+
+-- Creates the missing month partitions from the month of from_date up to and
+-- including the month of until_date, moving their rows out of
+-- observation_default. A month whose partition was detached is skipped with a
+-- warning, it is only attached again on purpose. Returns the number of
+-- partitions created.
+CREATE OR REPLACE FUNCTION create_observation_partitions(from_date date, until_date date) RETURNS integer AS $$
+DECLARE
+    month_start date := date_trunc('month', from_date);
+    partition_name text;
+    created integer := 0;
+BEGIN
+    WHILE month_start <= until_date LOOP
+        partition_name := 'observation_p' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE observation INCLUDING DEFAULTS)', partition_name);
+            PERFORM attach_observation_partition(partition_name);
+            created := created + 1;
+        ELSIF NOT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = partition_name::regclass
+                AND inhparent = 'observation'::regclass) THEN
+            RAISE WARNING 'Skipping detached observation partition %', partition_name;
+        END IF;
+        month_start := month_start + interval '1 month';
+    END LOOP;
+    RETURN created;
+END $$ LANGUAGE plpgsql;
+
+-- Detaches the partitions of the months before the month of before_date, so
+-- that they can be archived and dropped. The detached tables keep their rows
+-- and are returned by name.
+CREATE OR REPLACE FUNCTION detach_observation_partitions(before_date date) RETURNS SETOF text AS $$
+DECLARE
+    old_partition record;
+BEGIN
+    FOR old_partition IN SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'observation'::regclass AND c.relname ~ '^observation_p[0-9]{4}_[0-9]{2}$'
+            AND to_date(substring(c.relname FROM 14), 'YYYY_MM') < date_trunc('month', before_date)
+            ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE observation DETACH PARTITION %I', old_partition.relname);
+        RETURN NEXT old_partition.relname;
+    END LOOP;
+END $$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    old_constraint record;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'observation'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+
+    -- Key and index names are unique per schema, they are taken over by the new table
+    ALTER TABLE observation RENAME TO observation_default;
+    FOR old_constraint IN SELECT conname FROM pg_constraint
+            WHERE conrelid = 'observation_default'::regclass AND contype = 'p'
+    LOOP
+        EXECUTE format('ALTER TABLE observation_default DROP CONSTRAINT %I', old_constraint.conname);
+    END LOOP;
+    ALTER INDEX IF EXISTS observation_active_encounter_concept_date_idx
+            RENAME TO observation_default_active_encounter_concept_date_idx;
+    ALTER INDEX IF EXISTS observation_active_id_idx RENAME TO observation_default_active_id_idx;
+
+    CREATE TABLE observation (LIKE observation_default INCLUDING DEFAULTS)
+            PARTITION BY RANGE (observation_date);
+    ALTER TABLE observation ADD CONSTRAINT observation_pkey PRIMARY KEY (id, observation_date);
+
+    -- Foreign keys keep the names Hibernate gave them
+    FOR old_constraint IN SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint
+            WHERE conrelid = 'observation_default'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE observation ADD CONSTRAINT %I %s', old_constraint.conname,
+                old_constraint.definition);
+    END LOOP;
+
+    CREATE INDEX observation_active_encounter_concept_date_idx
+            ON observation (encounter_id, concept_id, observation_date) WHERE voided = 0 AND retired = 0;
+    CREATE INDEX observation_active_id_idx ON observation (id) WHERE voided = 0 AND retired = 0;
+
+    -- The existing indexes and foreign keys of the table are reused when it is
+    -- attached, only the new primary key index is built. The key has to be a
+    -- constraint to be attached to the key of observation.
+    ALTER TABLE observation_default ADD CONSTRAINT observation_default_pkey PRIMARY KEY (id, observation_date);
+    ALTER TABLE observation ATTACH PARTITION observation_default DEFAULT;
+    PERFORM name_observation_partition_indexes('observation_default');
+
+    PERFORM create_observation_partitions(now()::date, (now() + interval '3 months')::date);
+END $$;
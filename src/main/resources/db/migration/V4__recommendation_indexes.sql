@@ -0,0 +1,20 @@
+-- Indexes of the materialized recommendations written by the sweep.
+
+-- Replace the indexes previously declared on the entity with named ones
+DO $$
+DECLARE
+    stale record;
+BEGIN
+    FOR stale IN SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()
+            AND tablename = 'recommendation'
+            AND (indexdef LIKE '%(evaluation_date, patient_id)' OR indexdef LIKE '%(evaluation_date, id)')
+    LOOP
+        EXECUTE 'DROP INDEX ' || quote_ident(stale.indexname);
+    END LOOP;
+END $$;
+
+-- Recommendations of the patients of a sweep chunk, replaced when it runs again
+CREATE INDEX IF NOT EXISTS recommendation_date_patient_idx ON recommendation (evaluation_date, patient_id);
+
+-- Pages of the recommendations of a date, ordered by ID
+CREATE INDEX IF NOT EXISTS recommendation_date_id_idx ON recommendation (evaluation_date, id);
@@ -0,0 +1,17 @@
+-- Keeps the entity sequences incremented by the configured block size of
+-- ${idAllocationSize}. A sequence whose increment changes first skips past the
+-- last block it handed out, so no identifier is reserved twice.
+DO $$
+DECLARE
+    stale record;
+BEGIN
+    FOR stale IN SELECT sequencename, last_value, increment_by FROM pg_sequences
+            WHERE schemaname = current_schema() AND sequencename LIKE '%\_seq'
+            AND increment_by <> ${idAllocationSize}
+    LOOP
+        IF stale.last_value IS NOT NULL THEN
+            PERFORM setval(quote_ident(stale.sequencename), stale.last_value + stale.increment_by, false);
+        END IF;
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY ${idAllocationSize}', stale.sequencename);
+    END LOOP;
+END $$;
@@ -111,7 +111,7 @@ public class ApplicationUserControllerTest {
 
 		MvcResult result = mockMvc.perform(get("/users").with(csrf().asHeader())).andExpect(status().isOk())
 			        .andExpect(content().contentType("application/json"))
-			        .andExpect(jsonPath("$.[1].username").value("test2")).andReturn();
+			        .andExpect(jsonPath("$.items[1].username").value("test2")).andReturn();
 
 		assertNotNull(result);
 	}
@@ -1,12 +1,17 @@
 package org.ts.application.api;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.application.services.ApplicationUserService;
@@ -71,6 +76,9 @@ public class EncounterControllerTest {
 	@Autowired
 	ApplicationUserService userService;
 
+	@Autowired
+	EntityManager entityManager;
+
 	Encounter encounter, encounter2, invalidEncounter, fetchedEncounter;
 
 	Patient patient;
@@ -130,11 +138,68 @@ public class EncounterControllerTest {
 
 		MvcResult result = mockMvc.perform(get("/encounters").with(csrf().asHeader()))
 		        .andExpect(status().isOk()).andExpect(content().contentType("application/json"))
-		        .andExpect(jsonPath("$.[0].patient.firstName").value("John")).andReturn();
+		        .andExpect(jsonPath("$.items[0].patientId").value(patient.getId()))
+		        .andExpect(jsonPath("$.items[0]['@id']").doesNotExist()).andReturn();
 
 		assertNotNull(result);
 	}
 
+	@Test
+	@WithMockUser
+	public void testGetEncountersByPage() throws Exception {
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter2.setPatient(patient);
+		encounterService.addEncounter(encounter);
+		encounterService.addEncounter(encounter2);
+
+		String first = mockMvc.perform(get("/encounters").param("limit", "1").with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$.items.length()").value(1))
+		        .andExpect(jsonPath("$.next").isNotEmpty()).andReturn().getResponse().getContentAsString();
+		Long firstId = ((Number) JsonPath.read(first, "$.items[0].id")).longValue();
+		String next = JsonPath.read(first, "$.next");
+
+		String second = mockMvc
+		        .perform(get("/encounters").param("limit", "1").param("after", next).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$.items.length()").value(1)).andReturn()
+		        .getResponse().getContentAsString();
+		Long secondId = ((Number) JsonPath.read(second, "$.items[0].id")).longValue();
+
+		assertTrue(secondId > firstId);
+
+		mockMvc.perform(get("/encounters").param("after", "not-a-token").with(csrf().asHeader()))
+		        .andExpect(status().isNotAcceptable());
+		mockMvc.perform(get("/encounters").param("limit", "0").with(csrf().asHeader()))
+		        .andExpect(status().isNotAcceptable());
+	}
+
+	@Test
+	@WithMockUser
+	public void testAddEncounterWithSingleInsert() throws Exception {
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		// Start from an empty persistence context so the patient is not loaded
+		entityManager.flush();
+		entityManager.clear();
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+		entityManager.flush();
+
+		assertAll(() -> assertNotNull(encounter.getId()),
+		        () -> assertEquals(patient.getId(), encounter.getPatient().getId()),
+		        () -> assertEquals(1, statistics.getEntityInsertCount()),
+		        () -> assertEquals(0, statistics.getEntityUpdateCount()),
+		        () -> assertEquals(0, statistics.getEntityLoadCount()));
+	}
+
 	@Test
 	@WithMockUser
 	public void testAddEncounter() throws Exception {
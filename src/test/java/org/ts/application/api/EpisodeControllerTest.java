@@ -159,7 +159,8 @@ public class EpisodeControllerTest {
 
 		MvcResult result = mockMvc.perform(get("/episodes").with(csrf().asHeader()))
 		        .andExpect(status().isOk()).andExpect(content().contentType("application/json"))
-		        .andExpect(jsonPath("$.[0].encounter.patient.firstName").value("John")).andReturn();
+		        .andExpect(jsonPath("$.items[0].encounterId").value(encounter.getId()))
+		        .andExpect(jsonPath("$.items[0]['@id']").doesNotExist()).andReturn();
 
 		assertNotNull(result);
 	}
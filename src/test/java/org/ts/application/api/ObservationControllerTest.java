@@ -1,10 +1,12 @@
 package org.ts.application.api;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
 import org.ts.application.exceptions.EntryNotActiveException;
@@ -13,6 +15,7 @@ import org.ts.application.services.ApplicationUserService;
 import org.ts.application.services.ConceptService;
 import org.ts.application.services.EncounterService;
 import org.ts.application.services.MetaDataService;
+import org.ts.application.services.ObservationPartitionService;
 import org.ts.application.services.ObservationService;
 import org.ts.application.services.PatientService;
 import org.ts.data.entities.ApplicationUser;
@@ -44,6 +47,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
 
@@ -84,6 +90,15 @@ public class ObservationControllerTest {
 	@Autowired
 	ApplicationUserService userService;
 
+	@Autowired
+	ObservationPartitionService observationPartitionService;
+
+	@Autowired
+	ObservationRepository observationRepository;
+
+	@Autowired
+	EntityManager entityManager;
+
 	Observation observation, observation2, invalidObservation, fetchedObservation;
 
 	Patient patient;
@@ -156,14 +171,54 @@ public class ObservationControllerTest {
 		observation2.setConcept(conceptService.getActiveConcept("Presenting condition"));
 		observation2.setConceptValue(conceptService.getActiveConcept("Chronic dehydration"));
 
-		observationService.addObservation(observation);
-		observationService.addObservation(observation2);
+		Long observationId = observationService.addObservation(observation).getId();
+		Long observation2Id = observationService.addObservation(observation2).getId();
 
 		MvcResult result = mockMvc.perform(get("/observations").with(csrf().asHeader()))
 		        .andExpect(status().isOk()).andExpect(content().contentType("application/json"))
-		        .andExpect(jsonPath("$.[0].encounter.patient.firstName").value("John")).andReturn();
+		        .andExpect(jsonPath("$.items[0].encounterId").value(encounter.getId()))
+		        .andExpect(jsonPath("$.items[0]['@id']").doesNotExist()).andReturn();
 
 		assertNotNull(result);
+
+		mockMvc.perform(get("/observations").param("from", "2020-06-16T00:00:00").param("to", "2020-06-18T00:00:00")
+		        .with(csrf().asHeader())).andExpect(status().isOk())
+		        .andExpect(jsonPath("$.items[?(@.id == " + observation2Id + ")]").exists())
+		        .andExpect(jsonPath("$.items[?(@.id == " + observationId + ")]").doesNotExist());
+
+		mockMvc.perform(get("/observations").param("from", "2020-06-16T00:00:00").with(csrf().asHeader()))
+		        .andExpect(status().isNotAcceptable());
+	}
+
+	@Test
+	@WithMockUser
+	public void testObservationSnapshotIsNotLimitedToTheEncounterMonth() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		// Observations of an encounter may be dated far from it and live in other partitions
+		observation.setEncounter(encounter);
+		observation.setObservationDate(LocalDateTime.of(2019, Month.JANUARY, 10, 8, 0));
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(38);
+		observation2.setEncounter(encounter);
+		observation2.setObservationDate(LocalDateTime.now().minusMinutes(5));
+		observation2.setConcept(conceptService.getActiveConcept("Presenting condition"));
+		observation2.setConceptValue(conceptService.getActiveConcept("Fever"));
+
+		Long observationId = observationService.addObservation(observation).getId();
+		Long observation2Id = observationService.addObservation(observation2).getId();
+
+		List<Long> snapshot = observationService
+		        .getObservationSnapshot(patient.getId(), encounter.getEncounterDate().toLocalDate()).stream()
+		        .map(Observation::getId).collect(Collectors.toList());
+		assertAll(() -> assertEquals(2, snapshot.size()), () -> assertTrue(snapshot.contains(observationId)),
+		        () -> assertTrue(snapshot.contains(observation2Id)));
 	}
 
 	@Test
@@ -204,6 +259,70 @@ public class ObservationControllerTest {
 		        () -> assertNotNull(observation.getModifiedDate()));
 	}
 
+	@Test
+	@WithMockUser
+	public void testAddObservationWithRetiredConcept() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Presenting condition"));
+		observation.setConceptValue(conceptService.getActiveConcept("Fever"));
+		observation.getConceptValue().setRetired(Lookup.RETIRED);
+		entityManager.flush();
+
+		// Only the batch endpoint checks that the concepts are active
+		mockMvc.perform(post("/observations").content(asJsonString(observation))
+		        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$.id").isNumber());
+	}
+
+	@Test
+	@WithMockUser
+	public void testAddObservations() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		Long temperatureId = conceptService.getActiveConcept("Temperature").getId();
+		String observationDate = LocalDateTime.now().minusMinutes(5).withNano(0).toString();
+		String payload = "[" + observationJson(observationDate, temperatureId, 38, encounter.getId()) + ","
+		        + observationJson(observationDate, temperatureId, 39, encounter.getId()) + ","
+		        + observationJson(observationDate, temperatureId, 40, -1L) + "]";
+
+		MvcResult result = mockMvc
+		        .perform(post("/observations/batch").content(payload).contentType(MediaType.APPLICATION_JSON)
+		                .with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(3))
+		        .andExpect(jsonPath("$[0].error").isEmpty()).andExpect(jsonPath("$[1].error").isEmpty())
+		        .andExpect(jsonPath("$[2].observationId").isEmpty()).andExpect(jsonPath("$[2].error").isNotEmpty())
+		        .andReturn();
+
+		String response = result.getResponse().getContentAsString();
+		Long observationId = ((Number) JsonPath.read(response, "$[1].observationId")).longValue();
+		Observation added = observationService.getActiveObservation(observationId);
+
+		assertAll("Properties", () -> assertTrue(added.getIntValue() == 39),
+		        () -> assertTrue(added.getEncounter().getId().equals(encounter.getId())),
+		        () -> assertTrue(observationService.getObservations(encounter.getId()).size() == 2));
+	}
+
+	@Test
+	@WithMockUser
+	public void testAddEmptyObservationBatch() throws Exception {
+		mockMvc.perform(post("/observations/batch").content("[]").contentType(MediaType.APPLICATION_JSON)
+		        .with(csrf().asHeader())).andExpect(status().isNotAcceptable());
+	}
+
 	@Test
 	@WithMockUser
 	public void testFindNonExistentObservation() throws Exception {
@@ -272,6 +391,175 @@ public class ObservationControllerTest {
 		});
 	}
 
+	@Test
+	@WithMockUser
+	public void testVoidObservationsByIds() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(38);
+		observation2.setEncounter(encounter);
+		observation2.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation2.setIntValue(39);
+
+		Long observationId = observationService.addObservation(observation).getId();
+		Long observationId2 = observationService.addObservation(observation2).getId();
+
+		String content = "{\"ids\": [" + observationId + ", " + observationId2 + "], \"reason\": \"Duplicate\"}";
+		mockMvc.perform(post("/observations/bulk/delete").content(content).contentType(MediaType.APPLICATION_JSON)
+		        .with(csrf().asHeader())).andExpect(status().isOk()).andExpect(content().string("2"));
+
+		// Entries that are already voided are left unchanged
+		mockMvc.perform(post("/observations/bulk/delete").content(content).contentType(MediaType.APPLICATION_JSON)
+		        .with(csrf().asHeader())).andExpect(status().isOk()).andExpect(content().string("0"));
+
+		Observation voided = observationRepository.findById(observationId).get();
+		assertAll(() -> assertEquals(Lookup.VOIDED, voided.getVoided()),
+		        () -> assertEquals("Duplicate", voided.getVoidedReason()),
+		        () -> assertEquals("user", voided.getLastModifiedBy()),
+		        () -> assertThrows(EntryNotFoundException.class,
+		                () -> observationService.getActiveObservation(observationId2)));
+
+		mockMvc.perform(post("/observations/bulk/delete").content("{\"ids\": []}")
+		        .contentType(MediaType.APPLICATION_JSON).with(csrf().asHeader()))
+		        .andExpect(status().isNotAcceptable());
+	}
+
+	@Test
+	@WithMockUser
+	public void testRetireObservationsOfEncounter() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(38);
+		observation2.setEncounter(encounter);
+		observation2.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation2.setIntValue(39);
+
+		Long observationId = observationService.addObservation(observation).getId();
+		observationService.addObservation(observation2);
+
+		mockMvc.perform(post("/observations/encounter/{encounterId}/retire", encounter.getId())
+		        .with(csrf().asHeader())).andExpect(status().isOk()).andExpect(content().string("2"));
+
+		assertAll(() -> assertTrue(observationService.getObservations(encounter.getId()).isEmpty()),
+		        () -> assertEquals("System operation - retired",
+		                observationRepository.findById(observationId).get().getRetiredReason()));
+	}
+
+	@Test
+	@WithMockUser
+	public void testExportObservations() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(38);
+		observation2.setEncounter(encounter);
+		observation2.setConcept(conceptService.getActiveConcept("Presenting condition"));
+		observation2.setConceptValue(conceptService.getActiveConcept("Fever"));
+
+		Long observationId = observationService.addObservation(observation).getId();
+		Long observation2Id = observationService.addObservation(observation2).getId();
+		// The export reads through JDBC, which does not flush the persistence context
+		entityManager.flush();
+
+		String csv = mockMvc
+		        .perform(get("/observations/export").param("format", "csv")
+		                .param("patientId", patient.getId().toString()).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(content().contentType("text/csv;charset=UTF-8")).andReturn()
+		        .getResponse().getContentAsString();
+		String[] lines = csv.split("\r\n");
+		assertAll(() -> assertEquals(3, lines.length), () -> assertTrue(lines[0].startsWith("id,observationDate")),
+		        () -> assertTrue(lines[1].startsWith(observationId + ",2020-06-15T13:45:00,")));
+
+		String ndjson = mockMvc
+		        .perform(get("/observations/export").param("patientId", patient.getId().toString())
+		                .param("from", "2020-06-16T00:00:00").with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(content().contentType("application/x-ndjson")).andReturn()
+		        .getResponse().getContentAsString();
+		String[] rows = ndjson.split("\n");
+		assertAll(() -> assertEquals(1, rows.length),
+		        () -> assertEquals(observation2Id, ((Number) JsonPath.read(rows[0], "$.id")).longValue()),
+		        () -> assertEquals(encounter.getId(), ((Number) JsonPath.read(rows[0], "$.encounterId")).longValue()));
+
+		mockMvc.perform(get("/observations/export").param("format", "xml").with(csrf().asHeader()))
+		        .andExpect(status().isNotAcceptable());
+	}
+
+	@Test
+	@WithMockUser
+	public void testObservationPartitions() throws Exception {
+		String currentPartition = "observation_p" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy_MM"));
+
+		mockMvc.perform(get("/observations/partitions").with(csrf().asHeader())).andExpect(status().isOk())
+		        .andExpect(jsonPath("$[?(@ == '" + currentPartition + "')]").exists())
+		        .andExpect(jsonPath("$[?(@ == 'observation_default')]").exists());
+
+		assertThrows(IllegalArgumentException.class,
+		        () -> observationPartitionService.detachPartitions(LocalDate.now().plusMonths(1)));
+	}
+
+	@Test
+	@WithMockUser
+	public void testDetachedPartitionsAreNotReadUntilAttached() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Presenting condition"));
+		observation.setConceptValue(conceptService.getActiveConcept("Fever"));
+
+		observation2.setEncounter(encounter);
+		observation2.setConcept(conceptService.getActiveConcept("Presenting condition"));
+		observation2.setConceptValue(conceptService.getActiveConcept("Chronic dehydration"));
+
+		observationPartitionService.createPartitions(LocalDate.of(2020, 6, 1), LocalDate.of(2020, 6, 1));
+		Long observationId = observationService.addObservation(observation).getId();
+		entityManager.flush();
+
+		List<String> detached = observationPartitionService.detachPartitions(LocalDate.of(2020, 7, 1));
+		assertTrue(detached.contains("observation_p2020_06"), detached.toString());
+
+		mockMvc.perform(get("/observations/encounter/{encounterId}", encounter.getId()).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+
+		// Observations of the detached month are written to the default partition meanwhile
+		Long observation2Id = observationService.addObservation(observation2).getId();
+		entityManager.flush();
+
+		assertEquals(1, observationPartitionService.attachPartition("observation_p2020_06"));
+		mockMvc.perform(get("/observations/encounter/{encounterId}", encounter.getId()).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2))
+		        .andExpect(jsonPath("$[?(@.id == " + observationId + ")]").exists())
+		        .andExpect(jsonPath("$[?(@.id == " + observation2Id + ")]").exists());
+	}
+
 	@Test
 	@WithMockUser("Peter")
 	public void testAuditing() throws Exception {
@@ -316,6 +604,11 @@ public class ObservationControllerTest {
 		        .andExpect(status().isNotAcceptable()).andReturn();
 	}
 
+	private static String observationJson(String observationDate, Long conceptId, int intValue, Long encounterId) {
+		return "{\"observationDate\": \"" + observationDate + "\", \"concept\": {\"id\": " + conceptId
+		        + "}, \"intValue\": " + intValue + ", \"encounter\": {\"id\": " + encounterId + "}}";
+	}
+
 	public static String asJsonString(final Object obj) {
 		try {
 			ObjectMapper mapper = new ObjectMapper();
@@ -1,12 +1,17 @@
 package org.ts.application.api;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import org.ts.application.exceptions.EntryNotActiveException;
 import org.ts.application.exceptions.EntryNotFoundException;
 import org.ts.application.services.ApplicationUserService;
@@ -15,10 +20,12 @@ import org.ts.application.services.EncounterService;
 import org.ts.application.services.MetaDataService;
 import org.ts.application.services.ObservationService;
 import org.ts.application.services.PatientService;
+import org.ts.application.services.RecommendationCacheService;
 import org.ts.data.entities.ApplicationUser;
 import org.ts.data.entities.Encounter;
 import org.ts.data.entities.Observation;
 import org.ts.data.entities.Patient;
+import org.ts.data.entities.RegimenCategory;
 import org.ts.data.repositories.ObservationRepository;
 import org.ts.utils.Lookup;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,6 +51,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.List;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
 
@@ -84,6 +92,12 @@ public class PatientControllerTest {
 	@Autowired
 	ApplicationUserService userService;
 
+	@Autowired
+	RecommendationCacheService recommendationCacheService;
+
+	@Autowired
+	EntityManager entityManager;
+
 	Observation observation, observation2, observation3, invalidObservation, fetchedObservation;
 
 	Patient patient;
@@ -168,6 +182,169 @@ public class PatientControllerTest {
 		assertNotNull(result);
 	}
 
+	@Test
+	@WithMockUser
+	public void testRecommendedRegimenCategoriesAreSerializedWithBoundedQueries() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(45);
+
+		observationService.addObservation(observation);
+
+		// Start from an empty persistence context so every association is loaded
+		entityManager.flush();
+		entityManager.clear();
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		boolean statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations", patient.getId()).with(csrf().asHeader()))
+		        .andExpect(status().isOk())
+		        .andExpect(jsonPath("$.[0].name").value("Fever in those with very high temperature"));
+
+		long statements = statistics.getPrepareStatementCount();
+		// The metadata cache counts rely on statistics, so their setting is restored
+		statistics.setStatisticsEnabled(statisticsEnabled);
+		assertTrue(statements <= 25, "Expected at most 25 statements but " + statements + " were prepared");
+	}
+
+	@Test
+	@WithMockUser
+	public void testGetHypotheticalRegimenCategories() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		int observationCount = observationService.getObservations().size();
+		Long temperatureId = conceptService.getActiveConcept("Temperature").getId();
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations/what-if", patient.getId())
+		        .with(csrf().asHeader()).contentType(MediaType.APPLICATION_JSON)
+		        .content("{\"observations\": [{\"conceptId\": " + temperatureId + ", \"intValue\": 45}]}"))
+		        .andExpect(status().isOk())
+		        .andExpect(jsonPath("$.[0].name").value("Fever in those with very high temperature"));
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations/what-if", patient.getId())
+		        .with(csrf().asHeader()).contentType(MediaType.APPLICATION_JSON)
+		        .content("{\"observations\": [{\"intValue\": 45}]}")).andExpect(status().isNotAcceptable());
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations/what-if", patient.getId())
+		        .with(csrf().asHeader()).contentType(MediaType.APPLICATION_JSON).content("{}"))
+		        .andExpect(status().isNotAcceptable());
+
+		assertEquals(observationCount, observationService.getObservations().size());
+	}
+
+	@Test
+	@WithMockUser
+	public void testTraceRecommendedRegimenCategories() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(45);
+		observationService.addObservation(observation);
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations", patient.getId()).param("trace", "true")
+		        .with(csrf().asHeader())).andExpect(status().isOk())
+		        .andExpect(jsonPath("$.regimenCategories[0].name").value("Fever in those with very high temperature"))
+		        .andExpect(jsonPath("$.trace.patientId").value(patient.getId()))
+		        .andExpect(jsonPath("$.trace.conditions[0].nanos").exists());
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations", patient.getId())
+		        .header("X-Recommendation-Trace", "true").with(csrf().asHeader())).andExpect(status().isOk())
+		        .andExpect(jsonPath("$.trace.categories").isArray());
+	}
+
+	@Test
+	@WithMockUser
+	public void testGetRecommendedRegimenCategoriesAsOf() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		LocalDateTime measured = LocalDateTime.now().minusHours(2);
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(45);
+		observation.setObservationDate(measured);
+		observationService.addObservation(observation);
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations", patient.getId())
+		        .param("asOf", measured.plusMinutes(1).toString()).with(csrf().asHeader()))
+		        .andExpect(status().isOk())
+		        .andExpect(jsonPath("$.[0].name").value("Fever in those with very high temperature"));
+
+		mockMvc.perform(post("/patients/{patientId}/recommendations", patient.getId())
+		        .param("asOf", measured.minusMinutes(1).toString()).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+	}
+
+	@Test
+	@WithMockUser
+	public void testGetBatchRecommendedRegimenCategories() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+		
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+		
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(45);
+
+		observationService.addObservation(observation);
+
+		MvcResult result = mockMvc.perform(post("/patients/recommendations").with(csrf().asHeader())
+		        .contentType(MediaType.APPLICATION_JSON)
+		        .content("{\"patientIds\": [" + patient.getId() + ", -1]}"))
+		        .andExpect(status().isOk()).andExpect(content().contentType("application/x-ndjson")).andReturn();
+
+		String[] lines = result.getResponse().getContentAsString().split("\n");
+		String found = lines[0].contains("\"error\":null") ? lines[0] : lines[1];
+		String missing = lines[0].contains("\"error\":null") ? lines[1] : lines[0];
+
+		assertAll(() -> assertTrue(lines.length == 2),
+		        () -> assertTrue(JsonPath.read(found, "$.patientId").toString().equals(patient.getId().toString())),
+		        () -> assertTrue(JsonPath.read(found, "$.regimenCategories[0].name")
+		                .equals("Fever in those with very high temperature")),
+		        () -> assertTrue(JsonPath.read(missing, "$.patientId").toString().equals("-1")),
+		        () -> assertNotNull(JsonPath.read(missing, "$.error")));
+	}
+
+	@Test
+	@WithMockUser
+	public void testGetBatchRecommendedRegimenCategoriesWithoutPatients() throws Exception {
+		mockMvc.perform(post("/patients/recommendations").with(csrf().asHeader())
+		        .contentType(MediaType.APPLICATION_JSON).content("{\"patientIds\": []}"))
+		        .andExpect(status().isNotAcceptable());
+	}
+
 /*	@Test
 	@WithMockUser
 	public void testGetRecommendedRegimenCategoriesWithChronicDehydration() throws Exception {
@@ -228,6 +405,46 @@ public class PatientControllerTest {
 		assertNotNull(result);
 	} */
 	
+	@Test
+	@WithMockUser
+	public void testRecommendedRegimenCategoriesAreCachedUntilObservationsChange() throws Exception {
+		metaDataService.loadDefaultMetaData();
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		encounter.setPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setIntValue(45);
+		observation.setObservationDate(LocalDateTime.now().minusMinutes(10));
+		observationService.addObservation(observation);
+
+		long hits = recommendationCacheService.getStatistics().getHitCount();
+		List<RegimenCategory> first = patientService.getRecommendedRegimenCategories(patient.getId(),
+		        LocalDateTime.now());
+		List<RegimenCategory> second = patientService.getRecommendedRegimenCategories(patient.getId(),
+		        LocalDateTime.now());
+		long hitsAfterRepeat = recommendationCacheService.getStatistics().getHitCount();
+
+		observation2.setEncounter(encounter);
+		observation2.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation2.setIntValue(39);
+		observationService.addObservation(observation2);
+
+		List<RegimenCategory> third = patientService.getRecommendedRegimenCategories(patient.getId(),
+		        LocalDateTime.now());
+
+		assertAll(() -> assertEquals("Fever in those with very high temperature", first.get(0).getName()),
+		        () -> assertEquals(first.size(), second.size()),
+		        () -> assertEquals(first.get(0).getId(), second.get(0).getId()), () -> assertEquals(hits + 1, hitsAfterRepeat),
+		        () -> assertTrue(third.stream()
+		                .noneMatch(c -> c.getName().equals("Fever in those with very high temperature"))),
+		        () -> assertEquals(hitsAfterRepeat, recommendationCacheService.getStatistics().getHitCount()));
+	}
+
 /*	@Test
 	@WithMockUser
 	public void testGetRecommendedRegimenCategories() throws Exception {
@@ -264,6 +481,31 @@ public class PatientControllerTest {
 	}*/
 
 
+	@Test
+	@WithMockUser
+	public void testGetPatientSummaries() throws Exception {
+		user = userService.addUser(user);
+		patient.setApplicationUser(user);
+		patient = patientService.addPatient(patient);
+
+		mockMvc.perform(get("/patients/active/{patientId}", patient.getId()).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$.firstName").value("John"))
+		        .andExpect(jsonPath("$.dateOfBirth").value("1987-06-15"))
+		        .andExpect(jsonPath("$.applicationUser").doesNotExist()).andExpect(jsonPath("$.voided").doesNotExist())
+		        .andExpect(jsonPath("$['@id']").doesNotExist());
+
+		String page = mockMvc.perform(get("/patients").param("limit", "1000").with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		List<Integer> ids = JsonPath.read(page, "$.items[*].id");
+		assertTrue(ids.contains(patient.getId().intValue()));
+
+		patientService.retirePatient(patient.getId());
+		mockMvc.perform(get("/patients/active/{patientId}", patient.getId()).with(csrf().asHeader()))
+		        .andExpect(status().isLocked());
+		mockMvc.perform(get("/patients/active/{patientId}", -1L).with(csrf().asHeader()))
+		        .andExpect(status().isNotFound());
+	}
+
 	public static String asJsonString(final Object obj) {
 		try {
 			ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,286 @@
+package org.ts.application.api;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.ts.application.engine.PatientRecommendation;
+import org.ts.application.engine.RecommendedCategory;
+import org.ts.application.services.ApplicationUserService;
+import org.ts.application.services.PatientService;
+import org.ts.application.services.RecommendationService;
+import org.ts.data.entities.ApplicationUser;
+import org.ts.data.entities.Patient;
+import org.ts.data.entities.Recommendation;
+import org.ts.data.entities.RecommendationSweep;
+import org.ts.data.repositories.RecommendationRepository;
+import org.ts.data.repositories.RecommendationSweepRepository;
+import org.ts.utils.Lookup;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Integration tests for {@link RecommendationController} and the
+ * recommendation sweep.
+ * <p>
+ * A sweep commits every chunk in a transaction of its own, so the patients of
+ * these tests are committed as well and deleted after each test. Patients are
+ * evaluated by a stub of the recommendation engine.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureMockMvc
+@TestPropertySource(properties = { "recommendations.sweep.enabled=false", "recommendations.sweep.chunk-size=2" })
+@WithMockUser
+public class RecommendationControllerTest {
+
+	private static final RecommendedCategory CATEGORY = new RecommendedCategory(1L, "First line");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@SpyBean
+	PatientService patientService;
+
+	@Autowired
+	ApplicationUserService userService;
+
+	@Autowired
+	RecommendationService recommendationService;
+
+	@Autowired
+	RecommendationRepository recommendationRepository;
+
+	@Autowired
+	RecommendationSweepRepository sweepRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	// Far from the dates of other tests, so that only the rows of these tests are read
+	LocalDate evaluationDate = LocalDate.of(2031, Month.JANUARY, 1);
+
+	List<Long> patientIds = new ArrayList<>();
+
+	List<Long> evaluatedIds = Collections.synchronizedList(new ArrayList<>());
+
+	Long userId;
+
+	@BeforeEach
+	void init() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			ApplicationUser user = new ApplicationUser("sweep1", "password1", "Sweep User1");
+			user.setRetired(Lookup.NOT_RETIRED);
+			user.setVoided(Lookup.NOT_VOIDED);
+			user = userService.addUser(user);
+			userId = user.getId();
+
+			for (int i = 0; i < 3; i++) {
+				Patient patient = new Patient("John" + i, "", "Smith");
+				patient.setAddressLine1("Address 1");
+				patient.setCountry("UK");
+				patient.setGender("M");
+				patient.setEmail("email" + i + "@email.com");
+				patient.setDateOfBirth(LocalDate.of(1987, Month.JUNE, 15));
+				patient.setApplicationUser(user);
+				patient.setRetired(Lookup.NOT_RETIRED);
+				patient.setVoided(Lookup.NOT_VOIDED);
+				patientIds.add(patientService.addPatient(patient).getId());
+			}
+		});
+		stubEvaluation(ids -> {
+		});
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM recommendation WHERE evaluation_date = ?", evaluationDate);
+		jdbcTemplate.update("DELETE FROM recommendation_sweep WHERE evaluation_date = ?", evaluationDate);
+		for (Long patientId : patientIds) {
+			jdbcTemplate.update("DELETE FROM patient WHERE id = ?", patientId);
+		}
+		jdbcTemplate.update("DELETE FROM application_user WHERE id = ?", userId);
+	}
+
+	@Test
+	public void testSweepRecordsProgressAndThroughput() throws Exception {
+		// The second patient cannot be evaluated
+		stubEvaluation(ids -> {
+		}, patientIds.get(1));
+
+		mockMvc.perform(post("/recommendations/sweep").param("date", evaluationDate.toString())
+		        .with(csrf().asHeader())).andExpect(status().isOk())
+		        .andExpect(jsonPath("$.status").value(Lookup.SWEEP_COMPLETED));
+
+		RecommendationSweep sweep = sweepRepository.findFirstByEvaluationDateOrderByIdDesc(evaluationDate).get();
+		assertAll(() -> assertEquals(patientIds.get(2), sweep.getLastPatientId()),
+		        () -> assertEquals(1, sweep.getPatientsFailed()),
+		        () -> assertEquals(sweep.getPatientsEvaluated(), sweep.getRecommendationsWritten()),
+		        () -> assertTrue(sweep.getPatientsEvaluated() >= 2),
+		        () -> assertTrue(sweep.getDurationMillis() >= 0), () -> assertNotNull(sweep.getFinishedDate()),
+		        () -> assertEquals(sweep.getDurationMillis() == 0 ? 0.0
+		                : sweep.getPatientsEvaluated() * 1000.0 / sweep.getDurationMillis(),
+		                sweep.getPatientsPerSecond(), 0.001));
+		assertAll(() -> assertEquals(1, recommendationsOf(patientIds.get(0)).size()),
+		        () -> assertTrue(recommendationsOf(patientIds.get(1)).isEmpty()));
+	}
+
+	@Test
+	public void testFailedSweepIsResumedAfterTheLastPatient() throws Exception {
+		Long lastPatientId = patientIds.get(2);
+		stubEvaluation(ids -> {
+			if (ids.contains(lastPatientId)) {
+				throw new IllegalStateException("Evaluation failed");
+			}
+		});
+
+		assertThrows(IllegalStateException.class, () -> recommendationService.runSweep(evaluationDate));
+		RecommendationSweep failed = sweepRepository.findFirstByEvaluationDateOrderByIdDesc(evaluationDate).get();
+		assertAll(() -> assertEquals(Lookup.SWEEP_FAILED, failed.getStatus()),
+		        () -> assertTrue(failed.getLastPatientId() < lastPatientId));
+
+		stubEvaluation(ids -> {
+		});
+		evaluatedIds.clear();
+		mockMvc.perform(post("/recommendations/sweep").param("date", evaluationDate.toString())
+		        .with(csrf().asHeader())).andExpect(status().isOk())
+		        .andExpect(jsonPath("$.id").value(failed.getId()))
+		        .andExpect(jsonPath("$.status").value(Lookup.SWEEP_COMPLETED));
+
+		assertTrue(evaluatedIds.contains(lastPatientId), evaluatedIds.toString());
+		assertTrue(evaluatedIds.stream().allMatch(id -> id > failed.getLastPatientId()), evaluatedIds.toString());
+		for (Long patientId : patientIds) {
+			assertEquals(1, recommendationsOf(patientId).size());
+		}
+	}
+
+	@Test
+	public void testRerunOfAChunkReplacesItsRecommendations() throws Exception {
+		// Left behind by a run interrupted after writing the chunk of the patient
+		Recommendation stale = new Recommendation(patientIds.get(0), evaluationDate, CATEGORY.getId(),
+		        CATEGORY.getName());
+		recommendationRepository.save(stale);
+
+		RecommendationSweep sweep = recommendationService.runSweep(evaluationDate);
+
+		List<Recommendation> recommendations = recommendationsOf(patientIds.get(0));
+		assertAll(() -> assertEquals(Lookup.SWEEP_COMPLETED, sweep.getStatus()),
+		        () -> assertEquals(1, recommendations.size()),
+		        () -> assertEquals(sweep.getId(), recommendations.get(0).getSweepId()));
+	}
+
+	@Test
+	public void testConcurrentSweepIsRejected() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		stubEvaluation(ids -> {
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		CompletableFuture<RecommendationSweep> running = CompletableFuture
+		        .supplyAsync(() -> recommendationService.runSweep(evaluationDate));
+		try {
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+			mockMvc.perform(post("/recommendations/sweep").param("date", evaluationDate.toString())
+			        .with(csrf().asHeader())).andExpect(status().isConflict());
+		} finally {
+			release.countDown();
+		}
+		assertEquals(Lookup.SWEEP_COMPLETED, running.get(10, TimeUnit.SECONDS).getStatus());
+	}
+
+	@Test
+	public void testGetRecommendationsIsPaged() throws Exception {
+		recommendationService.runSweep(evaluationDate);
+
+		String firstPage = mockMvc
+		        .perform(get("/recommendations").param("date", evaluationDate.toString()).param("limit", "2")
+		                .with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andExpect(jsonPath("$.items.length()").value(2))
+		        .andExpect(jsonPath("$.next").isNotEmpty()).andReturn().getResponse().getContentAsString();
+		String next = JsonPath.read(firstPage, "$.next");
+		List<Number> firstIds = JsonPath.read(firstPage, "$.items[*].id");
+
+		String secondPage = mockMvc
+		        .perform(get("/recommendations").param("date", evaluationDate.toString()).param("limit", "2")
+		                .param("after", next).with(csrf().asHeader()))
+		        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		List<Number> secondIds = JsonPath.read(secondPage, "$.items[*].id");
+		assertTrue(!secondIds.isEmpty() && secondIds.get(0).longValue() > firstIds.get(1).longValue(),
+		        firstIds + " " + secondIds);
+
+		mockMvc.perform(get("/recommendations").param("limit", "0").with(csrf().asHeader()))
+		        .andExpect(status().isNotAcceptable());
+	}
+
+	/**
+	 * Evaluates every patient with one recommended category, after running the
+	 * given action on the IDs of each chunk. The patients given as failing are
+	 * reported with an error.
+	 */
+	private void stubEvaluation(Consumer<List<Long>> action, Long... failing) {
+		List<Long> failingIds = Arrays.asList(failing);
+		doAnswer(invocation -> {
+			List<Long> ids = invocation.getArgument(0);
+			Consumer<PatientRecommendation> consumer = invocation.getArgument(2);
+			action.accept(ids);
+			evaluatedIds.addAll(ids);
+			for (Long id : ids) {
+				consumer.accept(failingIds.contains(id) ? PatientRecommendation.failed(id, "Evaluation failed")
+				        : PatientRecommendation.of(id, Collections.singletonList(CATEGORY)));
+			}
+			return null;
+		}).when(patientService).getRecommendedRegimenCategories(anyList(), any(LocalDateTime.class), any());
+	}
+
+	private List<Recommendation> recommendationsOf(Long patientId) {
+		return recommendationService.getRecommendations(patientId, evaluationDate);
+	}
+}
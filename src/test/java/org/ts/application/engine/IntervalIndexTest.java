@@ -0,0 +1,53 @@
+package org.ts.application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IntervalIndex}.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+public class IntervalIndexTest {
+
+	@Test
+	public void testStabMatchesLinearScan() {
+		Random random = new Random(42);
+		int count = 300;
+		int[] lowerBounds = new int[count];
+		int[] upperBounds = new int[count];
+		int[] slots = IntStream.range(0, count).toArray();
+		for (int i = 0; i < count; i++) {
+			lowerBounds[i] = random.nextInt(100) - 10;
+			upperBounds[i] = lowerBounds[i] + random.nextInt(30) - 2;
+		}
+		lowerBounds[0] = Integer.MIN_VALUE;
+		upperBounds[1] = Integer.MAX_VALUE;
+
+		IntervalIndex index = IntervalIndex.build(lowerBounds, upperBounds, slots);
+
+		for (int value = -20; value <= 130; value++) {
+			final int v = value;
+			int[] expected = IntStream.range(0, count).filter(i -> lowerBounds[i] <= v && v <= upperBounds[i])
+			        .toArray();
+			int[] actual = index.stab(value);
+			Arrays.sort(actual);
+			assertArrayEquals(expected, actual, "value " + value);
+		}
+	}
+
+	@Test
+	public void testEmptyIntervalsAreIgnored() {
+		IntervalIndex index = IntervalIndex.build(new int[] { 5, 1 }, new int[] { 4, 3 }, new int[] { 0, 1 });
+
+		assertEquals(1, index.size());
+		assertArrayEquals(new int[] { 1 }, index.stab(2));
+	}
+}
@@ -0,0 +1,170 @@
+package org.ts.application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ts.data.entities.Concept;
+import org.ts.data.entities.Condition;
+import org.ts.data.entities.RegimenCategory;
+import org.ts.utils.Lookup;
+
+/**
+ * Unit tests for {@link RecommendationIndex}.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+public class RecommendationIndexTest {
+
+	Concept temperature, age, presentingCondition, dehydration;
+
+	Condition from38, upTo40, from40, ageFrom10, presentingWithDehydration;
+
+	RegimenCategory highTemperature, veryHighTemperature, dehydrated;
+
+	@BeforeEach
+	void init() {
+		temperature = concept(1L, "Temperature");
+		age = concept(2L, Lookup.AGE_CONCEPT);
+		presentingCondition = concept(3L, "Presenting condition");
+		dehydration = concept(4L, "Chronic dehydration");
+
+		from38 = integerCondition(10L, temperature, Lookup.GREATER_OR_EQUAL, 38);
+		upTo40 = integerCondition(11L, temperature, Lookup.LESS, 40);
+		from40 = integerCondition(12L, temperature, Lookup.GREATER_OR_EQUAL, 40);
+		ageFrom10 = integerCondition(13L, age, Lookup.GREATER_OR_EQUAL, 10);
+
+		presentingWithDehydration = new Condition();
+		presentingWithDehydration.setId(14L);
+		presentingWithDehydration.setConditionType(Lookup.CONCEPT_CONDITION);
+		presentingWithDehydration.setConcept(presentingCondition);
+		presentingWithDehydration.setConceptValue(dehydration);
+
+		highTemperature = category(20L, "High temperature", from38, upTo40, ageFrom10);
+		veryHighTemperature = category(21L, "Very high temperature", from40);
+		dehydrated = category(22L, "Dehydrated", from38, upTo40, presentingWithDehydration);
+	}
+
+	@Test
+	public void testSharedConditionsAreCompiledOnce() {
+		RecommendationIndex index = RecommendationIndex
+		        .compile(Arrays.asList(dehydrated, veryHighTemperature, highTemperature));
+
+		assertAll(() -> assertEquals(5, index.getConditions().size()),
+		        () -> assertEquals(Arrays.asList(20L, 21L, 22L), Arrays.asList(index.getCategories().get(0).getCategoryId(),
+		                index.getCategories().get(1).getCategoryId(), index.getCategories().get(2).getCategoryId())));
+	}
+
+	@Test
+	public void testEvaluate() {
+		RecommendationIndex index = RecommendationIndex
+		        .compile(Arrays.asList(highTemperature, veryHighTemperature, dehydrated));
+
+		PatientFacts child = new PatientFacts(1L, 10);
+		child.addObservation(new ObservationFact(1L, 1L, null, 39, LocalDateTime.now().minusHours(2)));
+
+		PatientFacts feverish = new PatientFacts(2L, 30);
+		feverish.addObservation(new ObservationFact(2L, 1L, null, 39, LocalDateTime.now().minusHours(2)));
+		feverish.addObservation(new ObservationFact(3L, 1L, null, 41, LocalDateTime.now().minusHours(1)));
+
+		PatientFacts dehydratedPatient = new PatientFacts(3L, 5);
+		dehydratedPatient.addObservation(new ObservationFact(4L, 1L, null, 38, LocalDateTime.now()));
+		dehydratedPatient.addObservation(new ObservationFact(5L, 3L, 4L, 0, LocalDateTime.now()));
+
+		assertAll(() -> assertEquals(Collections.singletonList(20L), index.evaluate(child)),
+		        () -> assertEquals(Collections.singletonList(21L), index.evaluate(feverish)),
+		        () -> assertEquals(Collections.singletonList(22L), index.evaluate(dehydratedPatient)),
+		        () -> assertTrue(index.evaluate(new PatientFacts(4L, 30)).isEmpty()));
+	}
+
+	@Test
+	public void testEvaluateAgreesWithFullEvaluation() {
+		RecommendationIndex index = RecommendationIndex
+		        .compile(Arrays.asList(highTemperature, veryHighTemperature, dehydrated));
+		Random random = new Random(7);
+
+		for (int i = 0; i < 500; i++) {
+			PatientFacts facts = new PatientFacts((long) i, random.nextInt(20));
+			facts.addObservation(new ObservationFact(1L, 1L, null, 35 + random.nextInt(8), LocalDateTime.now()));
+			if (random.nextBoolean()) {
+				facts.addObservation(new ObservationFact(2L, 3L, 4L, 0, LocalDateTime.now()));
+			}
+
+			boolean[] satisfied = index.evaluateConditions(facts);
+			List<Long> expected = index.getCategories().stream()
+			        .filter(c -> Arrays.stream(c.getConditionSlots()).allMatch(slot -> satisfied[slot]))
+			        .map(CompiledCategory::getCategoryId).collect(Collectors.toList());
+			assertEquals(expected, index.evaluate(facts));
+		}
+	}
+
+	@Test
+	public void testConditionsThatUsuallyFailAreEvaluatedFirst() {
+		RecommendationIndex index = RecommendationIndex.compile(Collections.singletonList(highTemperature));
+		int from38Slot = index.getConditions().stream().filter(c -> c.getConditionId().equals(from38.getId()))
+		        .findFirst().get().getSlot();
+
+		for (int i = 0; i < ConditionStatistics.REORDER_INTERVAL; i++) {
+			PatientFacts facts = new PatientFacts((long) i, 30);
+			facts.addObservation(new ObservationFact(1L, 1L, null, 36, LocalDateTime.now()));
+			assertTrue(index.evaluate(facts).isEmpty());
+		}
+
+		assertEquals(from38Slot, index.getEvaluationOrder(0)[0]);
+	}
+
+	@Test
+	public void testTraceRecordsConditionAndCategoryOutcomes() {
+		RecommendationIndex index = RecommendationIndex.compile(Arrays.asList(highTemperature, veryHighTemperature));
+
+		PatientFacts facts = new PatientFacts(1L, 30);
+		facts.addObservation(new ObservationFact(1L, 1L, null, 41, LocalDateTime.now()));
+		EvaluationTrace trace = index.trace(facts);
+
+		EvaluationTrace.CategoryOutcome high = trace.getCategories().get(0);
+		EvaluationTrace.CategoryOutcome veryHigh = trace.getCategories().get(1);
+		assertAll(() -> assertEquals(index.evaluate(facts), Collections.singletonList(veryHigh.getCategoryId())),
+		        () -> assertFalse(high.isMatched()), () -> assertEquals(upTo40.getId(), high.getFailedConditionId()),
+		        () -> assertTrue(veryHigh.isMatched()),
+		        () -> assertTrue(trace.getConditions().stream()
+		                .anyMatch(c -> c.getConditionId().equals(from40.getId()) && c.isSatisfied()
+		                        && c.getObservedValue() == 41 && c.getLowerBound() == 40)));
+	}
+
+	private Concept concept(Long id, String name) {
+		Concept concept = new Concept();
+		concept.setId(id);
+		concept.setName(name);
+		return concept;
+	}
+
+	private Condition integerCondition(Long id, Concept concept, int relator, int value) {
+		Condition condition = new Condition();
+		condition.setId(id);
+		condition.setConditionType(Lookup.INTEGER_CONDITION);
+		condition.setConcept(concept);
+		condition.setRelator(relator);
+		condition.setIntValue(value);
+		return condition;
+	}
+
+	private RegimenCategory category(Long id, String name, Condition... conditions) {
+		RegimenCategory category = new RegimenCategory();
+		category.setId(id);
+		category.setName(name);
+		List<Condition> list = Arrays.asList(conditions);
+		category.getCondition().addAll(list);
+		return category;
+	}
+}
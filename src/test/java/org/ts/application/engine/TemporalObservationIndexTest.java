@@ -0,0 +1,66 @@
+package org.ts.application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TemporalObservationIndex}.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+public class TemporalObservationIndexTest {
+
+	LocalDateTime start = LocalDateTime.of(2020, 8, 1, 8, 0);
+
+	@Test
+	public void testLatestMatchesLinearScan() {
+		Random random = new Random(42);
+		List<ObservationFact> facts = new ArrayList<>();
+		TemporalObservationIndex.Builder builder = TemporalObservationIndex.builder();
+		for (long i = 0; i < 200; i++) {
+			ObservationFact fact = new ObservationFact(i, 1L, null, random.nextInt(50),
+			        start.plusMinutes(random.nextInt(1000)));
+			facts.add(fact);
+			builder.add(7L, fact);
+		}
+		TemporalObservationIndex index = builder.build();
+
+		for (int minute = -10; minute < 1010; minute += 3) {
+			LocalDateTime asOf = start.plusMinutes(minute);
+			ObservationFact expected = null;
+			for (ObservationFact fact : facts) {
+				if (!fact.getObservationDate().isAfter(asOf) && fact.isMoreRecentThan(expected)) {
+					expected = fact;
+				}
+			}
+			assertSame(expected, index.getLatest(7L, 1L, asOf), "as of minute " + minute);
+		}
+	}
+
+	@Test
+	public void testFactsAsOf() {
+		ObservationFact temperature = new ObservationFact(1L, 1L, null, 39, start);
+		ObservationFact laterTemperature = new ObservationFact(2L, 1L, null, 41, start.plusHours(2));
+		ObservationFact presenting = new ObservationFact(3L, 2L, 5L, 0, start.plusHours(1));
+		TemporalObservationIndex index = TemporalObservationIndex.builder().add(7L, temperature)
+		        .add(7L, laterTemperature).add(7L, presenting).add(8L, temperature).build();
+
+		PatientFacts facts = index.getFacts(7L, 30, start.plusMinutes(90));
+
+		assertAll(() -> assertEquals(30, facts.getAge()), () -> assertEquals(2, facts.getObservations().size()),
+		        () -> assertSame(temperature, facts.getObservation(1L)),
+		        () -> assertSame(presenting, facts.getObservation(2L)),
+		        () -> assertNull(index.getLatest(7L, 1L, start.minusMinutes(1))),
+		        () -> assertNull(index.getLatest(9L, 1L, start)));
+	}
+}
@@ -0,0 +1,123 @@
+package org.ts.application.engine;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ts.data.entities.Concept;
+import org.ts.data.entities.Condition;
+import org.ts.data.entities.RegimenCategory;
+import org.ts.utils.Lookup;
+
+/**
+ * Unit tests for {@link WorkingMemory}.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+public class WorkingMemoryTest {
+
+	RecommendationIndex index;
+
+	LocalDateTime now;
+
+	@BeforeEach
+	void init() {
+		Concept temperature = concept(1L, "Temperature");
+		Concept age = concept(2L, Lookup.AGE_CONCEPT);
+
+		Condition from38 = integerCondition(10L, temperature, Lookup.GREATER_OR_EQUAL, 38);
+		Condition upTo40 = integerCondition(11L, temperature, Lookup.LESS, 40);
+		Condition from40 = integerCondition(12L, temperature, Lookup.GREATER_OR_EQUAL, 40);
+		Condition ageFrom10 = integerCondition(13L, age, Lookup.GREATER_OR_EQUAL, 10);
+
+		index = RecommendationIndex.compile(Arrays.asList(category(20L, "High temperature", from38, upTo40, ageFrom10),
+		        category(21L, "Very high temperature", from40)));
+		now = LocalDateTime.now();
+	}
+
+	@Test
+	public void testAssertedObservationsKeepMatchesCurrent() {
+		WorkingMemory memory = new RecommendationNetwork(index).createMemory(new PatientFacts(1L, 30));
+		assertTrue(memory.getMatchingCategoryIds().isEmpty());
+
+		assertTrue(memory.assertObservation(new ObservationFact(1L, 1L, null, 39, now.minusHours(2))));
+		assertEquals(Collections.singletonList(20L), memory.getMatchingCategoryIds());
+
+		assertTrue(memory.assertObservation(new ObservationFact(2L, 1L, null, 41, now.minusHours(1))));
+		assertEquals(Collections.singletonList(21L), memory.getMatchingCategoryIds());
+
+		// Older observations do not replace the most recent fact of a concept
+		assertFalse(memory.assertObservation(new ObservationFact(3L, 1L, null, 38, now.minusHours(3))));
+		assertEquals(Collections.singletonList(21L), memory.getMatchingCategoryIds());
+	}
+
+	@Test
+	public void testHighestIdWinsAtTheSameTime() {
+		ObservationFact older = new ObservationFact(1L, 1L, null, 41, now);
+		ObservationFact newer = new ObservationFact(2L, 1L, null, 39, now);
+
+		WorkingMemory memory = new RecommendationNetwork(index).createMemory(new PatientFacts(1L, 30));
+		assertTrue(memory.assertObservation(newer));
+		assertFalse(memory.assertObservation(older));
+		assertEquals(Collections.singletonList(20L), memory.getMatchingCategoryIds());
+
+		// Asserted in the other order, or loaded at once, the same fact is held
+		WorkingMemory reversed = new RecommendationNetwork(index).createMemory(new PatientFacts(1L, 30));
+		assertTrue(reversed.assertObservation(older));
+		assertTrue(reversed.assertObservation(newer));
+		PatientFacts facts = new PatientFacts(1L, 30);
+		facts.addObservation(older);
+		facts.addObservation(newer);
+		WorkingMemory loaded = new RecommendationNetwork(index).createMemory(facts);
+		assertAll(() -> assertEquals(Collections.singletonList(20L), reversed.getMatchingCategoryIds()),
+		        () -> assertEquals(Collections.singletonList(20L), loaded.getMatchingCategoryIds()));
+
+		// A fact without an ID, such as a hypothetical one, is older
+		assertFalse(memory.assertObservation(new ObservationFact(null, 1L, null, 41, now)));
+	}
+
+	@Test
+	public void testMemoryMatchesFullEvaluation() {
+		PatientFacts facts = new PatientFacts(1L, 5);
+		facts.addObservation(new ObservationFact(1L, 1L, null, 39, now.minusHours(2)));
+		WorkingMemory memory = new RecommendationNetwork(index).createMemory(facts);
+		memory.assertObservation(new ObservationFact(2L, 1L, null, 40, now));
+		facts.addObservation(new ObservationFact(2L, 1L, null, 40, now));
+
+		assertAll(() -> assertEquals(index.evaluate(facts), memory.getMatchingCategoryIds()),
+		        () -> assertEquals(index.getVersion(), memory.getVersion()));
+	}
+
+	private Concept concept(Long id, String name) {
+		Concept concept = new Concept();
+		concept.setId(id);
+		concept.setName(name);
+		return concept;
+	}
+
+	private Condition integerCondition(Long id, Concept concept, int relator, int value) {
+		Condition condition = new Condition();
+		condition.setId(id);
+		condition.setConditionType(Lookup.INTEGER_CONDITION);
+		condition.setConcept(concept);
+		condition.setRelator(relator);
+		condition.setIntValue(value);
+		return condition;
+	}
+
+	private RegimenCategory category(Long id, String name, Condition... conditions) {
+		RegimenCategory category = new RegimenCategory();
+		category.setId(id);
+		category.setName(name);
+		category.getCondition().addAll(Arrays.asList(conditions));
+		return category;
+	}
+}
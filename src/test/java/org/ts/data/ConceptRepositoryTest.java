@@ -5,12 +5,15 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.Set;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
+import org.ts.application.services.MetaDataService;
 import org.ts.data.entities.Concept;
 import org.ts.data.repositories.ConceptRepository;
 import org.ts.utils.Lookup;
@@ -42,6 +45,12 @@ public class ConceptRepositoryTest {
 	@Autowired
 	private Validator validator;
 
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	MetaDataService metaDataService;
+
 	Concept concept, invalidConcept, fetchedConcept;
 
 	int FALSE = 0;
@@ -98,6 +107,51 @@ public class ConceptRepositoryTest {
 			);
 	}
 
+	@Test
+	@WithMockUser
+	public void testFindByActiveFlags() {
+		concept = repository.save(concept);
+		Concept retiredConcept = new Concept();
+		retiredConcept.setName("Concept Name1");
+		retiredConcept.setRetired(Lookup.RETIRED);
+		retiredConcept.setVoided(Lookup.NOT_VOIDED);
+		retiredConcept = repository.save(retiredConcept);
+		final Long retiredId = retiredConcept.getId();
+
+		List<Concept> active = repository.findByActiveFlags(Lookup.NOT_VOIDED, Lookup.NOT_RETIRED);
+		List<Concept> named = repository.findByNameAndActiveFlags("Concept Name1", Lookup.NOT_VOIDED,
+		        Lookup.NOT_RETIRED);
+
+		assertAll("Properties",
+				() -> assertTrue(active.stream().anyMatch(c -> c.getId().equals(concept.getId()))),
+				() -> assertFalse(active.stream().anyMatch(c -> c.getId().equals(retiredId))),
+				() -> assertTrue(named.size() == 1 && named.get(0).getId().equals(concept.getId())),
+				() -> {
+					for (int i = 1; i < active.size(); i++) {
+						assertTrue(active.get(i - 1).getId() < active.get(i).getId());
+					}
+				}
+			);
+	}
+
+	@Test
+	@WithMockUser
+	public void testConceptsAreReadFromSecondLevelCache() {
+		concept = repository.save(concept);
+		entityManager.flush();
+		entityManager.clear();
+		repository.findById(concept.getId());
+		entityManager.clear();
+
+		long hits = metaDataService.getCacheStatistics().getHitCount();
+		fetchedConcept = repository.findById(concept.getId()).orElse(null);
+
+		assertAll("Properties",
+				() -> assertNotNull(fetchedConcept),
+				() -> assertTrue(metaDataService.getCacheStatistics().getHitCount() > hits)
+			);
+	}
+
 	@Test
 	@WithMockUser
 	public void testConstraintViolations() {
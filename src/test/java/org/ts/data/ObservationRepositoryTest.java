@@ -0,0 +1,137 @@
+package org.ts.data;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Collections;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.ts.application.services.ApplicationUserService;
+import org.ts.application.services.ConceptService;
+import org.ts.application.services.EncounterService;
+import org.ts.application.services.MetaDataService;
+import org.ts.application.services.PatientService;
+import org.ts.data.entities.ApplicationUser;
+import org.ts.data.entities.Encounter;
+import org.ts.data.entities.Observation;
+import org.ts.data.entities.Patient;
+import org.ts.data.repositories.ObservationRepository;
+import org.ts.utils.Lookup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+/**
+ * Integration tests for {@link ObservationRepository}.
+ * 
+ * @author Yamiko Msosa
+ *
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ObservationRepositoryTest {
+
+	@Autowired
+	ObservationRepository repository;
+
+	@Autowired
+	MetaDataService metaDataService;
+
+	@Autowired
+	ConceptService conceptService;
+
+	@Autowired
+	PatientService patientService;
+
+	@Autowired
+	EncounterService encounterService;
+
+	@Autowired
+	ApplicationUserService userService;
+
+	Patient patient;
+
+	Encounter encounter, laterEncounter;
+
+	LocalDateTime from, to;
+
+	@BeforeEach
+	void init() {
+		from = LocalDate.of(2020, Month.JUNE, 15).atStartOfDay();
+		to = from.plusDays(1);
+
+		ApplicationUser user = new ApplicationUser("test1", "password1", "Test User1");
+		user.setRetired(Lookup.NOT_RETIRED);
+		user.setVoided(Lookup.NOT_VOIDED);
+
+		patient = new Patient("John", "", "Smith");
+		patient.setAddressLine1("Address 1");
+		patient.setCountry("UK");
+		patient.setGender("M");
+		patient.setEmail("email@email.com");
+		patient.setDateOfBirth(LocalDate.of(1987, Month.JUNE, 15));
+		patient.setApplicationUser(user);
+		patient.setRetired(Lookup.NOT_RETIRED);
+		patient.setVoided(Lookup.NOT_VOIDED);
+
+		encounter = new Encounter();
+		encounter.setEncounterDate(from.withHour(9));
+		encounter.setPatient(patient);
+		encounter.setRetired(Lookup.NOT_RETIRED);
+		encounter.setVoided(Lookup.NOT_VOIDED);
+
+		laterEncounter = new Encounter();
+		laterEncounter.setEncounterDate(from.plusDays(5).withHour(9));
+		laterEncounter.setPatient(patient);
+		laterEncounter.setRetired(Lookup.NOT_RETIRED);
+		laterEncounter.setVoided(Lookup.NOT_VOIDED);
+	}
+
+	@Test
+	@WithMockUser
+	public void testLatestObservationPerConcept() {
+		metaDataService.loadDefaultMetaData();
+		patient.setApplicationUser(userService.addUser(patient.getApplicationUser()));
+		patient = patientService.addPatient(patient);
+		encounter = encounterService.addEncounter(encounter);
+		laterEncounter = encounterService.addEncounter(laterEncounter);
+
+		addTemperature(encounter, from.withHour(10), 37, Lookup.NOT_VOIDED);
+		addTemperature(encounter, from.withHour(12), 38, Lookup.NOT_VOIDED);
+		// Made at the same date as the one before, the higher ID wins
+		Long latestId = addTemperature(encounter, from.withHour(12), 39, Lookup.NOT_VOIDED).getId();
+		addTemperature(encounter, from.withHour(13), 40, Lookup.VOIDED);
+		// Later, but of an encounter outside of the encounter period
+		addTemperature(laterEncounter, from.plusDays(5).withHour(10), 41, Lookup.NOT_VOIDED);
+
+		List<Observation> latest = repository.findLatestPerConceptByPatient(patient.getId(), Lookup.NOT_VOIDED,
+		        Lookup.NOT_RETIRED, from, to);
+		assertAll(() -> assertEquals(1, latest.size()), () -> assertEquals(latestId, latest.get(0).getId()),
+		        () -> assertEquals(39, latest.get(0).getIntValue()));
+
+		List<Observation> latestOfPatients = repository.findLatestPerConceptByPatients(
+		        Collections.singleton(patient.getId()), Lookup.NOT_VOIDED, Lookup.NOT_RETIRED, from, to);
+		assertAll(() -> assertEquals(1, latestOfPatients.size()),
+		        () -> assertEquals(latestId, latestOfPatients.get(0).getId()));
+	}
+
+	private Observation addTemperature(Encounter encounter, LocalDateTime observationDate, int value, int voided) {
+		Observation observation = new Observation();
+		observation.setEncounter(encounter);
+		observation.setConcept(conceptService.getActiveConcept("Temperature"));
+		observation.setObservationDate(observationDate);
+		observation.setIntValue(value);
+		observation.setRetired(Lookup.NOT_RETIRED);
+		observation.setVoided(voided);
+		return repository.save(observation);
+	}
+}
@@ -0,0 +1,40 @@
+package org.ts.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.ts.data.entities.PooledSequenceGenerator;
+
+/**
+ * Integration tests checking that every entity has a sequence of its own,
+ * incremented by the block size of the identifier generator.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PooledSequenceTest {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void testEntitySequencesAreIncrementedByAllocationSize() {
+		for (String table : new String[] { "application_user", "patient", "encounter", "observation", "episode",
+		        "concept", "recommendation" }) {
+			Long increment = jdbcTemplate.queryForObject(
+			        "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+			        Long.class, table + "_seq");
+
+			assertEquals(PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE, increment.intValue(), table);
+		}
+	}
+}
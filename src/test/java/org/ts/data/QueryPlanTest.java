@@ -0,0 +1,122 @@
+package org.ts.data;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests checking that the queries of the services are planned
+ * with the indexes created by the schema migrations.
+ * <p>
+ * The test tables are small enough for a sequential scan to be the cheapest
+ * plan, so sequential scans are disabled for the transaction of each test.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class QueryPlanTest {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void init() {
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+	}
+
+	@Test
+	public void testLatestObservationPerConceptUsesIndex() {
+		String plan = explain("SELECT o.* FROM observation o JOIN encounter e ON o.encounter_id = e.id "
+		        + "WHERE e.patient_id = 1 AND e.encounter_date >= now() - interval '1 day' "
+		        + "AND e.voided = 0 AND e.retired = 0 AND o.voided = 0 AND o.retired = 0 "
+		        + "AND o.concept_id = 1 ORDER BY o.observation_date DESC LIMIT 1");
+
+		assertAll(() -> assertTrue(plan.contains("encounter_active_patient_date_idx"), plan),
+		        () -> assertTrue(plan.contains("_active_encounter_concept_date_idx"), plan));
+	}
+
+	@Test
+	public void testObservationsOfAMonthArePrunedToItsPartition() {
+		LocalDate month = LocalDate.now().withDayOfMonth(1);
+		String plan = explain("SELECT * FROM observation WHERE voided = 0 AND retired = 0 "
+		        + "AND observation_date >= '" + month + "' AND observation_date < '" + month.plusMonths(1) + "'");
+
+		assertAll(() -> assertTrue(plan.contains(partitionOf(month)), plan),
+		        () -> assertFalse(plan.contains(partitionOf(month.minusMonths(1))), plan),
+		        () -> assertFalse(plan.contains(partitionOf(month.plusMonths(1))), plan),
+		        () -> assertFalse(plan.contains("observation_default"), plan));
+	}
+
+	@Test
+	public void testObservationByIdProbesTheKeyOfEveryPartition() {
+		String plan = explain("SELECT * FROM observation WHERE id = 1");
+		List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+		        + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'observation'::regclass", String.class);
+
+		// The ID alone cannot be pruned, but each partition is probed by its key
+		assertFalse(plan.contains("Seq Scan"), plan);
+		for (String partition : partitions) {
+			assertTrue(plan.contains(partition + "_pkey"), plan);
+		}
+	}
+
+	@Test
+	public void testActiveUserByUsernameUsesIndex() {
+		String plan = explain(
+		        "SELECT * FROM application_user WHERE username = 'test1' AND voided = 0 AND retired = 0");
+
+		assertTrue(plan.contains("application_user_active_username_idx"), plan);
+	}
+
+	@Test
+	public void testActiveConceptByNameUsesIndex() {
+		String plan = explain("SELECT * FROM concept WHERE name = 'Temperature' AND voided = 0 AND retired = 0");
+
+		assertTrue(plan.contains("concept_active_name_idx"), plan);
+	}
+
+	@Test
+	public void testEpisodesOfEncounterUseIndex() {
+		String plan = explain(
+		        "SELECT * FROM episode WHERE encounter_id = 1 AND voided = 0 AND retired = 0 ORDER BY id");
+
+		assertTrue(plan.contains("episode_active_encounter_idx"), plan);
+	}
+
+	@Test
+	public void testPagesOfActiveRowsAreIndexScans() {
+		for (String table : new String[] { "observation", "encounter", "episode", "concept", "application_user" }) {
+			String plan = explain("SELECT * FROM " + table
+			        + " WHERE id > 0 AND voided = 0 AND retired = 0 ORDER BY id LIMIT 101");
+
+			// Either the partial index or the primary key satisfies the order, the
+			// partitions of observation are merged on their sort key without a sort
+			assertTrue(plan.contains("Index Scan") && !plan.contains("Sort  ("), plan);
+		}
+	}
+
+	private static String partitionOf(LocalDate month) {
+		return "observation_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+	}
+
+	private String explain(String sql) {
+		List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+		return String.join("\n", lines);
+	}
+}
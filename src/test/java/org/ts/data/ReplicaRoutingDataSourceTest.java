@@ -0,0 +1,142 @@
+package org.ts.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests of routing read-only transactions to healthy replicas and of falling
+ * back to the primary. The last test needs two local database instances, the
+ * second given by the <code>REPLICA_DATASOURCE_URL</code> environment variable.
+ *
+ * @author Yamiko Msosa
+ *
+ */
+public class ReplicaRoutingDataSourceTest {
+
+	private final Map<String, Double> lags = new LinkedHashMap<>();
+
+	@AfterEach
+	public void clearTransactionState() {
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	public void testReadOnlyTransactionsAreSpreadOverReplicas() {
+		ReplicaRoutingDataSource dataSource = routingDataSource(0.0, 1.0);
+		readOnlyTransaction(true);
+
+		assertEquals("replica-1", dataSource.determineCurrentLookupKey());
+		assertEquals("replica-2", dataSource.determineCurrentLookupKey());
+		assertEquals("replica-1", dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	public void testWritesStayOnPrimary() {
+		ReplicaRoutingDataSource dataSource = routingDataSource(0.0, 0.0);
+
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+		readOnlyTransaction(false);
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	public void testLaggingOrFailedReplicasAreSkipped() {
+		ReplicaRoutingDataSource dataSource = routingDataSource(60.0, 0.0);
+		readOnlyTransaction(true);
+
+		assertEquals("replica-2", dataSource.determineCurrentLookupKey());
+		assertEquals("replica-2", dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	public void testReadsFallBackToPrimaryWithoutHealthyReplicas() {
+		ReplicaHealthMonitor monitor = monitor(60.0, null);
+		ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(new DriverManagerDataSource(), monitor);
+		readOnlyTransaction(true);
+
+		assertNull(monitor.nextHealthy());
+		assertEquals(ReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+
+		// The replica recovers on the next check
+		lags.put("replica-1", 0.0);
+		monitor.check();
+		assertEquals("replica-1", dataSource.determineCurrentLookupKey());
+	}
+
+	@Test
+	@EnabledIfEnvironmentVariable(named = "REPLICA_DATASOURCE_URL", matches = ".+")
+	public void testReadOnlyTransactionsUseReplicaDatabase() {
+		DriverManagerDataSource primary = new DriverManagerDataSource(
+		        "jdbc:postgresql://localhost:5555/spring_treatment_ehr_tests", "test", "test");
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-1", new DriverManagerDataSource(System.getenv("REPLICA_DATASOURCE_URL"), "test", "test"));
+		ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, 30, 2);
+		monitor.check();
+
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, monitor));
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		String portQuery = "SELECT inet_server_port()";
+
+		Integer writePort = transactionTemplate
+		        .execute(status -> jdbcTemplate.queryForObject(portQuery, Integer.class));
+		transactionTemplate.setReadOnly(true);
+		Integer readPort = transactionTemplate
+		        .execute(status -> jdbcTemplate.queryForObject(portQuery, Integer.class));
+
+		assertEquals(new JdbcTemplate(primary).queryForObject(portQuery, Integer.class), writePort);
+		assertEquals(new JdbcTemplate(replicas.get("replica-1")).queryForObject(portQuery, Integer.class), readPort);
+	}
+
+	private ReplicaRoutingDataSource routingDataSource(Double lag1, Double lag2) {
+		return new ReplicaRoutingDataSource(new DriverManagerDataSource(), monitor(lag1, lag2));
+	}
+
+	private ReplicaHealthMonitor monitor(Double lag1, Double lag2) {
+		lags.put("replica-1", lag1);
+		lags.put("replica-2", lag2);
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (String name : lags.keySet()) {
+			replicas.put(name, new ReplicaDataSource(name));
+		}
+		ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, 30, 2) {
+			@Override
+			Double lagOf(DataSource replica) {
+				return lags.get(((ReplicaDataSource) replica).name);
+			}
+		};
+		monitor.check();
+		return monitor;
+	}
+
+	private void readOnlyTransaction(boolean readOnly) {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+	}
+
+	private static class ReplicaDataSource extends DriverManagerDataSource {
+
+		private final String name;
+
+		ReplicaDataSource(String name) {
+			this.name = name;
+		}
+	}
+}